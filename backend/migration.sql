@@ -7,4 +7,142 @@ ADD COLUMN senha VARCHAR(255);
 UPDATE usuarios SET 
     email = CONCAT('user', id, '@temp.com'),
     senha = '$2a$10$N9qo8uLOickgx2ZMRJWYneIpHjO.LWDDA9XG5DqRGIK2XK9MKj7iy' -- senha: 123456
-WHERE email IS NULL; 
\ No newline at end of file
+WHERE email IS NULL; 
+
+-- Índice único para o número da conta (a checagem de duplicidade passa a depender dele)
+ALTER TABLE contas
+ADD CONSTRAINT uk_contas_numero_conta UNIQUE (numero_conta);
+
+-- Índice do extrato paginado (conta, data, id)
+CREATE INDEX idx_movimentacoes_conta_data_id ON movimentacoes (conta_id, data, id);
+
+-- Saldo de cada conta ao final de cada dia com movimentação
+-- (preencher com app.saldo-diario.backfill-na-inicializacao=true na primeira subida)
+CREATE TABLE IF NOT EXISTS saldos_diarios (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    conta_id BIGINT NOT NULL,
+    data DATE NOT NULL,
+    saldo DECIMAL(38,2) NOT NULL,
+    CONSTRAINT uk_saldos_diarios_conta_data UNIQUE (conta_id, data)
+);
+
+-- Liga o SAQUE e o DEPOSITO de uma mesma transferência
+ALTER TABLE movimentacoes
+ADD COLUMN transferencia_id VARCHAR(36);
+CREATE INDEX idx_movimentacoes_transferencia ON movimentacoes (transferencia_id);
+
+-- Idempotency-Key já usada em POST /api/movimentacoes e a movimentação gerada
+CREATE TABLE IF NOT EXISTS chaves_idempotencia (
+    chave VARCHAR(100) PRIMARY KEY,
+    movimentacao_id BIGINT NOT NULL,
+    criada_em DATETIME(6) NOT NULL
+);
+
+-- Quem usou cada chave e o hash da requisição (repetição com outros dados responde 422);
+-- o índice atende a limpeza das chaves fora da retenção
+ALTER TABLE chaves_idempotencia
+ADD COLUMN usuario VARCHAR(255),
+ADD COLUMN hash_requisicao VARCHAR(64);
+CREATE INDEX idx_chaves_idempotencia_criada_em ON chaves_idempotencia (criada_em);
+
+-- Modo journal: último registro do journal local já gravado no banco
+CREATE TABLE IF NOT EXISTS journal_checkpoint (
+    id INT PRIMARY KEY,
+    ultimo_seq BIGINT NOT NULL
+);
+
+-- Particionamento mensal de movimentacoes e arquivo (app.arquivamento.*, ver ArquivamentoService).
+-- O MySQL exige a coluna de partição em toda chave única e não aceita chave estrangeira em
+-- tabela particionada: a PK passa a (id, data) e a FK para contas sai (a exclusão de conta
+-- com movimentações é barrada em ContaService). Partições pYYYYMM do primeiro mês com
+-- movimentação até três meses à frente, mais a pmax; o job cria as seguintes.
+DROP PROCEDURE IF EXISTS particionar_movimentacoes;
+DELIMITER //
+CREATE PROCEDURE particionar_movimentacoes()
+BEGIN
+    DECLARE v_fk VARCHAR(64);
+    DECLARE v_mes DATE;
+    DECLARE v_fim DATE;
+    DECLARE v_particoes TEXT DEFAULT '';
+    DECLARE v_fim_fks INT DEFAULT 0;
+    DECLARE c_fks CURSOR FOR
+        SELECT CONSTRAINT_NAME FROM information_schema.TABLE_CONSTRAINTS
+        WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movimentacoes' AND CONSTRAINT_TYPE = 'FOREIGN KEY';
+    DECLARE CONTINUE HANDLER FOR NOT FOUND SET v_fim_fks = 1;
+
+    OPEN c_fks;
+    remover_fks: LOOP
+        FETCH c_fks INTO v_fk;
+        IF v_fim_fks = 1 THEN
+            LEAVE remover_fks;
+        END IF;
+        SET @ddl = CONCAT('ALTER TABLE movimentacoes DROP FOREIGN KEY ', v_fk);
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END LOOP;
+    CLOSE c_fks;
+
+    UPDATE movimentacoes SET data = CURDATE() WHERE data IS NULL;
+    ALTER TABLE movimentacoes MODIFY data DATE NOT NULL, DROP PRIMARY KEY, ADD PRIMARY KEY (id, data);
+
+    SET v_mes = DATE_FORMAT(COALESCE((SELECT MIN(data) FROM movimentacoes), CURDATE()), '%Y-%m-01');
+    SET v_fim = DATE_ADD(DATE_FORMAT(CURDATE(), '%Y-%m-01'), INTERVAL 4 MONTH);
+    WHILE v_mes < v_fim DO
+        SET v_particoes = CONCAT(v_particoes, 'PARTITION p', DATE_FORMAT(v_mes, '%Y%m'),
+                ' VALUES LESS THAN (''', DATE_ADD(v_mes, INTERVAL 1 MONTH), '''), ');
+        SET v_mes = DATE_ADD(v_mes, INTERVAL 1 MONTH);
+    END WHILE;
+    SET @ddl = CONCAT('ALTER TABLE movimentacoes PARTITION BY RANGE COLUMNS(data) (', v_particoes,
+            'PARTITION pmax VALUES LESS THAN (MAXVALUE))');
+    PREPARE stmt FROM @ddl;
+    EXECUTE stmt;
+    DEALLOCATE PREPARE stmt;
+
+    -- Mesma estrutura (exigência do EXCHANGE PARTITION), começando só com a pmax. O
+    -- ddl-auto=update do Hibernate já cria movimentacoes_arquivo na primeira subida, vazia e
+    -- com a PK só em id: enquanto não estiver particionada (nada arquivado), é recriada
+    IF NOT EXISTS (SELECT 1 FROM information_schema.PARTITIONS
+                   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movimentacoes_arquivo'
+                   AND PARTITION_NAME IS NOT NULL) THEN
+        DROP TABLE IF EXISTS movimentacoes_arquivo;
+        CREATE TABLE movimentacoes_arquivo LIKE movimentacoes;
+        ALTER TABLE movimentacoes_arquivo PARTITION BY RANGE COLUMNS(data) (PARTITION pmax VALUES LESS THAN (MAXVALUE));
+    END IF;
+END //
+DELIMITER ;
+CALL particionar_movimentacoes();
+DROP PROCEDURE particionar_movimentacoes;
+
+-- Data a partir da qual tudo está em movimentacoes (uma linha, id = 1; sem linha, nada arquivado)
+CREATE TABLE IF NOT EXISTS movimentacoes_arquivo_limite (
+    id INT PRIMARY KEY,
+    data_limite DATE NOT NULL
+);
+
+-- Fechamento diário: faixas de contas já processadas em cada dia (retomada após interrupção)
+CREATE TABLE IF NOT EXISTS fechamento_faixas (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    data DATE NOT NULL,
+    faixa_inicio BIGINT NOT NULL,
+    faixa_fim BIGINT NOT NULL,
+    concluida_em DATETIME(6) NOT NULL,
+    CONSTRAINT uk_fechamento_faixas_data_inicio UNIQUE (data, faixa_inicio)
+);
+
+-- Movimentações recorrentes: o agendador percorre (proxima_execucao, id) das ativas
+CREATE TABLE IF NOT EXISTS movimentacoes_recorrentes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    conta_id BIGINT NOT NULL,
+    tipo VARCHAR(255) NOT NULL,
+    valor DECIMAL(38,2) NOT NULL,
+    periodicidade VARCHAR(255) NOT NULL,
+    inicio DATETIME(6) NOT NULL,
+    fim DATE,
+    ativa BIT NOT NULL,
+    execucoes INT NOT NULL,
+    proxima_execucao DATETIME(6) NOT NULL,
+    ultima_falha VARCHAR(255),
+    INDEX idx_recorrentes_proxima_id (proxima_execucao, id),
+    INDEX idx_recorrentes_conta (conta_id)
+);
@@ -0,0 +1,133 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Carga fechada (N clientes em laço) contra GET /api/contas/usuario/{id} e
+ * POST /api/movimentacoes, para comparar a aplicação com threads de plataforma e
+ * com o perfil "virtual". Roda sem compilar: java scripts/CompararThreads.java
+ *
+ * Parâmetros (--nome=valor): url, email, senha, usuario, conta, clientes, segundos.
+ */
+public class CompararThreads {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> parametros = new HashMap<>(Map.of(
+                "url", "http://localhost:8080",
+                "email", "user1@temp.com",
+                "senha", "123456",
+                "usuario", "1",
+                "conta", "1",
+                "clientes", "200",
+                "segundos", "30"));
+        for (String arg : args) {
+            String[] partes = arg.replaceFirst("^--", "").split("=", 2);
+            parametros.put(partes[0], partes[1]);
+        }
+
+        HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String url = parametros.get("url");
+        String token = login(cliente, url, parametros.get("email"), parametros.get("senha"));
+        int clientes = Integer.parseInt(parametros.get("clientes"));
+        Duration duracao = Duration.ofSeconds(Long.parseLong(parametros.get("segundos")));
+
+        HttpRequest consulta = HttpRequest.newBuilder(URI.create(url + "/api/contas/usuario/" + parametros.get("usuario")))
+                .header("Authorization", "Bearer " + token)
+                .GET().build();
+        String corpo = String.format("{\"contaId\":%s,\"tipo\":\"DEPOSITO\",\"valor\":\"1.00\",\"data\":\"%s\"}",
+                parametros.get("conta"), LocalDate.now());
+        HttpRequest lancamento = HttpRequest.newBuilder(URI.create(url + "/api/movimentacoes"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(corpo)).build();
+
+        executar("GET  /api/contas/usuario/{id}", cliente, consulta, clientes, duracao);
+        executar("POST /api/movimentacoes", cliente, lancamento, clientes, duracao);
+    }
+
+    private static String login(HttpClient cliente, String url, String email, String senha) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        String.format("{\"email\":\"%s\",\"senha\":\"%s\"}", email, senha)))
+                .build();
+        String resposta = cliente.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"").matcher(resposta);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Login falhou: " + resposta);
+        }
+        return matcher.group(1);
+    }
+
+    private static void executar(String nome, HttpClient cliente, HttpRequest request,
+                                 int clientes, Duration duracao) throws InterruptedException {
+        long fim = System.nanoTime() + duracao.toNanos();
+        AtomicLong erros = new AtomicLong();
+        List<long[]> latenciasPorCliente = new ArrayList<>();
+        int[] quantidades = new int[clientes];
+        CountDownLatch terminou = new CountDownLatch(clientes);
+
+        for (int i = 0; i < clientes; i++) {
+            long[] latencias = new long[1 << 16];
+            latenciasPorCliente.add(latencias);
+            int indice = i;
+            Thread thread = new Thread(() -> {
+                long[] atuais = latencias;
+                int n = 0;
+                while (System.nanoTime() < fim) {
+                    long inicio = System.nanoTime();
+                    try {
+                        int status = cliente.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if (status >= 300) {
+                            erros.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        erros.incrementAndGet();
+                    }
+                    if (n == atuais.length) {
+                        atuais = Arrays.copyOf(atuais, n * 2);
+                        latenciasPorCliente.set(indice, atuais);
+                    }
+                    atuais[n++] = System.nanoTime() - inicio;
+                }
+                quantidades[indice] = n;
+                terminou.countDown();
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        terminou.await();
+
+        int total = Arrays.stream(quantidades).sum();
+        long[] todas = new long[total];
+        int posicao = 0;
+        for (int i = 0; i < clientes; i++) {
+            System.arraycopy(latenciasPorCliente.get(i), 0, todas, posicao, quantidades[i]);
+            posicao += quantidades[i];
+        }
+        Arrays.sort(todas);
+        System.out.printf("%-32s clientes=%d  req/s=%.0f  p50=%.1fms  p99=%.1fms  max=%.1fms  erros=%d%n",
+                nome, clientes, total / (double) duracao.toSeconds(),
+                percentil(todas, 0.50), percentil(todas, 0.99), percentil(todas, 1.0), erros.get());
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1);
+        return ordenadas[Math.max(indice, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,142 @@
+package com.augusto.backend.carga;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mix de requisições lido de um arquivo texto, uma entrada por linha:
+ * <pre>
+ * peso MÉTODO caminho [corpo]
+ * </pre>
+ * Linhas vazias e iniciadas por {@code #} são ignoradas. Caminho e corpo
+ * aceitam os marcadores {@code {usuarioId}}, {@code {contaId}},
+ * {@code {outraContaId}} (conta diferente de {@code {contaId}}),
+ * {@code {valor}} e {@code {hoje}}, sorteados a cada requisição.
+ */
+class Cenario {
+
+    private static final Pattern MARCADOR = Pattern.compile("\\{(usuarioId|contaId|outraContaId|valor|hoje)}");
+
+    record Entrada(String nome, int peso, String metodo, String caminho, String corpo) {
+    }
+
+    /** Requisição pronta para enviar. */
+    record Requisicao(Entrada entrada, String caminho, String corpo) {
+    }
+
+    private final List<Entrada> entradas;
+    private final int[] pesosAcumulados;
+
+    Cenario(List<Entrada> entradas) {
+        if (entradas.isEmpty()) {
+            throw new IllegalArgumentException("Cenário sem entradas");
+        }
+        this.entradas = List.copyOf(entradas);
+        this.pesosAcumulados = new int[entradas.size()];
+        int soma = 0;
+        for (int i = 0; i < entradas.size(); i++) {
+            soma += entradas.get(i).peso();
+            pesosAcumulados[i] = soma;
+        }
+    }
+
+    /** Lê o arquivo informado ou, com {@code null}, o cenário padrão empacotado junto com o harness. */
+    static Cenario carregar(String arquivo) {
+        try {
+            if (arquivo != null) {
+                return interpretar(Files.readAllLines(Path.of(arquivo), StandardCharsets.UTF_8));
+            }
+            try (InputStream padrao = Cenario.class.getResourceAsStream("cenario-padrao.txt")) {
+                if (padrao == null) {
+                    throw new IllegalStateException("Cenário padrão não encontrado no classpath");
+                }
+                return interpretar(new String(padrao.readAllBytes(), StandardCharsets.UTF_8).lines().toList());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler o cenário " + arquivo, e);
+        }
+    }
+
+    static Cenario interpretar(List<String> linhas) {
+        List<Entrada> entradas = new ArrayList<>();
+        for (int i = 0; i < linhas.size(); i++) {
+            String linha = linhas.get(i).strip();
+            if (linha.isEmpty() || linha.startsWith("#")) {
+                continue;
+            }
+            String[] partes = linha.split("\\s+", 4);
+            if (partes.length < 3) {
+                throw new IllegalArgumentException("Linha " + (i + 1) + " do cenário inválida: " + linha);
+            }
+            int peso;
+            try {
+                peso = Integer.parseInt(partes[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Peso inválido na linha " + (i + 1) + ": " + partes[0]);
+            }
+            if (peso <= 0) {
+                throw new IllegalArgumentException("Peso deve ser positivo na linha " + (i + 1));
+            }
+            String metodo = partes[1].toUpperCase();
+            String corpo = partes.length == 4 ? partes[3] : null;
+            entradas.add(new Entrada(metodo + " " + partes[2], peso, metodo, partes[2], corpo));
+        }
+        return new Cenario(entradas);
+    }
+
+    List<Entrada> entradas() {
+        return entradas;
+    }
+
+    boolean usaOutraConta() {
+        return entradas.stream().anyMatch(e -> (e.caminho() + e.corpo()).contains("{outraContaId}"));
+    }
+
+    /** Sorteia uma entrada pelo peso e preenche os marcadores. */
+    Requisicao sortear(long usuarioId, List<Long> contas, BigDecimal valorMaximo) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int sorteio = random.nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+        int indice = 0;
+        while (pesosAcumulados[indice] <= sorteio) {
+            indice++;
+        }
+        Entrada entrada = entradas.get(indice);
+
+        int conta = random.nextInt(contas.size());
+        int outra = contas.size() > 1 ? (conta + 1 + random.nextInt(contas.size() - 1)) % contas.size() : conta;
+        BigDecimal valor = BigDecimal.valueOf(random.nextDouble(0.01, valorMaximo.doubleValue()))
+                .setScale(2, RoundingMode.HALF_UP)
+                .max(new BigDecimal("0.01"));
+        Map<String, String> valores = Map.of(
+                "usuarioId", Long.toString(usuarioId),
+                "contaId", contas.get(conta).toString(),
+                "outraContaId", contas.get(outra).toString(),
+                "valor", valor.toPlainString(),
+                "hoje", LocalDate.now().toString());
+        return new Requisicao(entrada, preencher(entrada.caminho(), valores),
+                entrada.corpo() == null ? null : preencher(entrada.corpo(), valores));
+    }
+
+    private static String preencher(String modelo, Map<String, String> valores) {
+        Matcher matcher = MARCADOR.matcher(modelo);
+        StringBuilder resultado = new StringBuilder();
+        while (matcher.find()) {
+            matcher.appendReplacement(resultado, valores.get(matcher.group(1)));
+        }
+        matcher.appendTail(resultado);
+        return resultado.toString();
+    }
+}
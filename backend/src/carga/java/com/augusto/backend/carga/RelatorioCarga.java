@@ -0,0 +1,99 @@
+package com.augusto.backend.carga;
+
+import com.augusto.backend.simulador.RelatorioLatencias;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Vazão, taxa de erro e percentis de latência por entrada do cenário, a cada
+ * intervalo e no total. A latência conta a partir do instante em que a
+ * requisição deveria ter saído pelo modelo de chegadas, então a fila do
+ * próprio harness aparece nos percentis (sem coordinated omission). Os
+ * histogramas ficam no {@link RelatorioLatencias}, o mesmo do simulador.
+ */
+class RelatorioCarga {
+
+    private static final class Contadores {
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder erros = new LongAdder();
+        private final Map<Integer, LongAdder> porStatus = new ConcurrentHashMap<>();
+        private long okAnterior;
+        private long errosAnterior;
+    }
+
+    private final RelatorioLatencias<String> latencias;
+    private final Map<String, Contadores> porEntrada = new LinkedHashMap<>();
+
+    RelatorioCarga(List<Cenario.Entrada> entradas) {
+        for (Cenario.Entrada entrada : entradas) {
+            porEntrada.putIfAbsent(entrada.nome(), new Contadores());
+        }
+        latencias = new RelatorioLatencias<>(porEntrada.keySet());
+    }
+
+    /** {@code status} 0 indica falha sem resposta (timeout, conexão recusada). */
+    void registrar(Cenario.Entrada entrada, int status, long latenciaNanos) {
+        latencias.registrar(entrada.nome(), latenciaNanos);
+        Contadores contadores = porEntrada.get(entrada.nome());
+        if (status >= 200 && status < 300) {
+            contadores.ok.increment();
+        } else {
+            contadores.erros.increment();
+            contadores.porStatus.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+    }
+
+    /** Chegada que não saiu porque o harness já estava com o máximo de requisições pendentes. */
+    void descartar() {
+        latencias.descartar();
+    }
+
+    /** Imprime o intervalo desde a última chamada e acumula no total; chamado por uma única thread. */
+    void imprimirIntervalo(Duration decorrido, Duration intervalo, int pendentes) {
+        latencias.fecharIntervalo();
+        StringBuilder linha = new StringBuilder(String.format("[%4ds] pendentes %d, descartadas %d",
+                decorrido.toSeconds(), pendentes, latencias.descartadas()));
+        porEntrada.forEach((nome, contadores) -> {
+            long ok = contadores.ok.sum();
+            long erros = contadores.erros.sum();
+            linha.append(String.format("%n    %-56s %s  %s", nome, latencias.formatarIntervalo(nome, intervalo),
+                    taxaDeErro(ok - contadores.okAnterior, erros - contadores.errosAnterior)));
+            contadores.okAnterior = ok;
+            contadores.errosAnterior = erros;
+        });
+        System.out.println(linha);
+    }
+
+    void imprimirFinal(Duration duracao) {
+        latencias.fecharIntervalo();
+        StringBuilder linha = new StringBuilder(String.format("Resultado (%ds medidos, descartadas %d):",
+                duracao.toSeconds(), latencias.descartadas()));
+        long okGeral = 0;
+        long errosGeral = 0;
+        for (Map.Entry<String, Contadores> item : porEntrada.entrySet()) {
+            Contadores contadores = item.getValue();
+            long ok = contadores.ok.sum();
+            long erros = contadores.erros.sum();
+            okGeral += ok;
+            errosGeral += erros;
+            linha.append(String.format("%n    %-56s %s  %s", item.getKey(),
+                    latencias.formatarTotal(item.getKey(), duracao), taxaDeErro(ok, erros)));
+            if (!contadores.porStatus.isEmpty()) {
+                linha.append("  status=").append(contadores.porStatus);
+            }
+        }
+        linha.append(String.format("%n    %-56s %s  %s", "TOTAL", latencias.formatarGeral(duracao),
+                taxaDeErro(okGeral, errosGeral)));
+        System.out.println(linha);
+    }
+
+    private static String taxaDeErro(long ok, long erros) {
+        long total = ok + erros;
+        return String.format("erros=%6.2f%%", total == 0 ? 0.0 : 100.0 * erros / total);
+    }
+}
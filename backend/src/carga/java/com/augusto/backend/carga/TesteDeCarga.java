@@ -0,0 +1,258 @@
+package com.augusto.backend.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Teste de carga HTTP contra uma instância já em execução: faz login em
+ * /api/auth/login (cadastrando o usuário se preciso), garante as contas do
+ * usuário com saldo e dispara o mix do {@link Cenario} em modelo aberto, com
+ * chegadas de Poisson na taxa pedida, independentemente de quanto o servidor
+ * demora para responder.
+ *
+ * <pre>
+ * mvn -Pcarga spring-boot:run -Dspring-boot.run.profiles=h2        # em outro terminal
+ * mvn -Pcarga compile exec:java -Dexec.args="--taxa=200 --duracao=60s"
+ * </pre>
+ *
+ * Opções ({@code --nome=valor}): url, email, senha, registrar, contas,
+ * saldo-inicial, valor-maximo, cenario, taxa, aquecimento, duracao,
+ * intervalo-relatorio, timeout e max-pendentes.
+ */
+public class TesteDeCarga {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String urlBase;
+    private final Duration timeout;
+    private final HttpClient cliente;
+    private String autorizacao;
+
+    TesteDeCarga(String urlBase, Duration timeout) {
+        this.urlBase = urlBase.endsWith("/") ? urlBase.substring(0, urlBase.length() - 1) : urlBase;
+        this.timeout = timeout;
+        this.cliente = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = lerOpcoes(args);
+        TesteDeCarga teste = new TesteDeCarga(opcoes.getOrDefault("url", "http://localhost:8080"),
+                duracao(opcoes.getOrDefault("timeout", "10s")));
+        Cenario cenario = Cenario.carregar(opcoes.get("cenario"));
+
+        long usuarioId = teste.autenticar(opcoes.getOrDefault("email", "carga@teste.com"),
+                opcoes.getOrDefault("senha", "carga123"),
+                Boolean.parseBoolean(opcoes.getOrDefault("registrar", "true")));
+        int minimoContas = Integer.parseInt(opcoes.getOrDefault("contas", "10"));
+        if (cenario.usaOutraConta()) {
+            minimoContas = Math.max(minimoContas, 2);
+        }
+        List<Long> contas = teste.prepararContas(usuarioId, minimoContas,
+                new BigDecimal(opcoes.getOrDefault("saldo-inicial", "1000000.00")));
+        System.out.printf("Usuário %d com %d contas; cenário com %d entradas%n",
+                usuarioId, contas.size(), cenario.entradas().size());
+
+        teste.executar(cenario, usuarioId, contas,
+                new BigDecimal(opcoes.getOrDefault("valor-maximo", "100.00")),
+                Double.parseDouble(opcoes.getOrDefault("taxa", "100")),
+                duracao(opcoes.getOrDefault("aquecimento", "10s")),
+                duracao(opcoes.getOrDefault("duracao", "60s")),
+                duracao(opcoes.getOrDefault("intervalo-relatorio", "5s")),
+                Integer.parseInt(opcoes.getOrDefault("max-pendentes", "10000")));
+    }
+
+    /** Login; se as credenciais não existirem e {@code registrar}, cadastra o usuário. Devolve o id. */
+    long autenticar(String email, String senha, boolean registrar) throws Exception {
+        HttpResponse<String> resposta = enviar("POST", "/api/auth/login",
+                JSON.writeValueAsString(Map.of("email", email, "senha", senha)));
+        if (resposta.statusCode() != 200 && registrar) {
+            String cpf = String.format("%011d", ThreadLocalRandom.current().nextLong(100_000_000_000L));
+            resposta = enviar("POST", "/api/auth/register", JSON.writeValueAsString(Map.of(
+                    "nome", "Teste de Carga", "cpf", cpf, "endereco", "Rua do Teste, 1",
+                    "email", email, "senha", senha)));
+        }
+        if (resposta.statusCode() != 200) {
+            throw new IllegalStateException("Falha na autenticação (" + resposta.statusCode() + "): " + resposta.body());
+        }
+        JsonNode corpo = JSON.readTree(resposta.body());
+        autorizacao = "Bearer " + corpo.get("token").asText();
+        return corpo.get("userId").asLong();
+    }
+
+    /** Usa as contas que o usuário já tem e cria as que faltam, cada uma com um depósito inicial. */
+    List<Long> prepararContas(long usuarioId, int minimo, BigDecimal saldoInicial) throws Exception {
+        List<Long> contas = new ArrayList<>();
+        for (JsonNode conta : JSON.readTree(exigir(enviar("GET", "/api/contas/usuario/" + usuarioId, null)))) {
+            contas.add(conta.get("id").asLong());
+        }
+        while (contas.size() < minimo) {
+            String numero = "CARGA-" + usuarioId + "-" + System.nanoTime();
+            JsonNode criada = JSON.readTree(exigir(enviar("POST", "/api/contas",
+                    JSON.writeValueAsString(Map.of("usuarioId", usuarioId, "numeroConta", numero)))));
+            long contaId = criada.get("id").asLong();
+            exigir(enviar("POST", "/api/movimentacoes", JSON.writeValueAsString(Map.of(
+                    "contaId", contaId, "tipo", "DEPOSITO", "valor", saldoInicial.toPlainString(),
+                    "data", LocalDate.now().toString()))));
+            contas.add(contaId);
+        }
+        return contas;
+    }
+
+    void executar(Cenario cenario, long usuarioId, List<Long> contas, BigDecimal valorMaximo, double taxa,
+                  Duration aquecimento, Duration duracao, Duration intervaloRelatorio, int maxPendentes)
+            throws InterruptedException {
+        if (taxa <= 0) {
+            throw new IllegalArgumentException("Taxa deve ser positiva");
+        }
+        RelatorioCarga relatorio = new RelatorioCarga(cenario.entradas());
+        AtomicInteger pendentes = new AtomicInteger();
+        ExecutorService executor = criarExecutor();
+        System.out.printf("Aquecimento de %ds e medição de %ds a %.0f req/s%n",
+                aquecimento.toSeconds(), duracao.toSeconds(), taxa);
+
+        long inicio = System.nanoTime();
+        long inicioMedicao = inicio + aquecimento.toNanos();
+        long fim = inicioMedicao + duracao.toNanos();
+        long proximoRelatorio = inicioMedicao + intervaloRelatorio.toNanos();
+        long ultimoRelatorio = inicioMedicao;
+        double intervaloMedioNanos = 1_000_000_000.0 / taxa;
+        long proxima = inicio;
+
+        while (proxima < fim) {
+            long agora = System.nanoTime();
+            if (agora >= proximoRelatorio) {
+                relatorio.imprimirIntervalo(Duration.ofNanos(agora - inicioMedicao),
+                        Duration.ofNanos(agora - ultimoRelatorio), pendentes.get());
+                ultimoRelatorio = agora;
+                proximoRelatorio += intervaloRelatorio.toNanos();
+            }
+            if (proxima > agora) {
+                LockSupport.parkNanos(Math.min(proxima - agora, proximoRelatorio - agora));
+                continue;
+            }
+            long previsto = proxima;
+            // Intervalo exponencial entre chegadas: processo de Poisson na taxa pedida
+            proxima += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * intervaloMedioNanos);
+            if (pendentes.get() >= maxPendentes) {
+                if (previsto >= inicioMedicao) {
+                    relatorio.descartar();
+                }
+                continue;
+            }
+            Cenario.Requisicao requisicao = cenario.sortear(usuarioId, contas, valorMaximo);
+            pendentes.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    int status = disparar(requisicao);
+                    if (previsto >= inicioMedicao) {
+                        relatorio.registrar(requisicao.entrada(), status, System.nanoTime() - previsto);
+                    }
+                } finally {
+                    pendentes.decrementAndGet();
+                }
+            });
+        }
+
+        executor.shutdown();
+        if (!executor.awaitTermination(timeout.toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            System.out.printf("%d requisições ainda pendentes ao encerrar%n", pendentes.get());
+            executor.shutdownNow();
+        }
+        relatorio.imprimirFinal(duracao);
+    }
+
+    private int disparar(Cenario.Requisicao requisicao) {
+        try {
+            return enviar(requisicao.entrada().metodo(), requisicao.caminho(), requisicao.corpo()).statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private HttpResponse<String> enviar(String metodo, String caminho, String corpo) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(urlBase + caminho))
+                .timeout(timeout)
+                .method(metodo, corpo == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(corpo));
+        if (corpo != null) {
+            builder.header("Content-Type", "application/json");
+        }
+        if (autorizacao != null) {
+            builder.header("Authorization", autorizacao);
+        }
+        return cliente.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String exigir(HttpResponse<String> resposta) {
+        if (resposta.statusCode() >= 300) {
+            throw new IllegalStateException(resposta.request().method() + " " + resposta.uri()
+                    + " respondeu " + resposta.statusCode() + ": " + resposta.body());
+        }
+        return resposta.body();
+    }
+
+    /**
+     * Uma virtual thread por requisição quando a JVM tem (Java 21+); o projeto
+     * compila para Java 17, por isso a chamada é por reflexão. Sem elas, um pool
+     * que cresce conforme a demanda, limitado na prática por max-pendentes.
+     */
+    private static ExecutorService criarExecutor() {
+        try {
+            ExecutorService virtual = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            System.out.println("Usando virtual threads");
+            return virtual;
+        } catch (ReflectiveOperationException e) {
+            System.out.println("Virtual threads indisponíveis nesta JVM; usando threads de plataforma");
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static Map<String, String> lerOpcoes(String[] args) {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Opção inválida: " + arg + " (use --nome=valor)");
+            }
+            int igual = arg.indexOf('=');
+            opcoes.put(arg.substring(2, igual), arg.substring(igual + 1));
+        }
+        return opcoes;
+    }
+
+    /** Aceita {@code 500ms}, {@code 30s}, {@code 2m} ou ISO-8601 ({@code PT30S}). */
+    private static Duration duracao(String valor) {
+        if (valor.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(valor.substring(0, valor.length() - 2)));
+        }
+        if (valor.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(valor.substring(0, valor.length() - 1)));
+        }
+        if (valor.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(valor.substring(0, valor.length() - 1)));
+        }
+        return Duration.parse(valor);
+    }
+}
@@ -0,0 +1,55 @@
+package com.augusto.backend.benchmark;
+
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Usuario;
+import com.augusto.backend.services.ContaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Cadastro e atualização de conta, os dois caminhos que validam o número da conta. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContaBenchmark {
+
+    private final AtomicLong sequencia = new AtomicLong();
+
+    private ContaService contaService;
+    private Usuario usuario;
+    private Conta conta;
+    private Conta alteracao;
+
+    @Setup
+    public void preparar(ContextoSpring contexto) {
+        contaService = contexto.bean(ContaService.class);
+        usuario = contexto.novoUsuario();
+        conta = contexto.novaConta(usuario, BigDecimal.ZERO);
+        alteracao = new Conta();
+        alteracao.setNumeroConta(conta.getNumeroConta());
+    }
+
+    @Benchmark
+    public Conta criarConta() {
+        return contaService.createConta(usuario.getId(), "NOVA-" + sequencia.incrementAndGet());
+    }
+
+    @Benchmark
+    public Conta atualizarConta() {
+        return contaService.update(conta.getId(), alteracao);
+    }
+}
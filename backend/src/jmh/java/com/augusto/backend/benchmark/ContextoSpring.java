@@ -0,0 +1,73 @@
+package com.augusto.backend.benchmark;
+
+import com.augusto.backend.BackendApplication;
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Usuario;
+import com.augusto.backend.repository.ContaRepository;
+import com.augusto.backend.repository.UsuarioRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sobe a aplicação inteira contra um H2 em memória (modo MySQL), uma vez por
+ * fork do JMH, para os benchmarks que passam pelos services e pelo banco.
+ */
+@State(Scope.Benchmark)
+public class ContextoSpring {
+
+    private static final AtomicLong SEQUENCIA = new AtomicLong();
+
+    private ConfigurableApplicationContext contexto;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // Argumentos de linha de comando têm precedência sobre o application.properties
+        contexto = new SpringApplicationBuilder(BackendApplication.class).run(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.sql.init.mode=never",
+                "--spring.main.banner-mode=off",
+                "--server.port=0",
+                "--logging.level.root=WARN");
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    public <T> T bean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+
+    public Usuario novoUsuario() {
+        long n = SEQUENCIA.incrementAndGet();
+        Usuario usuario = new Usuario();
+        usuario.setNome("Benchmark " + n);
+        usuario.setCpf(String.format("%011d", n));
+        usuario.setEmail("benchmark" + n + "@teste.com");
+        return bean(UsuarioRepository.class).save(usuario);
+    }
+
+    public Conta novaConta(Usuario usuario, BigDecimal saldo) {
+        Conta conta = new Conta();
+        conta.setNumeroConta("BENCH-" + SEQUENCIA.incrementAndGet());
+        conta.setSaldo(saldo);
+        conta.setUsuario(usuario);
+        return bean(ContaRepository.class).save(conta);
+    }
+}
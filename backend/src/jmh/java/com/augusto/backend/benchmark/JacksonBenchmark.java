@@ -0,0 +1,79 @@
+package com.augusto.backend.benchmark;
+
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Movimentacao;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.domain.Usuario;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Serialização das listas devolvidas por /api/contas e /api/movimentacoes. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonBenchmark {
+
+    @Param({"10", "1000"})
+    public int tamanho;
+
+    private ObjectMapper objectMapper;
+    private List<Conta> contas;
+    private List<Movimentacao> movimentacoes;
+
+    @Setup
+    public void preparar() {
+        // Mesmo builder usado pela autoconfiguração do Spring Boot
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Usuario usuario = new Usuario();
+        usuario.setId(1L);
+        usuario.setNome("Benchmark");
+        usuario.setCpf("00000000000");
+        usuario.setEmail("benchmark@teste.com");
+
+        contas = new ArrayList<>(tamanho);
+        movimentacoes = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            Conta conta = new Conta();
+            conta.setId((long) i);
+            conta.setNumeroConta(String.format("%08d", i));
+            conta.setSaldo(new BigDecimal("1234.56"));
+            conta.setUsuario(usuario);
+            contas.add(conta);
+
+            TipoMovimentacao tipo = i % 2 == 0 ? TipoMovimentacao.DEPOSITO : TipoMovimentacao.SAQUE;
+            movimentacoes.add(new Movimentacao((long) i, tipo, new BigDecimal("10.00"),
+                    LocalDate.of(2024, 1, 1).plusDays(i % 365), conta));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarContas() throws Exception {
+        return objectMapper.writeValueAsBytes(contas);
+    }
+
+    @Benchmark
+    public byte[] serializarMovimentacoes() throws Exception {
+        return objectMapper.writeValueAsBytes(movimentacoes);
+    }
+}
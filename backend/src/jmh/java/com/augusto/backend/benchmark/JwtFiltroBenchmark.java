@@ -0,0 +1,53 @@
+package com.augusto.backend.benchmark;
+
+import com.augusto.backend.config.JwtAuthenticationFilter;
+import com.augusto.backend.config.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uma requisição autenticada passando pelo JwtAuthenticationFilter real
+ * (verificação do token e carga do usuário), com os beans da aplicação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFiltroBenchmark {
+
+    private JwtAuthenticationFilter filtro;
+    private String authorization;
+
+    @Setup
+    public void preparar(ContextoSpring contexto) {
+        filtro = contexto.bean(JwtAuthenticationFilter.class);
+        String email = contexto.novoUsuario().getEmail();
+        authorization = "Bearer " + contexto.bean(JwtUtil.class).generateToken(email);
+    }
+
+    @Benchmark
+    public Authentication requisicaoAutenticada() throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/contas");
+        request.addHeader("Authorization", authorization);
+        filtro.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
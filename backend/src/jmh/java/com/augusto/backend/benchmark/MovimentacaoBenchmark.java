@@ -0,0 +1,72 @@
+package com.augusto.backend.benchmark;
+
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Movimentacao;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.domain.Usuario;
+import com.augusto.backend.services.MovimentacaoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lançamento de movimentações pelo MovimentacaoService. Com poucas contas e
+ * várias threads ({@code -t}), mede a disputa pela linha da conta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovimentacaoBenchmark {
+
+    private static final BigDecimal VALOR = new BigDecimal("10.00");
+
+    @Param({"1", "64"})
+    public int quantidadeContas;
+
+    private MovimentacaoService movimentacaoService;
+    private Long[] contaIds;
+    private LocalDate hoje;
+
+    @Setup
+    public void preparar(ContextoSpring contexto) {
+        movimentacaoService = contexto.bean(MovimentacaoService.class);
+        Usuario usuario = contexto.novoUsuario();
+        contaIds = new Long[quantidadeContas];
+        for (int i = 0; i < quantidadeContas; i++) {
+            contaIds[i] = contexto.novaConta(usuario, new BigDecimal("1000000000.00")).getId();
+        }
+        hoje = LocalDate.now();
+    }
+
+    @Benchmark
+    public Movimentacao deposito() {
+        return movimentacaoService.save(nova(TipoMovimentacao.DEPOSITO));
+    }
+
+    @Benchmark
+    public Movimentacao saque() {
+        return movimentacaoService.save(nova(TipoMovimentacao.SAQUE));
+    }
+
+    private Movimentacao nova(TipoMovimentacao tipo) {
+        Conta conta = new Conta();
+        conta.setId(contaIds[ThreadLocalRandom.current().nextInt(contaIds.length)]);
+        return new Movimentacao(null, tipo, VALOR, hoje, conta);
+    }
+}
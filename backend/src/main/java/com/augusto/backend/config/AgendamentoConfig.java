@@ -0,0 +1,10 @@
+package com.augusto.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Habilita os métodos {@code @Scheduled} (ex.: arquivamento de movimentações). */
+@Configuration
+@EnableScheduling
+public class AgendamentoConfig {
+}
@@ -0,0 +1,41 @@
+package com.augusto.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+/**
+ * O Spring Boot deixa de criar o executor padrão quando existe qualquer bean
+ * {@link java.util.concurrent.Executor} (como o senhaExecutor). Declarado aqui, ele
+ * continua atendendo o processamento assíncrono do MVC (exportação de extrato, login):
+ * pool com as propriedades spring.task.execution.* ou, com
+ * spring.threads.virtual.enabled=true, uma virtual thread por tarefa. Abaixo do
+ * Java 21 essa propriedade impede a aplicação de subir.
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder,
+                                                     @Value("${spring.threads.virtual.enabled:false}") boolean virtual) {
+        // O Spring Boot ignora a propriedade abaixo do Java 21; o perfil "virtual" subiria
+        // com threads de plataforma e o pool do Hikari dimensionado para virtual threads
+        if (virtual) {
+            throw new IllegalStateException("spring.threads.virtual.enabled exige Java 21 ou superior; "
+                    + "este processo roda em Java " + Runtime.version().feature());
+        }
+        return builder.build();
+    }
+
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor applicationTaskExecutorVirtual(SimpleAsyncTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
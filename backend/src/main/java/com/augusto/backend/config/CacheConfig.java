@@ -0,0 +1,57 @@
+package com.augusto.backend.config;
+
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Usuario;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Cache de segundo nível do Hibernate, em memória, para {@link Usuario} e
+ * {@link Conta}. Os tamanhos e a expiração de cada região vêm de
+ * app.cache.*; o acerto do cache aparece em
+ * hibernate_second_level_cache_requests_total (result=hit|miss, por região).
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerSegundoNivel(
+            @Value("${app.cache.usuario.tamanho-maximo:10000}") long tamanhoUsuario,
+            @Value("${app.cache.usuario.expiracao:30m}") Duration expiracaoUsuario,
+            @Value("${app.cache.conta.tamanho-maximo:50000}") long tamanhoConta,
+            @Value("${app.cache.conta.expiracao:10m}") Duration expiracaoConta) {
+        // URI própria para cada contexto: testes que sobem mais de um contexto na
+        // mesma JVM não compartilham (nem recriam) as mesmas regiões
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader(), new Properties());
+        cacheManager.createCache(Usuario.class.getName(), regiao(tamanhoUsuario, expiracaoUsuario));
+        cacheManager.createCache(Conta.class.getName(), regiao(tamanhoConta, expiracaoConta));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivel(CacheManager cacheManagerSegundoNivel) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, cacheManagerSegundoNivel);
+    }
+
+    private CaffeineConfiguration<Object, Object> regiao(long tamanhoMaximo, Duration expiracao) {
+        CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+        configuracao.setMaximumSize(OptionalLong.of(tamanhoMaximo));
+        configuracao.setExpireAfterWrite(OptionalLong.of(expiracao.toNanos()));
+        configuracao.setStatisticsEnabled(true);
+        return configuracao;
+    }
+}
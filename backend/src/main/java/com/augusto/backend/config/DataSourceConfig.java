@@ -0,0 +1,75 @@
+package com.augusto.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Réplica de leitura: só entra quando {@code app.datasource.replica.url} está
+ * definida. Aí o primário (spring.datasource.*) e a réplica
+ * (app.datasource.replica.*) ganham pools próprios e o DataSource usado por
+ * JPA e JdbcTemplate passa a ser o {@link RoteamentoDataSource}. Sem a
+ * propriedade, o DataSource autoconfigurado do Spring Boot continua valendo.
+ */
+@Configuration
+@ConditionalOnProperty("app.datasource.replica.url")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource dataSourceReplica(DataSourceProperties properties,
+                                              @Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource dataSourcePrimario, HikariDataSource dataSourceReplica,
+                                 @Value("${app.datasource.leitura-propria-escrita.janela:2s}") Duration janela,
+                                 MeterRegistry meterRegistry) {
+        RoteamentoDataSource roteamento = new RoteamentoDataSource(dataSourcePrimario, dataSourceReplica, janela,
+                DataSourceConfig::usuarioAutenticado, meterRegistry);
+        return new LazyConnectionDataSourceProxy(roteamento);
+    }
+
+    private static String usuarioAutenticado() {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao == null || !autenticacao.isAuthenticated() || autenticacao instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return autenticacao.getName();
+    }
+}
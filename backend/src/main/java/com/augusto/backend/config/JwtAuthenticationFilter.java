@@ -1,19 +1,34 @@
 package com.augusto.backend.config;
 
 import com.augusto.backend.services.UsuarioService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -21,9 +36,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     private final UsuarioService usuarioService;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UsuarioService usuarioService) {
+    private static final GrantedAuthority ADMIN = new SimpleGrantedAuthority("ROLE_ADMIN");
+
+    // Emails com acesso a /api/admin/**; vazio (o padrão) deixa esses endpoints fechados
+    private final Set<String> administradores;
+
+    // Tokens já verificados: a assinatura só é conferida na primeira requisição
+    // com cada token, e a entrada expira junto com o token
+    private final Cache<String, TokenVerificado> tokensVerificados;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   UsuarioService usuarioService,
+                                   @Value("${app.security.token-cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                                   @Value("${app.admin.usuarios:}") List<String> administradores) {
         this.jwtUtil = jwtUtil;
         this.usuarioService = usuarioService;
+        this.administradores = administradores.stream()
+                .map(email -> email.trim().toLowerCase(Locale.ROOT))
+                .filter(email -> !email.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.tokensVerificados = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new ExpiraComToken())
+                .build();
     }
 
     @Override
@@ -33,29 +68,74 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String email = null;
-        String jwt = null;
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authorizationHeader.substring(7);
+            TokenVerificado token = verificar(jwt);
 
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            try {
-                email = jwtUtil.extractEmail(jwt);
-            } catch (Exception e) {
-                // Token inválido
+            if (token != null) {
+                try {
+                    UserDetails userDetails = usuarioService.loadUserByUsername(token.email());
+                    UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(userDetails, null, autoridades(userDetails));
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                } catch (UsernameNotFoundException e) {
+                    // Usuário removido depois da emissão do token
+                    tokensVerificados.invalidate(jwt);
+                }
             }
         }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = usuarioService.loadUserByUsername(email);
+        filterChain.doFilter(request, response);
+    }
+
+    private List<GrantedAuthority> autoridades(UserDetails userDetails) {
+        List<GrantedAuthority> autoridades = new ArrayList<>(userDetails.getAuthorities());
+        if (administradores.contains(userDetails.getUsername().toLowerCase(Locale.ROOT))) {
+            autoridades.add(ADMIN);
+        }
+        return autoridades;
+    }
 
-            if (jwtUtil.validateToken(jwt, email)) {
-                UsernamePasswordAuthenticationToken authToken = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+    private TokenVerificado verificar(String jwt) {
+        TokenVerificado token = tokensVerificados.getIfPresent(jwt);
+        if (token != null) {
+            return token;
+        }
+        try {
+            Claims claims = jwtUtil.extractAllClaims(jwt);
+            if (claims.getSubject() == null || claims.getExpiration() == null) {
+                return null;
             }
+            token = new TokenVerificado(claims.getSubject(), claims.getExpiration().getTime());
+            tokensVerificados.put(jwt, token);
+            return token;
+        } catch (JwtException | IllegalArgumentException e) {
+            // Token inválido
+            return null;
         }
+    }
 
-        filterChain.doFilter(request, response);
+    private record TokenVerificado(String email, long expiraEmMillis) {
+    }
+
+    private static final class ExpiraComToken implements Expiry<String, TokenVerificado> {
+
+        @Override
+        public long expireAfterCreate(String jwt, TokenVerificado token, long currentTime) {
+            long restante = token.expiraEmMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(restante, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String jwt, TokenVerificado token, long currentTime, long currentDuration) {
+            return expireAfterCreate(jwt, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String jwt, TokenVerificado token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-} 
\ No newline at end of file
+}
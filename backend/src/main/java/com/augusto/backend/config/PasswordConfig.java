@@ -1,15 +1,53 @@
 package com.augusto.backend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 @Configuration
 public class PasswordConfig {
 
+    private static final Pattern CUSTO_BCRYPT = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt.forca:10}") int forca) {
+        return new BCryptPasswordEncoder(forca) {
+            // O padrão só atualiza hashes mais fracos; aqui qualquer custo diferente do
+            // configurado é refeito no próximo login (inclusive para baixar o custo)
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                if (encodedPassword == null) {
+                    return false;
+                }
+                Matcher matcher = CUSTO_BCRYPT.matcher(encodedPassword);
+                return matcher.find() && Integer.parseInt(matcher.group(1)) != forca;
+            }
+        };
+    }
+
+    /**
+     * Pool dedicado ao BCrypt de login e cadastro, para que um pico de logins não
+     * ocupe as threads do Tomcat. Com a fila cheia a tarefa é rejeitada na hora
+     * e a requisição responde 503. Sem {@code threads} configurado usa metade dos
+     * processadores, para que um pico de logins deixe núcleos livres para as
+     * leituras.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor senhaExecutor(@Value("${app.security.senha-executor.threads:0}") int threads,
+                                            @Value("${app.security.senha-executor.capacidade-fila:100}") int capacidadeFila) {
+        int quantidade = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new ThreadPoolExecutor(quantidade, quantidade, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila),
+                new CustomizableThreadFactory("senha-"),
+                new ThreadPoolExecutor.AbortPolicy());
     }
-} 
\ No newline at end of file
+}
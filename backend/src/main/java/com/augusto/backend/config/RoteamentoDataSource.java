@@ -0,0 +1,108 @@
+package com.augusto.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Manda as conexões de transações somente leitura
+ * ({@code @Transactional(readOnly = true)}) para a réplica e todo o resto para
+ * o primário. Precisa ficar atrás de um
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * sem ele a conexão é pedida no início da transação, antes de o flag de
+ * somente leitura estar visível aqui.
+ * <p>
+ * Com {@code janelaLeituraPropriasEscritas} maior que zero, depois que uma
+ * transação de escrita do usuário autenticado confirma, as leituras desse
+ * usuário continuam no primário durante a janela, para ele não ver na réplica
+ * um estado anterior ao que acabou de gravar.
+ * <p>
+ * O que se lê da réplica não entra no cache de segundo nível do Hibernate: a
+ * sessão da transação passa a {@link CacheMode#GET} (lê do cache, não grava).
+ * Senão um saldo atrasado da réplica voltaria ao cache logo depois do descarte
+ * feito pela escrita, e seria servido a todos, inclusive às leituras fixadas
+ * no primário, até expirar.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    enum Destino {
+        PRIMARIO, REPLICA
+    }
+
+    private final Supplier<String> usuarioAtual;
+    private final Cache<String, Boolean> usuariosFixados;
+    private final Counter leiturasNaReplica;
+    private final Counter leiturasFixadas;
+
+    public RoteamentoDataSource(DataSource primario, DataSource replica, Duration janelaLeituraPropriasEscritas,
+                                Supplier<String> usuarioAtual, MeterRegistry meterRegistry) {
+        this.usuarioAtual = usuarioAtual;
+        this.usuariosFixados = janelaLeituraPropriasEscritas.isZero() ? null
+                : Caffeine.newBuilder().expireAfterWrite(janelaLeituraPropriasEscritas).build();
+        this.leiturasNaReplica = Counter.builder("banco.datasource.leituras")
+                .description("Conexões de transações somente leitura, por destino")
+                .tag("destino", "replica")
+                .register(meterRegistry);
+        this.leiturasFixadas = Counter.builder("banco.datasource.leituras")
+                .description("Conexões de transações somente leitura, por destino")
+                .tag("destino", "primario")
+                .register(meterRegistry);
+        setTargetDataSources(Map.of(Destino.PRIMARIO, primario, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primario);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String usuario = usuariosFixados != null ? usuarioAtual.get() : null;
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (usuario != null) {
+                fixarAposEscrita(usuario);
+            }
+            return Destino.PRIMARIO;
+        }
+        if (usuario != null && usuariosFixados.getIfPresent(usuario) != null) {
+            leiturasFixadas.increment();
+            return Destino.PRIMARIO;
+        }
+        leiturasNaReplica.increment();
+        naoGuardarNoCache();
+        return Destino.REPLICA;
+    }
+
+    /** A conexão é pedida na primeira consulta, antes de o Hibernate montar (e guardar) as entidades. */
+    private static void naoGuardarNoCache() {
+        for (Object recurso : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (recurso instanceof EntityManagerHolder holder) {
+                holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+            }
+        }
+    }
+
+    private void fixarAposEscrita(String usuario) {
+        // Consultas fora de transação (auto-commit) também caem aqui; só transações de
+        // escrita contam para a janela
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                usuariosFixados.put(usuario, Boolean.TRUE);
+            }
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package com.augusto.backend.controller;
+
+import com.augusto.backend.dto.ArquivamentoResultadoDTO;
+import com.augusto.backend.dto.FechamentoResultadoDTO;
+import com.augusto.backend.dto.ReconciliacaoResultadoDTO;
+import com.augusto.backend.services.ArquivamentoService;
+import com.augusto.backend.services.FechamentoDiarioService;
+import com.augusto.backend.services.ReconciliacaoService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "http://localhost:5173")
+public class AdminController {
+
+    private final ReconciliacaoService reconciliacaoService;
+    private final ArquivamentoService arquivamentoService;
+    private final FechamentoDiarioService fechamentoDiarioService;
+
+    AdminController(ReconciliacaoService reconciliacaoService, ArquivamentoService arquivamentoService,
+                    FechamentoDiarioService fechamentoDiarioService) {
+        this.reconciliacaoService = reconciliacaoService;
+        this.arquivamentoService = arquivamentoService;
+        this.fechamentoDiarioService = fechamentoDiarioService;
+    }
+
+    /**
+     * Reconcilia os saldos de todas as contas com as movimentações. Pode levar
+     * minutos: roda no executor assíncrono do MVC, sem segurar a thread da
+     * requisição. Responde 409 se já houver uma reconciliação em andamento ou,
+     * com {@code corrigir}, um arquivamento.
+     */
+    @PostMapping("/reconciliacao")
+    public Callable<ResponseEntity<ReconciliacaoResultadoDTO>> reconciliar(
+            @RequestParam(defaultValue = "false") boolean corrigir) {
+        return () -> reconciliacaoService.reconciliar(corrigir)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    /**
+     * Roda agora o arquivamento de movimentações que normalmente fica no cron
+     * (app.arquivamento.cron). Responde 409 se já houver um em andamento.
+     */
+    @PostMapping("/arquivamento")
+    public Callable<ResponseEntity<ArquivamentoResultadoDTO>> arquivar() {
+        return () -> arquivamentoService.arquivar()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    /**
+     * Fecha um dia (juros e tarifa de todas as contas); sem {@code data}, o dia
+     * anterior. Também retoma um fechamento interrompido daquele dia. Responde
+     * 409 se já houver um fechamento em andamento.
+     */
+    @PostMapping("/fechamento")
+    public Callable<ResponseEntity<FechamentoResultadoDTO>> fechar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+        LocalDate dia = data != null ? data : LocalDate.now().minusDays(1);
+        return () -> fechamentoDiarioService.fechar(dia)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+}
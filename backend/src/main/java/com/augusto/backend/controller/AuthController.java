@@ -8,6 +8,7 @@ import com.augusto.backend.dto.RegisterRequestDTO;
 import com.augusto.backend.services.UsuarioService;
 import jakarta.validation.Valid;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -15,6 +16,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -24,17 +27,26 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final UsuarioService usuarioService;
     private final JwtUtil jwtUtil;
+    private final Executor senhaExecutor;
 
     public AuthController(AuthenticationManager authenticationManager, 
                          UsuarioService usuarioService, 
-                         JwtUtil jwtUtil) {
+                         JwtUtil jwtUtil,
+                         @Qualifier("senhaExecutor") Executor senhaExecutor) {
         this.authenticationManager = authenticationManager;
         this.usuarioService = usuarioService;
         this.jwtUtil = jwtUtil;
+        this.senhaExecutor = senhaExecutor;
     }
 
+    // Login e cadastro rodam o BCrypt no senhaExecutor; a thread do Tomcat é liberada
+    // enquanto isso. Com o pool saturado, supplyAsync lança RejectedExecutionException (503).
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequestDTO loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequestDTO loginRequest) {
+        return CompletableFuture.supplyAsync(() -> autenticar(loginRequest), senhaExecutor);
+    }
+
+    private ResponseEntity<?> autenticar(LoginRequestDTO loginRequest) {
         try {
             Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getSenha())
@@ -58,7 +70,11 @@ public class AuthController {
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequestDTO registerRequest) {
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody RegisterRequestDTO registerRequest) {
+        return CompletableFuture.supplyAsync(() -> registrar(registerRequest), senhaExecutor);
+    }
+
+    private ResponseEntity<?> registrar(RegisterRequestDTO registerRequest) {
         try {
             // Verificar se email já existe
             Optional<Usuario> existingUserByEmail = usuarioService.findByEmail(registerRequest.getEmail());
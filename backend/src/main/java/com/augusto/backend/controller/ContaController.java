@@ -1,18 +1,26 @@
 package com.augusto.backend.controller;
 
 import com.augusto.backend.domain.Conta;
+import com.augusto.backend.dto.ContaDTO;
 import com.augusto.backend.dto.ContaRequestDTO;
 import com.augusto.backend.dto.ContaUpdateDTO;
+import com.augusto.backend.dto.ResumoAnualDTO;
+import com.augusto.backend.dto.SaldoNaDataDTO;
 import com.augusto.backend.mapper.ContaMapper;
 import com.augusto.backend.services.ContaService;
+import com.augusto.backend.services.ResumoMensalService;
+import com.augusto.backend.services.SaldoDiarioService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,44 +31,66 @@ public class ContaController {
     private static final Logger logger = LoggerFactory.getLogger(ContaController.class);
     private final ContaService contaService;
     private final ContaMapper contaMapper;
+    private final SaldoDiarioService saldoDiarioService;
+    private final ResumoMensalService resumoMensalService;
 
     @Autowired
-    public ContaController(ContaService contaService, ContaMapper contaMapper) {
+    public ContaController(ContaService contaService, ContaMapper contaMapper, SaldoDiarioService saldoDiarioService,
+                           ResumoMensalService resumoMensalService) {
         this.contaService = contaService;
         this.contaMapper = contaMapper;
+        this.saldoDiarioService = saldoDiarioService;
+        this.resumoMensalService = resumoMensalService;
     }
 
     @GetMapping
-    public ResponseEntity<List<Conta>> getAllContas() {
+    public ResponseEntity<List<ContaDTO>> getAllContas() {
         logger.info("Buscando todas as contas");
-        List<Conta> contas = contaService.findAll();
+        List<ContaDTO> contas = contaService.listarContas();
         logger.info("Encontradas {} contas", contas.size());
         return ResponseEntity.ok(contas);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Conta> getContaById(@PathVariable Long id) {
+    public ResponseEntity<ContaDTO> getContaById(@PathVariable Long id) {
         logger.info("Buscando conta com ID: {}", id);
         Optional<Conta> conta = contaService.findById(id);
         if (conta.isPresent()) {
             logger.info("Conta encontrada: {}", conta.get().getId());
-            return ResponseEntity.ok(conta.get());
+            return ResponseEntity.ok(ContaDTO.de(conta.get()));
         } else {
             logger.warn("Conta não encontrada com ID: {}", id);
             return ResponseEntity.notFound().build();
         }
     }
 
+    @GetMapping("/{id}/saldo")
+    public ResponseEntity<SaldoNaDataDTO> getSaldoNaData(@PathVariable Long id,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+        logger.info("Buscando saldo da conta ID: {} em {}", id, data);
+        // Sem registro diário o saldo é zero, então a existência da conta é conferida antes
+        contaService.findByIdOrThrow(id);
+        BigDecimal saldo = saldoDiarioService.saldoEm(id, data);
+        return ResponseEntity.ok(new SaldoNaDataDTO(id, data, saldo));
+    }
+
+    @GetMapping("/{id}/resumo")
+    public ResponseEntity<ResumoAnualDTO> getResumoMensal(@PathVariable Long id, @RequestParam(required = false) Integer ano) {
+        int anoConsultado = ano != null ? ano : LocalDate.now().getYear();
+        logger.info("Buscando resumo mensal da conta ID: {} em {}", id, anoConsultado);
+        return ResponseEntity.ok(resumoMensalService.resumoDoAno(id, anoConsultado));
+    }
+
     @GetMapping("/usuario/{usuarioId}")
-    public ResponseEntity<List<Conta>> getContasByUsuarioId(@PathVariable Long usuarioId) {
+    public ResponseEntity<List<ContaDTO>> getContasByUsuarioId(@PathVariable Long usuarioId) {
         logger.info("Buscando contas do usuário ID: {}", usuarioId);
-        List<Conta> contas = contaService.findByUsuarioId(usuarioId);
+        List<ContaDTO> contas = contaService.listarContasDoUsuario(usuarioId);
         logger.info("Encontradas {} contas para o usuário ID: {}", contas.size(), usuarioId);
         return ResponseEntity.ok(contas);
     }
 
     @PostMapping
-    public ResponseEntity<Conta> createConta(@Valid @RequestBody ContaRequestDTO contaRequest) {
+    public ResponseEntity<ContaDTO> createConta(@Valid @RequestBody ContaRequestDTO contaRequest) {
         logger.info("Criando nova conta para usuário ID: {} com número: {}", 
                    contaRequest.getUsuarioId(), contaRequest.getNumeroConta());
         
@@ -70,18 +100,18 @@ public class ContaController {
         );
         
         logger.info("Conta criada com sucesso. ID: {}", novaConta.getId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(novaConta);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ContaDTO.de(novaConta));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Conta> updateConta(@PathVariable Long id, @RequestBody ContaUpdateDTO contaUpdate) {
+    public ResponseEntity<ContaDTO> updateConta(@PathVariable Long id, @RequestBody ContaUpdateDTO contaUpdate) {
         logger.info("Atualizando conta ID: {} com novo número: {}", id, contaUpdate.getNumeroConta());
         
         Conta conta = contaMapper.updateDtoToEntity(contaUpdate);
         
         Conta updatedConta = contaService.update(id, conta);
         logger.info("Conta atualizada com sucesso. ID: {}", updatedConta.getId());
-        return ResponseEntity.ok(updatedConta);
+        return ResponseEntity.ok(ContaDTO.de(updatedConta));
     }
 
     @DeleteMapping("/{id}")
@@ -4,12 +4,27 @@ package com.augusto.backend.controller;
 import com.augusto.backend.domain.Conta;
 import com.augusto.backend.domain.Movimentacao;
 import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.dto.ExtratoPaginaDTO;
+import com.augusto.backend.dto.MovimentacaoDTO;
+import com.augusto.backend.dto.MovimentacaoLoteResultadoDTO;
+import com.augusto.backend.dto.MovimentacaoRequestDTO;
+import com.augusto.backend.dto.TransferenciaDTO;
+import com.augusto.backend.dto.TransferenciaRequestDTO;
+import com.augusto.backend.exception.IdempotenciaConflitanteException;
 import com.augusto.backend.services.ContaService;
+import com.augusto.backend.services.ExtratoExportService;
+import com.augusto.backend.services.ExtratoExportService.Formato;
+import com.augusto.backend.services.MovimentacaoLoteService;
 import com.augusto.backend.services.MovimentacaoService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.security.Principal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -22,33 +37,66 @@ public class MovimentacaoController {
 
     private MovimentacaoService movimentacaoService;
     private ContaService contaService;
+    private MovimentacaoLoteService movimentacaoLoteService;
+    private ExtratoExportService extratoExportService;
 
-    MovimentacaoController (MovimentacaoService movimentacaoService, ContaService contaService) {
+    MovimentacaoController (MovimentacaoService movimentacaoService, ContaService contaService,
+                            MovimentacaoLoteService movimentacaoLoteService, ExtratoExportService extratoExportService) {
         this.movimentacaoService = movimentacaoService;
         this.contaService = contaService;
+        this.movimentacaoLoteService = movimentacaoLoteService;
+        this.extratoExportService = extratoExportService;
     }
 
     @GetMapping
-    public ResponseEntity<List<Movimentacao>> getAllMovimentacoes() {
-        List<Movimentacao> movimentacoes = movimentacaoService.findAll();
+    public ResponseEntity<List<MovimentacaoDTO>> getAllMovimentacoes() {
+        List<MovimentacaoDTO> movimentacoes = movimentacaoService.listarMovimentacoes();
         return ResponseEntity.ok(movimentacoes);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Movimentacao> getMovimentacaoById(@PathVariable Long id) {
+    public ResponseEntity<MovimentacaoDTO> getMovimentacaoById(@PathVariable Long id) {
         Optional<Movimentacao> movimentacao = movimentacaoService.findById(id);
-        return movimentacao.map(ResponseEntity::ok)
+        return movimentacao.map(MovimentacaoDTO::de).map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @GetMapping("/conta/{contaId}")
-    public ResponseEntity<List<Movimentacao>> getMovimentacoesByContaId(@PathVariable Long contaId) {
-        List<Movimentacao> movimentacoes = movimentacaoService.findByContaId(contaId);
+    public ResponseEntity<List<MovimentacaoDTO>> getMovimentacoesByContaId(@PathVariable Long contaId) {
+        List<MovimentacaoDTO> movimentacoes = movimentacaoService.listarMovimentacoesDaConta(contaId);
         return ResponseEntity.ok(movimentacoes);
     }
 
+    @GetMapping("/conta/{contaId}/extrato")
+    public ResponseEntity<ExtratoPaginaDTO> getExtrato(
+            @PathVariable Long contaId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor) {
+        ExtratoPaginaDTO pagina = movimentacaoService.findExtrato(contaId, from, to, limit, cursor);
+        return ResponseEntity.ok(pagina);
+    }
+
+    @GetMapping("/conta/{contaId}/export")
+    public ResponseEntity<StreamingResponseBody> exportExtrato(@PathVariable Long contaId,
+                                                               @RequestParam(defaultValue = "csv") String formato) {
+        Formato formatoExportacao = Formato.of(formato);
+        // Valida antes de começar o streaming, enquanto ainda dá para responder 404
+        contaService.findByIdOrThrow(contaId);
+
+        StreamingResponseBody corpo = saida -> extratoExportService.exportar(contaId, formatoExportacao, saida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formatoExportacao.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"extrato-" + contaId + "." + formatoExportacao.getExtensao() + "\"")
+                .body(corpo);
+    }
+
     @PostMapping
-    public ResponseEntity<?> createMovimentacao(@RequestBody Map<String, Object> payload) {
+    public ResponseEntity<?> createMovimentacao(@RequestBody Map<String, Object> payload,
+                                                @RequestHeader(value = "Idempotency-Key", required = false) String chaveIdempotencia,
+                                                Principal principal) {
         try {
             Long contaId = Long.parseLong(payload.get("contaId").toString());
             TipoMovimentacao tipo = TipoMovimentacao.valueOf(payload.get("tipo").toString().toUpperCase());
@@ -66,21 +114,38 @@ public class MovimentacaoController {
                 novaMovimentacao.setValor(valor);
                 novaMovimentacao.setData(data);
 
-                Movimentacao savedMovimentacao = movimentacaoService.save(novaMovimentacao);
-                return ResponseEntity.ok(savedMovimentacao);
+                Movimentacao savedMovimentacao = movimentacaoService.save(novaMovimentacao, chaveIdempotencia,
+                        principal != null ? principal.getName() : null);
+                return ResponseEntity.ok(MovimentacaoDTO.de(savedMovimentacao));
             }
 
             return ResponseEntity.badRequest().body("Conta não encontrada");
+        } catch (IdempotenciaConflitanteException e) {
+            // 422 pelo GlobalExceptionHandler, não o 400 genérico abaixo
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<MovimentacaoLoteResultadoDTO>> createMovimentacoesEmLote(@RequestBody List<MovimentacaoRequestDTO> movimentacoes) {
+        List<MovimentacaoLoteResultadoDTO> resultados = movimentacaoLoteService.salvarLote(movimentacoes);
+        return ResponseEntity.ok(resultados);
+    }
+
+    @PostMapping("/transferencia")
+    public ResponseEntity<TransferenciaDTO> createTransferencia(@RequestBody TransferenciaRequestDTO transferencia) {
+        TransferenciaDTO resultado = movimentacaoService.transferir(transferencia.getContaOrigemId(),
+                transferencia.getContaDestinoId(), transferencia.getValor(), transferencia.getData());
+        return ResponseEntity.ok(resultado);
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<Movimentacao> updateMovimentacao(@PathVariable Long id, @RequestBody Movimentacao movimentacao) {
+    public ResponseEntity<MovimentacaoDTO> updateMovimentacao(@PathVariable Long id, @RequestBody Movimentacao movimentacao) {
         Movimentacao updatedMovimentacao = movimentacaoService.update(id, movimentacao);
         if (updatedMovimentacao != null) {
-            return ResponseEntity.ok(updatedMovimentacao);
+            return ResponseEntity.ok(MovimentacaoDTO.de(updatedMovimentacao));
         }
         return ResponseEntity.notFound().build();
     }
@@ -0,0 +1,64 @@
+package com.augusto.backend.controller;
+
+import com.augusto.backend.domain.MovimentacaoRecorrente;
+import com.augusto.backend.dto.MovimentacaoRecorrenteDTO;
+import com.augusto.backend.dto.MovimentacaoRecorrenteRequestDTO;
+import com.augusto.backend.services.MovimentacaoRecorrenteService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/movimentacoes-recorrentes")
+@CrossOrigin(origins = "http://localhost:5173")
+public class MovimentacaoRecorrenteController {
+    private static final Logger logger = LoggerFactory.getLogger(MovimentacaoRecorrenteController.class);
+    private final MovimentacaoRecorrenteService recorrenteService;
+
+    public MovimentacaoRecorrenteController(MovimentacaoRecorrenteService recorrenteService) {
+        this.recorrenteService = recorrenteService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<MovimentacaoRecorrenteDTO>> getByContaId(@RequestParam Long contaId) {
+        logger.info("Buscando movimentações recorrentes da conta ID: {}", contaId);
+        List<MovimentacaoRecorrenteDTO> recorrentes = recorrenteService.findByContaId(contaId).stream()
+                .map(MovimentacaoRecorrenteDTO::de)
+                .toList();
+        return ResponseEntity.ok(recorrentes);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<MovimentacaoRecorrenteDTO> getById(@PathVariable Long id) {
+        logger.info("Buscando movimentação recorrente ID: {}", id);
+        return ResponseEntity.ok(MovimentacaoRecorrenteDTO.de(recorrenteService.findByIdOrThrow(id)));
+    }
+
+    @PostMapping
+    public ResponseEntity<MovimentacaoRecorrenteDTO> create(@RequestBody MovimentacaoRecorrenteRequestDTO request) {
+        logger.info("Criando movimentação recorrente {} de {} para a conta ID: {}",
+                request.getPeriodicidade(), request.getValor(), request.getContaId());
+        MovimentacaoRecorrente recorrente = recorrenteService.criar(request);
+        logger.info("Movimentação recorrente criada. ID: {}, primeira execução: {}",
+                recorrente.getId(), recorrente.getProximaExecucao());
+        return ResponseEntity.status(HttpStatus.CREATED).body(MovimentacaoRecorrenteDTO.de(recorrente));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<MovimentacaoRecorrenteDTO> update(@PathVariable Long id,
+                                                            @RequestBody MovimentacaoRecorrenteRequestDTO request) {
+        logger.info("Atualizando movimentação recorrente ID: {}", id);
+        return ResponseEntity.ok(MovimentacaoRecorrenteDTO.de(recorrenteService.atualizar(id, request)));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        logger.info("Deletando movimentação recorrente ID: {}", id);
+        recorrenteService.deleteById(id);
+        return ResponseEntity.noContent().build();
+    }
+}
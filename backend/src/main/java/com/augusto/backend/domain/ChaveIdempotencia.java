@@ -0,0 +1,36 @@
+package com.augusto.backend.domain;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.time.LocalDateTime;
+/**
+ * Idempotency-Key já usada em um POST /api/movimentacoes e a movimentação que
+ * ela gerou, com o usuário e o hash da requisição. Gravada na mesma transação
+ * da movimentação e apagada depois da retenção (ver IdempotenciaService).
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Entity
+@Table(name = "chaves_idempotencia", indexes = @Index(name = "idx_chaves_idempotencia_criada_em", columnList = "criada_em"))
+public class ChaveIdempotencia {
+    @Id
+    @Column(length = 100)
+    private String chave;
+    @Column(name = "movimentacao_id", nullable = false)
+    private Long movimentacaoId;
+    @Column(name = "criada_em", nullable = false)
+    private LocalDateTime criadaEm;
+    // Null nos lançamentos internos (recorrências)
+    private String usuario;
+    // SHA-256 em hexadecimal de conta, tipo, valor e data; null em chaves gravadas antes desta coluna
+    @Column(name = "hash_requisicao", length = 64)
+    private String hashRequisicao;
+}
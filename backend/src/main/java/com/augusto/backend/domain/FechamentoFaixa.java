@@ -0,0 +1,38 @@
+package com.augusto.backend.domain;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+/**
+ * Faixa de ids de conta já processada no fechamento de um dia (ver
+ * FechamentoDiarioService). Gravada na mesma transação dos lançamentos da
+ * faixa; um fechamento interrompido recomeça pelas faixas que faltam.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Entity
+@Table(name = "fechamento_faixas", uniqueConstraints = @UniqueConstraint(name = "uk_fechamento_faixas_data_inicio", columnNames = {"data", "faixa_inicio"}))
+public class FechamentoFaixa {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false)
+    private LocalDate data;
+    @Column(name = "faixa_inicio", nullable = false)
+    private Long faixaInicio;
+    @Column(name = "faixa_fim", nullable = false)
+    private Long faixaFim;
+    @Column(name = "concluida_em", nullable = false)
+    private LocalDateTime concluidaEm;
+}
@@ -0,0 +1,26 @@
+package com.augusto.backend.domain;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+/**
+ * Último registro do journal já gravado no banco (modo journal, ver
+ * JournalEngine). Uma única linha, atualizada na mesma transação de cada lote
+ * drenado.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Entity
+@Table(name = "journal_checkpoint")
+public class JournalCheckpoint {
+    @Id
+    private Integer id;
+    @Column(name = "ultimo_seq", nullable = false)
+    private Long ultimoSeq;
+}
@@ -0,0 +1,27 @@
+package com.augusto.backend.domain;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.time.LocalDate;
+/**
+ * Até onde as movimentações foram arquivadas (ver ArquivamentoService):
+ * movimentações com data anterior a {@code dataLimite} podem estar em
+ * movimentacoes_arquivo. Uma única linha; sem ela, nada foi arquivado.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Entity
+@Table(name = "movimentacoes_arquivo_limite")
+public class LimiteArquivo {
+    @Id
+    private Integer id;
+    @Column(name = "data_limite", nullable = false)
+    private LocalDate dataLimite;
+}
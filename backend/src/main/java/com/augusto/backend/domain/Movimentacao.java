@@ -1,10 +1,15 @@
 package com.augusto.backend.domain;
+import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -19,7 +24,9 @@ import java.time.LocalDate;
 @Setter
 @Getter
 @Entity
-@Table(name = "movimentacoes")
+@Table(name = "movimentacoes", indexes = {
+        @Index(name = "idx_movimentacoes_conta_data_id", columnList = "conta_id, data, id"),
+        @Index(name = "idx_movimentacoes_transferencia", columnList = "transferencia_id")})
 public class Movimentacao {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -28,10 +35,23 @@ public class Movimentacao {
     private TipoMovimentacao tipo;
     private BigDecimal valor;
     private LocalDate data;
-    @ManyToOne
-    @JoinColumn(name = "conta_id")
+    // Sem chave estrangeira: o MySQL não aceita FK em tabela particionada (ver migration.sql)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conta_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Conta conta;
+    // Mesmo valor no SAQUE e no DEPOSITO de uma transferência; null nas demais movimentações
+    @Column(name = "transferencia_id", length = 36)
+    private String transferenciaId;
+
+    public Movimentacao(Long id, TipoMovimentacao tipo, BigDecimal valor, LocalDate data, Conta conta) {
+        this(id, tipo, valor, data, conta, null);
+    }
     public enum TipoMovimentacao {
-        DEPOSITO, SAQUE
+        DEPOSITO, SAQUE;
+
+        /** Valor com o sinal que a movimentação produz no saldo da conta. */
+        public BigDecimal comSinal(BigDecimal valor) {
+            return this == SAQUE ? valor.negate() : valor;
+        }
     }
 }
\ No newline at end of file
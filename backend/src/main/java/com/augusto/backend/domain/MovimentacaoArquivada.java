@@ -0,0 +1,51 @@
+package com.augusto.backend.domain;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+/**
+ * Movimentação de um mês já arquivado (ver ArquivamentoService), somente
+ * leitura. As partições saem de movimentacoes para movimentacoes_arquivo por
+ * EXCHANGE PARTITION, que exige tabelas com estrutura idêntica: as colunas são
+ * as mesmas de {@link Movimentacao} e, no MySQL, a tabela é criada pelo
+ * migration.sql com CREATE TABLE ... LIKE movimentacoes (por isso os índices
+ * não são declarados aqui).
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Entity
+@Table(name = "movimentacoes_arquivo")
+public class MovimentacaoArquivada {
+    @Id
+    private Long id;
+    @Enumerated(EnumType.STRING)
+    private TipoMovimentacao tipo;
+    private BigDecimal valor;
+    private LocalDate data;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conta_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Conta conta;
+    @Column(name = "transferencia_id", length = 36)
+    private String transferenciaId;
+
+    /** Cópia como {@link Movimentacao}, para as respostas que já trabalham com ela. */
+    public Movimentacao paraMovimentacao() {
+        return new Movimentacao(id, tipo, valor, data, conta, transferenciaId);
+    }
+}
@@ -0,0 +1,83 @@
+package com.augusto.backend.domain;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+/**
+ * Movimentação programada que se repete (depósito mensal, saque semanal...).
+ * A n-ésima ocorrência é {@code periodicidade.ocorrencia(inicio, n)}; o
+ * agendador (ver AgendadorRecorrencias) lança a de {@code proximaExecucao} e
+ * avança {@code execucoes}.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Entity
+@Table(name = "movimentacoes_recorrentes", indexes = {
+        @Index(name = "idx_recorrentes_proxima_id", columnList = "proxima_execucao, id"),
+        @Index(name = "idx_recorrentes_conta", columnList = "conta_id")})
+public class MovimentacaoRecorrente {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "conta_id", nullable = false)
+    private Long contaId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TipoMovimentacao tipo;
+    @Column(nullable = false)
+    private BigDecimal valor;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Periodicidade periodicidade;
+    @Column(nullable = false)
+    private LocalDateTime inicio;
+    // Última data em que pode haver ocorrência; null = sem fim
+    private LocalDate fim;
+    @Column(nullable = false)
+    private boolean ativa;
+    // Ocorrências já processadas desde o início
+    @Column(nullable = false)
+    private int execucoes;
+    @Column(name = "proxima_execucao", nullable = false)
+    private LocalDateTime proximaExecucao;
+    // Motivo da última ocorrência recusada (ex.: saldo insuficiente); null se a última foi lançada
+    @Column(name = "ultima_falha")
+    private String ultimaFalha;
+
+    /** Passa para a próxima ocorrência; desativa quando ela cai depois do fim. */
+    public void avancar() {
+        execucoes++;
+        proximaExecucao = periodicidade.ocorrencia(inicio, execucoes);
+        if (fim != null && proximaExecucao.toLocalDate().isAfter(fim)) {
+            ativa = false;
+        }
+    }
+
+    public enum Periodicidade {
+        DIARIA, SEMANAL, MENSAL;
+
+        /** Data e hora da n-ésima ocorrência (0 = a primeira), sempre a partir do início para não acumular desvio. */
+        public LocalDateTime ocorrencia(LocalDateTime inicio, long n) {
+            return switch (this) {
+                case DIARIA -> inicio.plusDays(n);
+                case SEMANAL -> inicio.plusWeeks(n);
+                case MENSAL -> inicio.plusMonths(n);
+            };
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.augusto.backend.domain;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+/**
+ * Saldo de uma conta ao final de um dia em que ela teve movimentação. O saldo
+ * em uma data qualquer é o do registro mais recente até aquela data.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Entity
+@Table(name = "saldos_diarios", uniqueConstraints = @UniqueConstraint(name = "uk_saldos_diarios_conta_data", columnNames = {"conta_id", "data"}))
+public class SaldoDiario {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "conta_id", nullable = false)
+    private Long contaId;
+    @Column(nullable = false)
+    private LocalDate data;
+    @Column(nullable = false)
+    private BigDecimal saldo;
+}
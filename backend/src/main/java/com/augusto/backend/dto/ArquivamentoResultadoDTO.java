@@ -0,0 +1,19 @@
+package com.augusto.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ArquivamentoResultadoDTO {
+    // Partições de meses futuros criadas em movimentacoes
+    private List<String> particoesCriadas;
+    // Partições de movimentacoes levadas para movimentacoes_arquivo
+    private List<String> particoesArquivadas;
+    // Movimentações com data anterior podem estar em movimentacoes_arquivo; null se nada foi arquivado
+    private LocalDate dataLimite;
+    private long duracaoMs;
+}
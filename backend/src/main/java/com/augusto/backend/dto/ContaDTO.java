@@ -0,0 +1,29 @@
+package com.augusto.backend.dto;
+
+import com.augusto.backend.domain.Conta;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContaDTO {
+    private Long id;
+    private String numeroConta;
+    private BigDecimal saldo;
+    private UsuarioResumoDTO usuario;
+
+    // Usado pelas projeções JPQL (select new ...), que só aceitam colunas planas
+    public ContaDTO(Long id, String numeroConta, BigDecimal saldo, Long usuarioId, String usuarioNome, String usuarioCpf) {
+        this(id, numeroConta, saldo, usuarioId == null ? null : new UsuarioResumoDTO(usuarioId, usuarioNome, usuarioCpf));
+    }
+
+    /** Converte a entidade; o titular precisa estar carregado. */
+    public static ContaDTO de(Conta conta) {
+        return conta == null ? null
+                : new ContaDTO(conta.getId(), conta.getNumeroConta(), conta.getSaldo(), UsuarioResumoDTO.de(conta.getUsuario()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.augusto.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class DivergenciaSaldoDTO {
+    private Long contaId;
+    private BigDecimal saldoRegistrado;
+    private BigDecimal saldoCalculado;
+    private boolean corrigida;
+}
@@ -0,0 +1,14 @@
+package com.augusto.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ExtratoPaginaDTO {
+    private List<MovimentacaoDTO> movimentacoes;
+    // null quando não há mais páginas
+    private String proximoCursor;
+}
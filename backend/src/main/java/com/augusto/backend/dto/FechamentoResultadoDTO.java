@@ -0,0 +1,25 @@
+package com.augusto.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class FechamentoResultadoDTO {
+    private LocalDate data;
+    private long faixasProcessadas;
+    // Já concluídas numa execução anterior (fechamento retomado)
+    private long faixasJaConcluidas;
+    // Revertidas por erro; entram na próxima execução do mesmo dia
+    private long faixasComFalha;
+    private long contasProcessadas;
+    private BigDecimal totalJuros;
+    private long tarifasCobradas;
+    private BigDecimal totalTarifas;
+    // Contas sem saldo para a tarifa no dia da cobrança
+    private long tarifasNaoCobradas;
+    private long duracaoMs;
+}
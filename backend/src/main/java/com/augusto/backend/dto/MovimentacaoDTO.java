@@ -0,0 +1,37 @@
+package com.augusto.backend.dto;
+
+import com.augusto.backend.domain.Movimentacao;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimentacaoDTO {
+    private Long id;
+    private TipoMovimentacao tipo;
+    private BigDecimal valor;
+    private LocalDate data;
+    private ContaDTO conta;
+    private String transferenciaId;
+
+    // Usado pelas projeções JPQL (select new ...), que só aceitam colunas planas
+    public MovimentacaoDTO(Long id, TipoMovimentacao tipo, BigDecimal valor, LocalDate data, String transferenciaId,
+                           Long contaId, String numeroConta, BigDecimal saldo,
+                           Long usuarioId, String usuarioNome, String usuarioCpf) {
+        this(id, tipo, valor, data, contaId == null ? null
+                : new ContaDTO(contaId, numeroConta, saldo, usuarioId, usuarioNome, usuarioCpf), transferenciaId);
+    }
+
+    /** Converte a entidade; a conta e o titular precisam estar carregados. */
+    public static MovimentacaoDTO de(Movimentacao movimentacao) {
+        return movimentacao == null ? null
+                : new MovimentacaoDTO(movimentacao.getId(), movimentacao.getTipo(), movimentacao.getValor(),
+                        movimentacao.getData(), ContaDTO.de(movimentacao.getConta()), movimentacao.getTransferenciaId());
+    }
+}
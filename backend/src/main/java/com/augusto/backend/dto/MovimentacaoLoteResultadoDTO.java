@@ -0,0 +1,12 @@
+package com.augusto.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class MovimentacaoLoteResultadoDTO {
+    private int indice;
+    private boolean sucesso;
+    private String mensagem;
+}
@@ -0,0 +1,36 @@
+package com.augusto.backend.dto;
+
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.domain.MovimentacaoRecorrente;
+import com.augusto.backend.domain.MovimentacaoRecorrente.Periodicidade;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimentacaoRecorrenteDTO {
+    private Long id;
+    private Long contaId;
+    private TipoMovimentacao tipo;
+    private BigDecimal valor;
+    private Periodicidade periodicidade;
+    private LocalDateTime inicio;
+    private LocalDate fim;
+    private boolean ativa;
+    private int execucoes;
+    private LocalDateTime proximaExecucao;
+    private String ultimaFalha;
+
+    public static MovimentacaoRecorrenteDTO de(MovimentacaoRecorrente recorrente) {
+        return new MovimentacaoRecorrenteDTO(recorrente.getId(), recorrente.getContaId(), recorrente.getTipo(),
+                recorrente.getValor(), recorrente.getPeriodicidade(), recorrente.getInicio(), recorrente.getFim(),
+                recorrente.isAtiva(), recorrente.getExecucoes(), recorrente.getProximaExecucao(),
+                recorrente.getUltimaFalha());
+    }
+}
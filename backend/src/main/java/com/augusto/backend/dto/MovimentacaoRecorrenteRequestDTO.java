@@ -0,0 +1,32 @@
+package com.augusto.backend.dto;
+
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.domain.MovimentacaoRecorrente.Periodicidade;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimentacaoRecorrenteRequestDTO {
+    private Long contaId;
+
+    @JsonFormat(with = JsonFormat.Feature.ACCEPT_CASE_INSENSITIVE_VALUES)
+    private TipoMovimentacao tipo;
+
+    private BigDecimal valor;
+
+    @JsonFormat(with = JsonFormat.Feature.ACCEPT_CASE_INSENSITIVE_VALUES)
+    private Periodicidade periodicidade;
+
+    private LocalDateTime inicio;
+    private LocalDate fim;
+    // Só na atualização: false pausa, true retoma a partir da próxima ocorrência futura
+    private Boolean ativa;
+}
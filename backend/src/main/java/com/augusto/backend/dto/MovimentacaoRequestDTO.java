@@ -0,0 +1,23 @@
+package com.augusto.backend.dto;
+
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimentacaoRequestDTO {
+    private Long contaId;
+
+    @JsonFormat(with = JsonFormat.Feature.ACCEPT_CASE_INSENSITIVE_VALUES)
+    private TipoMovimentacao tipo;
+
+    private BigDecimal valor;
+    private LocalDate data;
+}
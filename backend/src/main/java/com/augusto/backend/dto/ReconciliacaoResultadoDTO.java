@@ -0,0 +1,17 @@
+package com.augusto.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ReconciliacaoResultadoDTO {
+    private long contasVerificadas;
+    private long divergenciasEncontradas;
+    private long divergenciasCorrigidas;
+    // Limitada a app.reconciliacao.max-divergencias-listadas; as contagens acima são completas
+    private List<DivergenciaSaldoDTO> divergencias;
+    private long duracaoMs;
+}
@@ -0,0 +1,15 @@
+package com.augusto.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ResumoAnualDTO {
+    private Long contaId;
+    private int ano;
+    // Sempre os 12 meses, de janeiro a dezembro
+    private List<ResumoMensalDTO> meses;
+}
@@ -0,0 +1,16 @@
+package com.augusto.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class ResumoMensalDTO {
+    private int mes;
+    private BigDecimal totalDepositos;
+    private long quantidadeDepositos;
+    private BigDecimal totalSaques;
+    private long quantidadeSaques;
+}
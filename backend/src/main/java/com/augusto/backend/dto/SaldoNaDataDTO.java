@@ -0,0 +1,15 @@
+package com.augusto.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class SaldoNaDataDTO {
+    private Long contaId;
+    private LocalDate data;
+    private BigDecimal saldo;
+}
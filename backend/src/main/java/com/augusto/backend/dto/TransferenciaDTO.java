@@ -0,0 +1,14 @@
+package com.augusto.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TransferenciaDTO {
+    private String transferenciaId;
+    // SAQUE na conta de origem
+    private MovimentacaoDTO debito;
+    // DEPOSITO na conta de destino
+    private MovimentacaoDTO credito;
+}
@@ -0,0 +1,18 @@
+package com.augusto.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferenciaRequestDTO {
+    private Long contaOrigemId;
+    private Long contaDestinoId;
+    private BigDecimal valor;
+    private LocalDate data;
+}
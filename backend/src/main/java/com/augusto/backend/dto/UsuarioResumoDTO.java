@@ -0,0 +1,20 @@
+package com.augusto.backend.dto;
+
+import com.augusto.backend.domain.Usuario;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Titular da conta como aparece nas listagens: sem e-mail, endereço ou senha. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsuarioResumoDTO {
+    private Long id;
+    private String nome;
+    private String cpf;
+
+    public static UsuarioResumoDTO de(Usuario usuario) {
+        return usuario == null ? null : new UsuarioResumoDTO(usuario.getId(), usuario.getNome(), usuario.getCpf());
+    }
+}
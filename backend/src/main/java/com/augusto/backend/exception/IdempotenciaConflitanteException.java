@@ -0,0 +1,16 @@
+package com.augusto.backend.exception;
+
+public class IdempotenciaConflitanteException extends RuntimeException {
+    public IdempotenciaConflitanteException(String chave) {
+        super("Idempotency-Key já usada em outra requisição: " + chave);
+    }
+
+    private IdempotenciaConflitanteException(String mensagem, String chave) {
+        super(mensagem + chave);
+    }
+
+    /** A chave gerou uma movimentação que depois foi excluída: não há o que devolver. */
+    public static IdempotenciaConflitanteException movimentacaoExcluida(String chave) {
+        return new IdempotenciaConflitanteException("Idempotency-Key já usada por uma movimentação excluída: ", chave);
+    }
+}
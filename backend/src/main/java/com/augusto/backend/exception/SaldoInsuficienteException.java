@@ -0,0 +1,7 @@
+package com.augusto.backend.exception;
+
+public class SaldoInsuficienteException extends RuntimeException {
+    public SaldoInsuficienteException() {
+        super("Saldo insuficiente");
+    }
+}
@@ -1,11 +1,100 @@
 package com.augusto.backend.repository;
 
 import com.augusto.backend.domain.Conta;
+import com.augusto.backend.dto.ContaDTO;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ContaRepository extends JpaRepository<Conta, Long> {
     List<Conta> findByUsuarioId(Long usuarioId);
+    boolean existsByNumeroContaAndIdNot(String numeroConta, Long id);
+
+    // movimentacoes não tem chave estrangeira para contas (tabela particionada); a exclusão confere aqui
+    @Query("select count(c) > 0 from Conta c where c.id = :id "
+            + "and (exists (select 1 from Movimentacao m where m.conta.id = c.id) "
+            + "or exists (select 1 from MovimentacaoArquivada a where a.conta.id = c.id) "
+            + "or exists (select 1 from MovimentacaoRecorrente r where r.contaId = c.id))")
+    boolean possuiMovimentacoes(@Param("id") Long id);
+
+    // Projeção usada pelas listagens: conta e titular numa única consulta
+    String SELECT_CONTA_DTO = "select new com.augusto.backend.dto.ContaDTO("
+            + "c.id, c.numeroConta, c.saldo, u.id, u.nome, u.cpf) from Conta c left join c.usuario u ";
+
+    @Query(SELECT_CONTA_DTO + "order by c.id")
+    List<ContaDTO> listarTodas();
+
+    @Query(SELECT_CONTA_DTO + "where u.id = :usuarioId order by c.id")
+    List<ContaDTO> listarPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    // A resposta de uma conta leva o titular; busca os dois juntos
+    @Override
+    @EntityGraph(attributePaths = "usuario")
+    Optional<Conta> findById(Long id);
+
+    // Os UPDATEs abaixo são nativos e declaram um query space que não pertence a
+    // nenhuma entidade: um UPDATE em HQL (ou nativo sem query space) faria o Hibernate
+    // esvaziar a região inteira de Conta do cache de segundo nível a cada lançamento.
+    // Quem chama estes métodos descarta só a conta alterada (ContaService.descartarDoCache).
+    String SALDO_QUERY_SPACE = "contas_saldo";
+
+    /**
+     * Soma {@code valor} (positivo ou negativo) ao saldo num único UPDATE, sem
+     * ler a conta antes. Retorna 0 quando a conta não existe.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SALDO_QUERY_SPACE))
+    @Query(value = "update contas set saldo = saldo + :valor where id = :id", nativeQuery = true)
+    int ajustarSaldo(@Param("id") Long id, @Param("valor") BigDecimal valor);
+
+    /**
+     * Debita {@code valor} somente se o saldo for suficiente; a checagem e o
+     * débito acontecem no mesmo UPDATE. Retorna 0 quando a conta não existe ou
+     * o saldo não cobre o valor.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SALDO_QUERY_SPACE))
+    @Query(value = "update contas set saldo = saldo - :valor where id = :id and saldo >= :valor", nativeQuery = true)
+    int debitarSeHouverSaldo(@Param("id") Long id, @Param("valor") BigDecimal valor);
+
+    /**
+     * Troca só o número da conta, sem regravar o saldo lido antes (que pode ter
+     * vindo da réplica). Retorna 0 quando a conta não existe.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SALDO_QUERY_SPACE))
+    @Query(value = "update contas set numero_conta = :numeroConta where id = :id", nativeQuery = true)
+    int alterarNumeroConta(@Param("id") Long id, @Param("numeroConta") String numeroConta);
+
+    /** Sobrescreve o saldo num único UPDATE. Retorna 0 quando a conta não existe. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SALDO_QUERY_SPACE))
+    @Query(value = "update contas set saldo = :saldo where id = :id", nativeQuery = true)
+    int definirSaldo(@Param("id") Long id, @Param("saldo") BigDecimal saldo);
+
+    /** Lê a conta direto do banco, sem gravar o resultado no cache de segundo nível. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    @Query("select c from Conta c left join fetch c.usuario where c.id = :id")
+    Optional<Conta> findByIdSemCache(@Param("id") Long id);
+
+    /**
+     * Carrega as contas com lock de escrita, sempre na ordem do id, para que
+     * transações que travam mais de uma conta não entrem em deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Conta c where c.id in :ids order by c.id")
+    List<Conta> findAllByIdParaAtualizacao(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
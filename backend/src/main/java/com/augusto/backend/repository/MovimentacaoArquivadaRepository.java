@@ -0,0 +1,47 @@
+package com.augusto.backend.repository;
+
+import com.augusto.backend.domain.MovimentacaoArquivada;
+import com.augusto.backend.dto.MovimentacaoDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/** Mesmas consultas de {@link MovimentacaoRepository}, sobre movimentacoes_arquivo. */
+@Repository
+public interface MovimentacaoArquivadaRepository extends JpaRepository<MovimentacaoArquivada, Long> {
+    String SELECT_MOVIMENTACAO_DTO = "select new com.augusto.backend.dto.MovimentacaoDTO("
+            + "m.id, m.tipo, m.valor, m.data, m.transferenciaId, c.id, c.numeroConta, c.saldo, u.id, u.nome, u.cpf) "
+            + "from MovimentacaoArquivada m left join m.conta c left join c.usuario u ";
+
+    List<MovimentacaoArquivada> findByContaId(Long contaId);
+
+    boolean existsByContaId(Long contaId);
+
+    @Override
+    @EntityGraph(attributePaths = {"conta", "conta.usuario"})
+    Optional<MovimentacaoArquivada> findById(Long id);
+
+    @Query(SELECT_MOVIMENTACAO_DTO + "order by m.id")
+    List<MovimentacaoDTO> listarTodas();
+
+    @Query(SELECT_MOVIMENTACAO_DTO + "where m.conta.id = :contaId order by m.id")
+    List<MovimentacaoDTO> listarPorConta(@Param("contaId") Long contaId);
+
+    @Query(SELECT_MOVIMENTACAO_DTO + "where m.conta.id = :contaId and m.data between :de and :ate "
+            + "order by m.data desc, m.id desc")
+    List<MovimentacaoDTO> findExtrato(@Param("contaId") Long contaId, @Param("de") LocalDate de,
+                                      @Param("ate") LocalDate ate, Limit limit);
+
+    @Query(SELECT_MOVIMENTACAO_DTO + "where m.conta.id = :contaId and m.data between :de and :ate "
+            + "and (m.data < :cursorData or (m.data = :cursorData and m.id < :cursorId)) "
+            + "order by m.data desc, m.id desc")
+    List<MovimentacaoDTO> findExtratoAposCursor(@Param("contaId") Long contaId, @Param("de") LocalDate de,
+                                                @Param("ate") LocalDate ate, @Param("cursorData") LocalDate cursorData,
+                                                @Param("cursorId") Long cursorId, Limit limit);
+}
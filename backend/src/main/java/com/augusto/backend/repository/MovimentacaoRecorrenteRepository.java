@@ -0,0 +1,11 @@
+package com.augusto.backend.repository;
+
+import com.augusto.backend.domain.MovimentacaoRecorrente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface MovimentacaoRecorrenteRepository extends JpaRepository<MovimentacaoRecorrente, Long> {
+    List<MovimentacaoRecorrente> findByContaIdOrderById(Long contaId);
+}
@@ -0,0 +1,12 @@
+package com.augusto.backend.repository;
+
+import com.augusto.backend.domain.SaldoDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface SaldoDiarioRepository extends JpaRepository<SaldoDiario, Long> {
+    Optional<SaldoDiario> findFirstByContaIdAndDataLessThanEqualOrderByDataDesc(Long contaId, LocalDate data);
+}
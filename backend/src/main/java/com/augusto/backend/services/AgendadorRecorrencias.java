@@ -0,0 +1,285 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Movimentacao;
+import com.augusto.backend.domain.MovimentacaoRecorrente;
+import com.augusto.backend.exception.ResourceNotFoundException;
+import com.augusto.backend.exception.SaldoInsuficienteException;
+import com.augusto.backend.repository.MovimentacaoRecorrenteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispara as movimentações recorrentes. Uma thread avança uma
+ * {@link RodaDeTempo} a cada {@code app.recorrencia.tick}; os ids vencidos vão
+ * em lotes de {@code app.recorrencia.tamanho-lote} para um pool de
+ * {@code app.recorrencia.paralelismo} threads, que lançam cada ocorrência por
+ * {@link MovimentacaoService#save(Movimentacao, String)}.
+ *
+ * <p>Só as recorrências que vencem dentro de {@code app.recorrencia.janela}
+ * ficam na roda, e no máximo {@code app.recorrencia.max-carregadas} de cada
+ * vez: a carga percorre movimentacoes_recorrentes por (proxima_execucao, id) a
+ * partir de onde parou, então a memória não depende do total de recorrências.
+ * Uma alteração cuja próxima execução já está na parte carregada entra direto
+ * na roda; as demais são achadas pela próxima carga.
+ *
+ * <p>A roda só diz quando olhar: no disparo a recorrência é relida e só é
+ * lançada se continuar ativa e vencida, então entradas antigas (recorrência
+ * alterada, pausada ou excluída) são ignoradas. A chave de idempotência é o id
+ * mais a data e hora da ocorrência, e o avanço para a próxima é condicional ao
+ * número de execuções lido; uma ocorrência interrompida no meio, disparada duas
+ * vezes ou disparada por duas instâncias gera uma única movimentação.
+ */
+@Component
+public class AgendadorRecorrencias implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendadorRecorrencias.class);
+
+    private static final String SELECT_PROXIMAS =
+            "SELECT id, proxima_execucao FROM movimentacoes_recorrentes WHERE ativa = TRUE AND proxima_execucao <= ? "
+            + "AND (proxima_execucao > ? OR (proxima_execucao = ? AND id > ?)) "
+            + "ORDER BY proxima_execucao, id LIMIT ?";
+
+    private static final String UPDATE_AVANCO =
+            "UPDATE movimentacoes_recorrentes SET execucoes = ?, proxima_execucao = ?, ativa = ?, ultima_falha = ? "
+            + "WHERE id = ? AND execucoes = ? AND proxima_execucao = ?";
+
+    // Nova tentativa de uma ocorrência que falhou por erro inesperado (banco indisponível etc.)
+    private static final Duration ESPERA_APOS_ERRO = Duration.ofMinutes(1);
+
+    private record Reagendamento(long id, LocalDateTime vencimento) {
+    }
+
+    private final MovimentacaoRecorrenteRepository recorrenteRepository;
+    private final MovimentacaoService movimentacaoService;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean habilitado;
+    private final Duration tick;
+    private final Duration janela;
+    private final int maxCarregadas;
+    private final int tamanhoLote;
+    private final int paralelismo;
+    private final Counter lancadas;
+    private final Counter recusadas;
+    private final ConcurrentLinkedQueue<Reagendamento> reagendamentos = new ConcurrentLinkedQueue<>();
+
+    // Estado da thread do agendador
+    private RodaDeTempo roda;
+    // Tudo até (cursorData, cursorId) já foi carregado na roda ou disparado
+    private LocalDateTime cursorData = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private long cursorId;
+    // A última carga trouxe tudo até cursorData (não parou em max-carregadas)
+    private boolean cargaCompleta;
+
+    private ScheduledExecutorService agendador;
+    private ThreadPoolExecutor disparos;
+
+    public AgendadorRecorrencias(MovimentacaoRecorrenteRepository recorrenteRepository,
+                                 MovimentacaoService movimentacaoService,
+                                 JdbcTemplate jdbcTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.recorrencia.habilitado:true}") boolean habilitado,
+                                 @Value("${app.recorrencia.tick:1s}") Duration tick,
+                                 @Value("${app.recorrencia.janela:1h}") Duration janela,
+                                 @Value("${app.recorrencia.max-carregadas:100000}") int maxCarregadas,
+                                 @Value("${app.recorrencia.tamanho-lote:500}") int tamanhoLote,
+                                 @Value("${app.recorrencia.paralelismo:4}") int paralelismo) {
+        if (tick.toMillis() <= 0 || janela.compareTo(tick) < 0) {
+            throw new IllegalArgumentException("Tick da recorrência deve ser positivo e menor que a janela");
+        }
+        this.recorrenteRepository = recorrenteRepository;
+        this.movimentacaoService = movimentacaoService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.habilitado = habilitado;
+        this.tick = tick;
+        this.janela = janela;
+        this.maxCarregadas = maxCarregadas;
+        this.tamanhoLote = tamanhoLote;
+        this.paralelismo = paralelismo;
+        this.lancadas = Counter.builder("banco.recorrencia.ocorrencias")
+                .description("Ocorrências de movimentações recorrentes, por resultado")
+                .tag("resultado", "lancada")
+                .register(meterRegistry);
+        this.recusadas = Counter.builder("banco.recorrencia.ocorrencias")
+                .description("Ocorrências de movimentações recorrentes, por resultado")
+                .tag("resultado", "recusada")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!habilitado) {
+            return;
+        }
+        // Níveis suficientes para a janela caber na roda sem redistribuição extra
+        int niveis = 1;
+        while ((tick.toMillis() << (6 * niveis)) < janela.toMillis()) {
+            niveis++;
+        }
+        roda = new RodaDeTempo(tick.toMillis(), niveis, System.currentTimeMillis());
+        // Fila cheia: a própria thread do agendador dispara o lote, o que segura novas cargas
+        disparos = new ThreadPoolExecutor(paralelismo, paralelismo, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(paralelismo * 2), new CustomizableThreadFactory("recorrencia-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        agendador = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("recorrencia-agendador-"));
+        agendador.scheduleWithFixedDelay(this::executarTick, 0, tick.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Avisa que a próxima execução de uma recorrência mudou (criada, alterada
+     * ou retomada). Chamar depois do commit.
+     */
+    public void reagendar(Long id, LocalDateTime proximaExecucao) {
+        if (habilitado) {
+            reagendamentos.add(new Reagendamento(id, proximaExecucao));
+        }
+    }
+
+    private void executarTick() {
+        try {
+            Reagendamento reagendamento;
+            while ((reagendamento = reagendamentos.poll()) != null) {
+                if (jaCarregada(reagendamento)) {
+                    roda.agendar(reagendamento.id(), epochMs(reagendamento.vencimento()));
+                }
+            }
+
+            LocalDateTime agora = LocalDateTime.now();
+            boolean carregar = cargaCompleta
+                    ? agora.plus(janela.dividedBy(2)).isAfter(cursorData)
+                    : roda.tamanho() < maxCarregadas;
+            if (carregar) {
+                carregar(agora.plus(janela));
+            }
+
+            List<Long> vencidas = roda.avancar(System.currentTimeMillis());
+            for (int inicio = 0; inicio < vencidas.size(); inicio += tamanhoLote) {
+                List<Long> lote = vencidas.subList(inicio, Math.min(inicio + tamanhoLote, vencidas.size()));
+                List<Long> ids = new ArrayList<>(new LinkedHashSet<>(lote));
+                disparos.execute(() -> disparar(ids));
+            }
+        } catch (RuntimeException e) {
+            // Não deixa uma falha (ex.: banco fora) cancelar o agendamento periódico
+            logger.error("Falha no agendador de movimentações recorrentes", e);
+        }
+    }
+
+    private boolean jaCarregada(Reagendamento reagendamento) {
+        int comparacao = reagendamento.vencimento().compareTo(cursorData);
+        return comparacao < 0 || (comparacao == 0 && reagendamento.id() <= cursorId);
+    }
+
+    private void carregar(LocalDateTime limite) {
+        int capacidade = maxCarregadas - roda.tamanho();
+        if (capacidade <= 0) {
+            return;
+        }
+        List<Reagendamento> proximas = jdbcTemplate.query(SELECT_PROXIMAS,
+                (rs, i) -> new Reagendamento(rs.getLong("id"), rs.getTimestamp("proxima_execucao").toLocalDateTime()),
+                Timestamp.valueOf(limite), Timestamp.valueOf(cursorData), Timestamp.valueOf(cursorData), cursorId,
+                capacidade);
+        for (Reagendamento proxima : proximas) {
+            roda.agendar(proxima.id(), epochMs(proxima.vencimento()));
+        }
+        if (proximas.size() < capacidade) {
+            cargaCompleta = true;
+            cursorData = limite;
+            cursorId = Long.MAX_VALUE;
+        } else {
+            Reagendamento ultima = proximas.get(proximas.size() - 1);
+            cargaCompleta = false;
+            cursorData = ultima.vencimento();
+            cursorId = ultima.id();
+        }
+    }
+
+    /** Lança as ocorrências vencidas de um lote de recorrências e avança cada uma. */
+    void disparar(List<Long> ids) {
+        LocalDateTime agora = LocalDateTime.now();
+        List<Object[]> avancos = new ArrayList<>(ids.size());
+        List<Reagendamento> seguintes = new ArrayList<>(ids.size());
+        for (MovimentacaoRecorrente recorrente : recorrenteRepository.findAllById(ids)) {
+            LocalDateTime ocorrencia = recorrente.getProximaExecucao();
+            if (!recorrente.isAtiva() || ocorrencia.isAfter(agora)) {
+                continue;
+            }
+            String falha = null;
+            try {
+                Conta conta = new Conta();
+                conta.setId(recorrente.getContaId());
+                Movimentacao lancada = movimentacaoService.save(new Movimentacao(null, recorrente.getTipo(),
+                        recorrente.getValor(), ocorrencia.toLocalDate(), conta), chave(recorrente));
+                if (lancada == null) {
+                    falha = "Conta não encontrada";
+                }
+            } catch (SaldoInsuficienteException | ResourceNotFoundException | IllegalArgumentException e) {
+                falha = e.getMessage();
+            } catch (RuntimeException e) {
+                logger.error("Falha ao lançar a recorrência {}; nova tentativa em {}", recorrente.getId(),
+                        ESPERA_APOS_ERRO, e);
+                reagendar(recorrente.getId(), agora.plus(ESPERA_APOS_ERRO));
+                continue;
+            }
+            (falha == null ? lancadas : recusadas).increment();
+
+            int execucoes = recorrente.getExecucoes();
+            recorrente.avancar();
+            avancos.add(new Object[] {recorrente.getExecucoes(), Timestamp.valueOf(recorrente.getProximaExecucao()),
+                    recorrente.isAtiva(), falha, recorrente.getId(), execucoes, Timestamp.valueOf(ocorrencia)});
+            seguintes.add(new Reagendamento(recorrente.getId(), recorrente.getProximaExecucao()));
+        }
+        if (avancos.isEmpty()) {
+            return;
+        }
+
+        int[] atualizadas = jdbcTemplate.batchUpdate(UPDATE_AVANCO, avancos);
+        for (int i = 0; i < atualizadas.length; i++) {
+            // 0: a recorrência mudou desde a leitura (alteração ou outro disparo), que reagenda por conta própria
+            if (atualizadas[i] != 0 && (Boolean) avancos.get(i)[2]) {
+                reagendar(seguintes.get(i).id(), seguintes.get(i).vencimento());
+            }
+        }
+    }
+
+    static String chave(MovimentacaoRecorrente recorrente) {
+        return "recorrente-" + recorrente.getId() + "-" + recorrente.getProximaExecucao();
+    }
+
+    private static long epochMs(LocalDateTime dataHora) {
+        return dataHora.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        if (agendador == null) {
+            return;
+        }
+        agendador.shutdownNow();
+        agendador.awaitTermination(10, TimeUnit.SECONDS);
+        // Lotes já na fila terminam; o que vencer depois é recarregado na próxima subida
+        disparos.shutdown();
+        disparos.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,385 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.dto.ArquivamentoResultadoDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Arquivamento das movimentações antigas. No MySQL, movimentacoes é
+ * particionada por mês de {@code data} (RANGE COLUMNS, ver migration.sql) e
+ * movimentacoes_arquivo tem a mesma estrutura. Lançamentos e extratos recentes
+ * só tocam as partições dos meses correntes; cada partição inteiramente
+ * anterior à retenção ({@code app.arquivamento.retencao-meses}) passa para o
+ * arquivo por EXCHANGE PARTITION, que troca só metadados, sem copiar linhas.
+ *
+ * <p>Leitura: {@link #limite()} é a data a partir da qual tudo está em
+ * movimentacoes. Só consultas cujo intervalo começa antes dela precisam unir o
+ * arquivo ({@link #precisaDoArquivo}). O limite é publicado antes de qualquer
+ * partição sair e as instâncias o releem a cada
+ * {@code app.arquivamento.atualizacao-limite}; o job espera esse intervalo
+ * antes de mover as linhas, então ninguém deixa de procurar no arquivo uma
+ * linha que já foi para lá. Movimentações retroativas gravadas depois em um mês
+ * arquivado ficam na partição mais antiga de movimentacoes, que continua sendo
+ * lida junto com o arquivo.
+ *
+ * <p>O job só roda com {@code app.arquivamento.habilitado=true}, depois da
+ * migração de particionamento; a leitura do limite funciona em qualquer banco.
+ */
+@Service
+public class ArquivamentoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArquivamentoService.class);
+
+    private static final String TABELA = "movimentacoes";
+    private static final String ARQUIVO = "movimentacoes_arquivo";
+    // Tabela sem partições usada como intermediária nas duas trocas
+    private static final String TROCA = "movimentacoes_troca";
+    // Lock nomeado do MySQL: uma única instância arquiva por vez
+    private static final String LOCK = "arquivamento_movimentacoes";
+    private static final DateTimeFormatter NOME_PARTICAO = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static final String SELECT_LIMITE = "SELECT data_limite FROM movimentacoes_arquivo_limite WHERE id = 1";
+
+    private static final String SELECT_PARTICOES =
+            "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '%s' AND PARTITION_NAME IS NOT NULL "
+            + "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    /** Partição de RANGE COLUMNS(data); {@code limiteSuperior} null é a MAXVALUE. */
+    private record Particao(String nome, @Nullable LocalDate limiteSuperior) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean habilitado;
+    private final int retencaoMeses;
+    private final int mesesFuturos;
+    private final Duration atualizacaoLimite;
+    private final AtomicBoolean emAndamento = new AtomicBoolean();
+
+    private volatile LocalDate limite;
+    private volatile long limiteLidoEm;
+    private volatile boolean limiteCarregado;
+
+    public ArquivamentoService(JdbcTemplate jdbcTemplate,
+                               @Value("${app.arquivamento.habilitado:false}") boolean habilitado,
+                               @Value("${app.arquivamento.retencao-meses:24}") int retencaoMeses,
+                               @Value("${app.arquivamento.meses-futuros:3}") int mesesFuturos,
+                               @Value("${app.arquivamento.atualizacao-limite:1m}") Duration atualizacaoLimite) {
+        if (retencaoMeses < 1) {
+            throw new IllegalArgumentException("Retenção do arquivamento deve ser de pelo menos um mês");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.habilitado = habilitado;
+        this.retencaoMeses = retencaoMeses;
+        this.mesesFuturos = mesesFuturos;
+        this.atualizacaoLimite = atualizacaoLimite;
+    }
+
+    /**
+     * Movimentações com data anterior a esta podem estar em
+     * movimentacoes_arquivo; null enquanto nada tiver sido arquivado.
+     */
+    @Nullable
+    public LocalDate limite() {
+        long agora = System.nanoTime();
+        if (!limiteCarregado || agora - limiteLidoEm > atualizacaoLimite.toNanos()) {
+            List<LocalDate> datas = jdbcTemplate.queryForList(SELECT_LIMITE, LocalDate.class);
+            limite = datas.isEmpty() ? null : datas.get(0);
+            limiteLidoEm = agora;
+            limiteCarregado = true;
+        }
+        return limite;
+    }
+
+    /** Se uma consulta a partir de {@code inicio} (null = desde sempre) precisa ler também o arquivo. */
+    public boolean precisaDoArquivo(@Nullable LocalDate inicio) {
+        LocalDate atual = limite();
+        return atual != null && (inicio == null || inicio.isBefore(atual));
+    }
+
+    @Scheduled(cron = "${app.arquivamento.cron:0 30 2 * * *}")
+    public void arquivarAgendado() {
+        if (habilitado) {
+            arquivar();
+        }
+    }
+
+    /**
+     * Cria as partições dos próximos meses e arquiva as que saíram da
+     * retenção. Retorna vazio se já houver um arquivamento em andamento, nesta
+     * ou em outra instância.
+     */
+    public Optional<ArquivamentoResultadoDTO> arquivar() {
+        if (!habilitado) {
+            throw new IllegalArgumentException("Arquivamento desabilitado (app.arquivamento.habilitado=false)");
+        }
+        if (!emAndamento.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            // Uma única conexão do começo ao fim: o lock nomeado pertence à sessão
+            return Optional.ofNullable(jdbcTemplate.execute((ConnectionCallback<ArquivamentoResultadoDTO>) this::executar));
+        } finally {
+            emAndamento.set(false);
+        }
+    }
+
+    /**
+     * Executa {@code acao} segurando o lock do arquivamento, para quem precisa
+     * que nenhuma linha esteja em trânsito (entre as duas trocas, as linhas só
+     * existem em movimentacoes_troca). O lock fica numa conexão separada
+     * durante toda a ação. Retorna vazio se um arquivamento estiver em
+     * andamento. Fora do MySQL não há arquivamento e a ação roda direto.
+     */
+    public <T> Optional<T> semArquivamento(Supplier<T> acao) {
+        return jdbcTemplate.execute((ConnectionCallback<Optional<T>>) conexao -> {
+            String banco = conexao.getMetaData().getDatabaseProductName();
+            if (!"MySQL".equalsIgnoreCase(banco) && !"MariaDB".equalsIgnoreCase(banco)) {
+                return Optional.of(acao.get());
+            }
+            try (Statement st = conexao.createStatement()) {
+                if (!valorInteiro(st, "SELECT GET_LOCK('" + LOCK + "', 0)")) {
+                    return Optional.empty();
+                }
+                try {
+                    return Optional.of(acao.get());
+                } finally {
+                    st.execute("DO RELEASE_LOCK('" + LOCK + "')");
+                }
+            }
+        });
+    }
+
+    @Nullable
+    private ArquivamentoResultadoDTO executar(Connection conexao) throws SQLException {
+        long inicio = System.nanoTime();
+        try (Statement st = conexao.createStatement()) {
+            if (!valorInteiro(st, "SELECT GET_LOCK('" + LOCK + "', 0)")) {
+                logger.info("Arquivamento de movimentações já em andamento em outra instância");
+                return null;
+            }
+            try {
+                List<String> criadas = new ArrayList<>();
+                List<String> arquivadas = new ArrayList<>();
+                recuperarTroca(st);
+
+                // Partições dos próximos meses, para os lançamentos não caírem na MAXVALUE
+                YearMonth mesAtual = YearMonth.now();
+                for (int i = 1; i <= mesesFuturos + 1; i++) {
+                    garantirParticao(st, TABELA, mesAtual.plusMonths(i).atDay(1), criadas);
+                }
+
+                LocalDate corte = mesAtual.minusMonths(retencaoMeses).atDay(1);
+                List<Particao> antigas = new ArrayList<>();
+                for (Particao particao : particoes(st, TABELA)) {
+                    if (particao.limiteSuperior() != null && !particao.limiteSuperior().isAfter(corte)
+                            && !jaArquivada(st, particao)) {
+                        antigas.add(particao);
+                    }
+                }
+                if (!antigas.isEmpty()) {
+                    publicarLimite(st, antigas.get(antigas.size() - 1).limiteSuperior());
+                    for (Particao particao : antigas) {
+                        arquivarParticao(conexao, st, particao, criadas);
+                        arquivadas.add(particao.nome());
+                    }
+                }
+
+                long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+                logger.info("Arquivamento de movimentações: partições criadas {}, arquivadas {} em {} ms",
+                        criadas, arquivadas, duracaoMs);
+                return new ArquivamentoResultadoDTO(criadas, arquivadas, limite, duracaoMs);
+            } finally {
+                st.execute("DO RELEASE_LOCK('" + LOCK + "')");
+            }
+        }
+    }
+
+    /**
+     * Leva uma partição de movimentacoes para o arquivo: movimentacoes ->
+     * troca -> movimentacoes_arquivo, duas trocas só de metadados. As linhas
+     * ficam fora das duas tabelas apenas entre os dois EXCHANGE.
+     */
+    private void arquivarParticao(Connection conexao, Statement st, Particao particao, List<String> criadas)
+            throws SQLException {
+        LocalDate limiteSuperior = particao.limiteSuperior();
+        String destino = garantirParticao(st, ARQUIVO, limiteSuperior, criadas);
+        LocalDate limiteInferiorDestino = limiteInferior(particoes(st, ARQUIVO), destino);
+
+        // A primeira partição de movimentacoes cobre tudo abaixo do seu limite, inclusive
+        // lançamentos retroativos de meses já arquivados. Esses vão direto para o arquivo, numa
+        // transação: o INSERT ... SELECT trava a faixa lida e o DELETE remove exatamente ela.
+        if (limiteInferiorDestino != null && indice(particoes(st, TABELA), particao.nome()) == 0) {
+            boolean autoCommit = conexao.getAutoCommit();
+            conexao.setAutoCommit(false);
+            try {
+                String retroativas = " WHERE data < '" + limiteInferiorDestino + "'";
+                st.executeUpdate("INSERT INTO " + ARQUIVO + " SELECT * FROM " + TABELA
+                        + " PARTITION (" + particao.nome() + ")" + retroativas);
+                st.executeUpdate("DELETE FROM " + TABELA + " PARTITION (" + particao.nome() + ")" + retroativas);
+                conexao.commit();
+            } catch (SQLException e) {
+                conexao.rollback();
+                throw e;
+            } finally {
+                conexao.setAutoCommit(autoCommit);
+            }
+        }
+
+        st.execute("CREATE TABLE " + TROCA + " LIKE " + TABELA);
+        st.execute("ALTER TABLE " + TROCA + " REMOVE PARTITIONING");
+        st.execute("ALTER TABLE " + TABELA + " EXCHANGE PARTITION " + particao.nome() + " WITH TABLE " + TROCA);
+        // As linhas vieram de uma partição com o mesmo limite superior e nenhuma está abaixo do
+        // limite inferior do destino; validar linha a linha seria só custo
+        st.execute("ALTER TABLE " + ARQUIVO + " EXCHANGE PARTITION " + destino + " WITH TABLE " + TROCA
+                + " WITHOUT VALIDATION");
+        // Se a partição do arquivo já tinha linhas (execução anterior interrompida), elas
+        // voltaram para a troca
+        recuperarTroca(st);
+
+        // A partição esvaziada se junta à anterior (já arquivada) numa só, sempre a primeira de
+        // movimentacoes; as duas só têm eventuais retroativas, então a cópia é pequena
+        List<Particao> atuais = particoes(st, TABELA);
+        int posicao = indice(atuais, particao.nome());
+        if (posicao > 0) {
+            Particao anterior = atuais.get(posicao - 1);
+            st.execute("ALTER TABLE " + TABELA + " REORGANIZE PARTITION " + anterior.nome() + ", " + particao.nome()
+                    + " INTO (PARTITION " + particao.nome() + " VALUES LESS THAN ('" + limiteSuperior + "'))");
+        }
+    }
+
+    /**
+     * Garante em {@code tabela} uma partição que termine exatamente em
+     * {@code limiteSuperior}, criando-a a partir da MAXVALUE, e devolve o nome.
+     */
+    private String garantirParticao(Statement st, String tabela, LocalDate limiteSuperior, List<String> criadas)
+            throws SQLException {
+        List<Particao> atuais = particoes(st, tabela);
+        if (atuais.isEmpty()) {
+            throw new IllegalStateException("Tabela " + tabela + " não está particionada; rode a migração de particionamento");
+        }
+        LocalDate ultimoLimite = null;
+        for (Particao particao : atuais) {
+            if (limiteSuperior.equals(particao.limiteSuperior())) {
+                return particao.nome();
+            }
+            if (particao.limiteSuperior() != null) {
+                ultimoLimite = particao.limiteSuperior();
+            }
+        }
+        if (ultimoLimite != null && !limiteSuperior.isAfter(ultimoLimite)) {
+            throw new IllegalStateException("Partições de " + tabela + " não estão alinhadas por mês em " + limiteSuperior);
+        }
+
+        String nome = NOME_PARTICAO.format(limiteSuperior.minusMonths(1));
+        String nova = "PARTITION " + nome + " VALUES LESS THAN ('" + limiteSuperior + "')";
+        Particao ultima = atuais.get(atuais.size() - 1);
+        if (ultima.limiteSuperior() == null) {
+            st.execute("ALTER TABLE " + tabela + " REORGANIZE PARTITION " + ultima.nome()
+                    + " INTO (" + nova + ", PARTITION " + ultima.nome() + " VALUES LESS THAN (MAXVALUE))");
+        } else {
+            st.execute("ALTER TABLE " + tabela + " ADD PARTITION (" + nova + ")");
+        }
+        criadas.add(tabela + "." + nome);
+        return nome;
+    }
+
+    /** Já arquivada: o arquivo tem uma partição com o mesmo limite superior e ela tem linhas. */
+    private boolean jaArquivada(Statement st, Particao particao) throws SQLException {
+        for (Particao arquivada : particoes(st, ARQUIVO)) {
+            if (particao.limiteSuperior().equals(arquivada.limiteSuperior())) {
+                return valorInteiro(st, "SELECT EXISTS (SELECT 1 FROM " + ARQUIVO + " PARTITION (" + arquivada.nome() + "))");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Publica o novo limite antes de mover qualquer linha e espera as outras
+     * instâncias o relerem.
+     */
+    private void publicarLimite(Statement st, LocalDate novoLimite) throws SQLException {
+        LocalDate atual = limite();
+        if (atual != null && !novoLimite.isAfter(atual)) {
+            return;
+        }
+        if (st.executeUpdate("UPDATE movimentacoes_arquivo_limite SET data_limite = '" + novoLimite + "' WHERE id = 1") == 0) {
+            st.executeUpdate("INSERT INTO movimentacoes_arquivo_limite (id, data_limite) VALUES (1, '" + novoLimite + "')");
+        }
+        limite = novoLimite;
+        logger.info("Limite do arquivo de movimentações publicado: {}; aguardando {}", novoLimite, atualizacaoLimite);
+        try {
+            Thread.sleep(atualizacaoLimite.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Arquivamento interrompido", e);
+        }
+    }
+
+    /** Linhas deixadas na tabela de troca (execução interrompida ou partição já ocupada) vão para o arquivo. */
+    private void recuperarTroca(Statement st) throws SQLException {
+        if (!valorInteiro(st, "SELECT COUNT(*) FROM information_schema.TABLES "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + TROCA + "'")) {
+            return;
+        }
+        int recuperadas = st.executeUpdate("INSERT INTO " + ARQUIVO + " SELECT * FROM " + TROCA);
+        if (recuperadas > 0) {
+            logger.warn("{} movimentações recuperadas da tabela {}", recuperadas, TROCA);
+        }
+        st.execute("DROP TABLE " + TROCA);
+    }
+
+    private List<Particao> particoes(Statement st, String tabela) throws SQLException {
+        List<Particao> particoes = new ArrayList<>();
+        try (ResultSet rs = st.executeQuery(String.format(SELECT_PARTICOES, tabela))) {
+            while (rs.next()) {
+                // RANGE COLUMNS guarda a data entre aspas: '2025-01-01'
+                String descricao = rs.getString("PARTITION_DESCRIPTION").replace("'", "");
+                particoes.add(new Particao(rs.getString("PARTITION_NAME"),
+                        "MAXVALUE".equalsIgnoreCase(descricao) ? null : LocalDate.parse(descricao)));
+            }
+        }
+        return particoes;
+    }
+
+    @Nullable
+    private static LocalDate limiteInferior(List<Particao> particoes, String nome) {
+        int posicao = indice(particoes, nome);
+        return posicao > 0 ? particoes.get(posicao - 1).limiteSuperior() : null;
+    }
+
+    private static int indice(List<Particao> particoes, String nome) {
+        for (int i = 0; i < particoes.size(); i++) {
+            if (particoes.get(i).nome().equals(nome)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Partição " + nome + " não encontrada");
+    }
+
+    private static boolean valorInteiro(Statement st, String sql) throws SQLException {
+        try (ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() && rs.getInt(1) > 0;
+        }
+    }
+}
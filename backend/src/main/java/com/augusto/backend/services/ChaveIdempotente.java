@@ -0,0 +1,44 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.domain.Movimentacao;
+import com.augusto.backend.exception.IdempotenciaConflitanteException;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+
+/**
+ * Idempotency-Key de um lançamento junto com quem a enviou e o hash da
+ * requisição. Uma repetição só devolve a movimentação original se vier do
+ * mesmo usuário e com o mesmo corpo; caso contrário {@link #conferir} recusa.
+ *
+ * @param usuario usuário autenticado; null nos lançamentos internos (recorrências)
+ * @param hash    SHA-256 de conta, tipo, valor e data; null em chaves gravadas antes desta coluna
+ */
+public record ChaveIdempotente(String chave, @Nullable String usuario, @Nullable String hash) {
+
+    public static ChaveIdempotente de(String chave, @Nullable String usuario, Movimentacao movimentacao) {
+        // O valor entra sem zeros à direita: 10, 10.0 e 10.00 são a mesma requisição
+        String corpo = movimentacao.getConta().getId() + "|" + movimentacao.getTipo() + "|"
+                + movimentacao.getValor().stripTrailingZeros().toPlainString() + "|" + movimentacao.getData();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(corpo.getBytes(StandardCharsets.UTF_8));
+            return new ChaveIdempotente(chave, usuario, HexFormat.of().formatHex(digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    /** Recusa esta requisição se {@code original}, com a mesma chave, veio de outro usuário ou com outro corpo. */
+    public void conferir(ChaveIdempotente original) {
+        if (original.hash() == null) {
+            return;
+        }
+        if (!original.hash().equals(hash) || !Objects.equals(original.usuario(), usuario)) {
+            throw new IdempotenciaConflitanteException(chave);
+        }
+    }
+}
@@ -2,37 +2,98 @@ package com.augusto.backend.services;
 
 import com.augusto.backend.domain.Conta;
 import com.augusto.backend.domain.Usuario;
+import com.augusto.backend.dto.ContaDTO;
 import com.augusto.backend.exception.ResourceNotFoundException;
 import com.augusto.backend.repository.ContaRepository;
 import com.augusto.backend.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 public class ContaService {
 
+    private static final String RESTRICAO_NUMERO_CONTA = "uk_contas_numero_conta";
+
     private final ContaRepository contaRepository;
     private final UsuarioRepository usuarioRepository;
+    private final Timer tempoCriacao;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate leitura;
+    private final TransactionTemplate escrita;
+    private final ApplicationEventPublisher eventPublisher;
+    // Lazy: o JournalEngine depende deste service
+    private final ObjectProvider<JournalEngine> journalEngine;
 
     @Autowired
-    public ContaService(ContaRepository contaRepository, UsuarioRepository usuarioRepository) {
+    public ContaService(ContaRepository contaRepository, UsuarioRepository usuarioRepository, MeterRegistry meterRegistry,
+                        EntityManagerFactory entityManagerFactory, PlatformTransactionManager transactionManager,
+                        ObjectProvider<JournalEngine> journalEngine, ApplicationEventPublisher eventPublisher) {
         this.contaRepository = contaRepository;
+        this.journalEngine = journalEngine;
         this.usuarioRepository = usuarioRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+        this.escrita = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.tempoCriacao = Timer.builder("banco.conta.criacao")
+                .description("Tempo de ContaService.createConta")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
+    @Transactional(readOnly = true)
     public List<Conta> findAll() {
         return contaRepository.findAll();
     }
 
+    /** Listagem das contas com o titular resumido, numa única consulta. */
+    @Transactional(readOnly = true)
+    public List<ContaDTO> listarContas() {
+        return contaRepository.listarTodas();
+    }
+
+    @Transactional(readOnly = true)
+    public List<ContaDTO> listarContasDoUsuario(Long usuarioId) {
+        if (usuarioId == null || usuarioId <= 0) {
+            throw new IllegalArgumentException("ID do usuário deve ser um número positivo");
+        }
+        return contaRepository.listarPorUsuario(usuarioId);
+    }
+
     public Optional<Conta> findById(Long id) {
         if (id == null || id <= 0) {
             throw new IllegalArgumentException("ID deve ser um número positivo");
         }
-        return contaRepository.findById(id);
+        // O titular é lazy e as respostas de conta o incluem. Quando a conta vem do cache
+        // de segundo nível o entity graph de findById não se aplica, então o titular é
+        // inicializado aqui, ainda com a sessão aberta (normalmente também pelo cache).
+        return leitura.execute(status -> {
+            Optional<Conta> conta = contaRepository.findById(id);
+            conta.ifPresent(c -> Hibernate.initialize(c.getUsuario()));
+            return conta;
+        });
     }
 
     public Conta findByIdOrThrow(Long id) {
@@ -40,6 +101,7 @@ public class ContaService {
                 .orElseThrow(() -> new ResourceNotFoundException("Conta não encontrada com ID: " + id));
     }
 
+    @Transactional(readOnly = true)
     public List<Conta> findByUsuarioId(Long usuarioId) {
         if (usuarioId == null || usuarioId <= 0) {
             throw new IllegalArgumentException("ID do usuário deve ser um número positivo");
@@ -58,7 +120,7 @@ public class ContaService {
         
         validarNumeroConta(conta.getNumeroConta(), conta.getId());
         
-        return contaRepository.save(conta);
+        return salvarComNumeroUnico(conta);
     }
 
     public void deleteById(Long id) {
@@ -69,8 +131,15 @@ public class ContaService {
         if (!contaRepository.existsById(id)) {
             throw new ResourceNotFoundException("Conta não encontrada com ID: " + id);
         }
-        
-        contaRepository.deleteById(id);
+
+        // No modo journal, espera as movimentações ainda não drenadas, que a conferência abaixo precisa ver
+        JournalEngine.sincronizado(journalEngine.getIfAvailable(), List.of(id), () -> {
+            if (contaRepository.possuiMovimentacoes(id)) {
+                throw new IllegalArgumentException("Conta possui movimentações e não pode ser excluída");
+            }
+            contaRepository.deleteById(id);
+            return null;
+        });
     }
 
     public Conta update(Long id, Conta contaDetails) {
@@ -82,18 +151,24 @@ public class ContaService {
             throw new IllegalArgumentException("Dados da conta não podem ser nulos");
         }
 
-        Conta conta = findByIdOrThrow(id);
-        
-        if (!conta.getNumeroConta().equals(contaDetails.getNumeroConta())) {
-            validarNumeroConta(contaDetails.getNumeroConta(), id);
-        }
-        
-        conta.setNumeroConta(contaDetails.getNumeroConta());
-        
-        return contaRepository.save(conta);
+        validarNumeroConta(contaDetails.getNumeroConta(), id);
+
+        // findById lê da réplica: regravar a entidade levaria ao primário o saldo
+        // dela, possivelmente atrasado. Só o número muda, num UPDATE no primário.
+        return comNumeroUnico(contaDetails.getNumeroConta(), () -> escrita.execute(status -> {
+            if (contaRepository.alterarNumeroConta(id, contaDetails.getNumeroConta()) == 0) {
+                throw new ResourceNotFoundException("Conta não encontrada com ID: " + id);
+            }
+            descartarDoCache(id);
+            return contaRepository.findByIdSemCache(id).orElseThrow();
+        }));
     }
 
     public Conta createConta(Long usuarioId, String numeroConta) {
+        return tempoCriacao.record(() -> criarConta(usuarioId, numeroConta));
+    }
+
+    private Conta criarConta(Long usuarioId, String numeroConta) {
         if (usuarioId == null || usuarioId <= 0) {
             throw new IllegalArgumentException("ID do usuário deve ser um número positivo");
         }
@@ -105,16 +180,18 @@ public class ContaService {
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado com ID: " + usuarioId));
         
-        validarNumeroConta(numeroConta, null);
-        
         Conta novaConta = new Conta();
         novaConta.setUsuario(usuario);
         novaConta.setNumeroConta(numeroConta.trim());
         novaConta.setSaldo(BigDecimal.ZERO);
         
-        return contaRepository.save(novaConta);
+        return salvarComNumeroUnico(novaConta);
     }
 
+    /**
+     * Define o saldo da conta (ajuste manual). A diferença para o saldo anterior é
+     * publicada como variação de hoje, como se fosse um lançamento.
+     */
     public Conta atualizarSaldo(Long contaId, BigDecimal valor) {
         if (contaId == null || contaId <= 0) {
             throw new IllegalArgumentException("ID da conta deve ser um número positivo");
@@ -124,24 +201,91 @@ public class ContaService {
             throw new IllegalArgumentException("Valor não pode ser nulo");
         }
 
-        Conta conta = findByIdOrThrow(contaId);
-        conta.setSaldo(valor);
-        
-        return contaRepository.save(conta);
+        // O saldo absoluto sobrescreveria lançamentos do journal ainda não drenados
+        return JournalEngine.sincronizado(journalEngine.getIfAvailable(), List.of(contaId), () -> escrita.execute(status -> {
+            // O saldo anterior é lido com a conta travada: a diferença entra em saldos_diarios
+            // como variação de hoje, para que a soma dos dias continue batendo com contas.saldo
+            List<Conta> travada = contaRepository.findAllByIdParaAtualizacao(List.of(contaId));
+            if (travada.isEmpty()) {
+                throw new ResourceNotFoundException("Conta não encontrada com ID: " + contaId);
+            }
+            BigDecimal diferenca = valor.subtract(travada.get(0).getSaldo());
+            contaRepository.definirSaldo(contaId, valor);
+            descartarDoCache(contaId);
+            if (diferenca.signum() != 0) {
+                eventPublisher.publishEvent(MovimentacoesRegistradasEvent.de(contaId, LocalDate.now(), diferenca));
+            }
+            return contaRepository.findByIdSemCache(contaId).orElseThrow();
+        }));
     }
     
+    /**
+     * Descarta a conta do cache de segundo nível depois de um UPDATE de saldo feito
+     * fora das entidades (ver {@link ContaRepository#ajustarSaldo}). Descarta de novo
+     * ao fim da transação, porque outra transação pode ter recolocado no cache o
+     * saldo anterior enquanto esta ainda não tinha terminado.
+     */
+    public void descartarDoCache(Long contaId) {
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(Conta.class, contaId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(Conta.class, contaId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Para contas novas a unicidade fica a cargo do índice uk_contas_numero_conta
+     * (ver {@link #salvarComNumeroUnico}); aqui só consultamos o índice quando a
+     * conta já existe e precisa ser excluída da comparação.
+     */
     private void validarNumeroConta(String numeroConta, Long contaIdExcluir) {
         if (numeroConta == null || numeroConta.trim().isEmpty()) {
             throw new IllegalArgumentException("Número da conta é obrigatório");
         }
         
-        List<Conta> contasExistentes = contaRepository.findAll();
-        boolean numeroJaExiste = contasExistentes.stream()
-                .anyMatch(conta -> conta.getNumeroConta().equals(numeroConta.trim()) && 
-                         (contaIdExcluir == null || !conta.getId().equals(contaIdExcluir)));
-        
-        if (numeroJaExiste) {
+        if (contaIdExcluir != null
+                && contaRepository.existsByNumeroContaAndIdNot(numeroConta.trim(), contaIdExcluir)) {
             throw new IllegalArgumentException("Já existe uma conta com o número: " + numeroConta);
         }
     }
+
+    private Conta salvarComNumeroUnico(Conta conta) {
+        return comNumeroUnico(conta.getNumeroConta(), () -> contaRepository.save(conta));
+    }
+
+    private Conta comNumeroUnico(String numeroConta, Supplier<Conta> gravacao) {
+        try {
+            return gravacao.get();
+        } catch (DataIntegrityViolationException e) {
+            if (!violouNumeroUnico(e)) {
+                throw e;
+            }
+            throw new IllegalArgumentException("Já existe uma conta com o número: " + numeroConta, e);
+        }
+    }
+
+    /**
+     * Só a violação de uk_contas_numero_conta vira "número já existe"; as demais
+     * (usuário inexistente, coluna nula...) seguem como erro. O nome vem da
+     * exceção do Hibernate quando o dialeto o extrai e, senão, da mensagem do
+     * driver (o MySQL o prefixa com a tabela e o H2 o põe em maiúsculas).
+     */
+    private static boolean violouNumeroUnico(DataIntegrityViolationException e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            String nome = causa instanceof ConstraintViolationException violacao ? violacao.getConstraintName() : null;
+            if (contemRestricaoNumero(nome) || contemRestricaoNumero(causa.getMessage())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contemRestricaoNumero(String texto) {
+        return texto != null && texto.toLowerCase(Locale.ROOT).contains(RESTRICAO_NUMERO_CONTA);
+    }
 }
\ No newline at end of file
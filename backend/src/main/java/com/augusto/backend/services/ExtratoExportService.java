@@ -0,0 +1,104 @@
+package com.augusto.backend.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Exporta o extrato completo de uma conta direto para a resposta HTTP. As
+ * linhas são lidas por um cursor somente-avanço ({@code useCursorFetch} no
+ * MySQL) em blocos de {@code app.export.fetch-size} e escritas assim que
+ * chegam, então o consumo de memória não depende do tamanho do extrato.
+ */
+@Service
+public class ExtratoExportService {
+
+    private static final String SELECT_EXTRATO =
+            "SELECT id, data, tipo, valor FROM movimentacoes WHERE conta_id = ? ORDER BY data, id";
+
+    // Com arquivo, a ordenação sai do índice e vira filesort no servidor; do lado da
+    // aplicação o extrato continua chegando aos blocos
+    private static final String SELECT_EXTRATO_COM_ARQUIVO =
+            "SELECT id, data, tipo, valor FROM movimentacoes WHERE conta_id = ? "
+            + "UNION ALL SELECT id, data, tipo, valor FROM movimentacoes_arquivo WHERE conta_id = ? ORDER BY data, id";
+
+    public enum Formato {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extensao;
+
+        Formato(String contentType, String extensao) {
+            this.contentType = contentType;
+            this.extensao = extensao;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtensao() {
+            return extensao;
+        }
+
+        public static Formato of(String valor) {
+            for (Formato formato : values()) {
+                if (formato.extensao.equalsIgnoreCase(valor)) {
+                    return formato;
+                }
+            }
+            throw new IllegalArgumentException("Formato de exportação inválido: " + valor);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ArquivamentoService arquivamentoService;
+
+    public ExtratoExportService(DataSource dataSource, ArquivamentoService arquivamentoService,
+                                @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        // Instância própria para não alterar o fetch size do JdbcTemplate compartilhado
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.arquivamentoService = arquivamentoService;
+    }
+
+    public void exportar(Long contaId, Formato formato, OutputStream saida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), 64 * 1024);
+        if (formato == Formato.CSV) {
+            writer.write("id,data,tipo,valor\n");
+        }
+
+        boolean comArquivo = arquivamentoService.precisaDoArquivo(null);
+        Object[] parametros = comArquivo ? new Object[] {contaId, contaId} : new Object[] {contaId};
+        try {
+            jdbcTemplate.query(comArquivo ? SELECT_EXTRATO_COM_ARQUIVO : SELECT_EXTRATO, rs -> {
+                try {
+                    if (formato == Formato.CSV) {
+                        writer.write(rs.getLong("id") + "," + rs.getDate("data").toLocalDate() + ","
+                                + rs.getString("tipo") + "," + rs.getBigDecimal("valor").toPlainString() + "\n");
+                    } else {
+                        writer.write("{\"id\":" + rs.getLong("id") + ",\"data\":\"" + rs.getDate("data").toLocalDate()
+                                + "\",\"tipo\":\"" + rs.getString("tipo") + "\",\"valor\":"
+                                + rs.getBigDecimal("valor").toPlainString() + "}\n");
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, parametros);
+        } catch (UncheckedIOException e) {
+            // Cliente desconectou no meio do download
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,373 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.dto.FechamentoResultadoDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fechamento de fim de dia: juros sobre o saldo positivo de cada conta
+ * ({@code app.fechamento.juros-ao-dia}) e, no dia de cobrança do mês
+ * ({@code app.fechamento.dia-tarifa}), a tarifa de manutenção. Cada lançamento
+ * vira uma movimentação com a data do dia fechado (DEPOSITO para juros, SAQUE
+ * para tarifa).
+ *
+ * <p>As contas são processadas em faixas fixas de
+ * {@code app.fechamento.tamanho-faixa} ids, alinhadas em múltiplos do tamanho
+ * para que uma nova execução encontre as mesmas faixas. As faixas rodam num
+ * ForkJoinPool próprio ({@code app.fechamento.paralelismo} threads, cada uma
+ * com uma conexão); cada faixa é uma transação que trava as contas, grava as
+ * movimentações e os saldos por JDBC batch e registra a faixa em
+ * fechamento_faixas. Só uma faixa fica em memória por thread, e uma execução
+ * interrompida recomeça pelas faixas sem registro. O registro é a primeira
+ * escrita da transação: a chave única (data, faixa_inicio) impede que duas
+ * instâncias fechem a mesma faixa.
+ *
+ * <p>O saldo do dia é o saldo atual menos as movimentações com data posterior,
+ * então fechar um dia com atraso dá o mesmo resultado. Os dias são fechados em
+ * ordem: só o último dia fechado (para retomá-lo) ou um posterior a ele; sem
+ * nenhum dia fechado, no máximo {@code app.fechamento.dias-retroativos} dias
+ * atrás. Um dia anterior ao último fechado e nunca iniciado não é mais aceito,
+ * para que juros e tarifa não sejam lançados retroativamente sobre saldos
+ * antigos. No modo journal, cada
+ * faixa espera a drenagem das suas contas e bloqueia novos lançamentos nelas
+ * até o commit.
+ */
+@Service
+public class FechamentoDiarioService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FechamentoDiarioService.class);
+
+    private static final String INSERT_FAIXA =
+            "INSERT INTO fechamento_faixas (data, faixa_inicio, faixa_fim, concluida_em) VALUES (?, ?, ?, ?)";
+
+    private static final String SELECT_CONTAS_DA_FAIXA =
+            "SELECT id, saldo FROM contas WHERE id BETWEEN ? AND ? ORDER BY id FOR UPDATE";
+
+    private static final String SELECT_MOVIMENTACOES_POSTERIORES =
+            "SELECT conta_id, SUM(CASE WHEN tipo = 'SAQUE' THEN -valor ELSE valor END) AS total "
+            + "FROM movimentacoes WHERE conta_id BETWEEN ? AND ? AND data > ? GROUP BY conta_id";
+
+    private static final String INSERT_MOVIMENTACAO =
+            "INSERT INTO movimentacoes (tipo, valor, data, conta_id) VALUES (?, ?, ?, ?)";
+
+    private static final String UPDATE_SALDO = "UPDATE contas SET saldo = saldo + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ContaService contaService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JournalEngine journalEngine;
+    private final boolean agendado;
+    private final BigDecimal jurosAoDia;
+    private final BigDecimal tarifaManutencao;
+    private final int diaTarifa;
+    private final int paralelismo;
+    private final long tamanhoFaixa;
+    private final int diasRetroativos;
+    private final Counter lancamentosJuros;
+    private final Counter lancamentosTarifa;
+    private final AtomicBoolean emAndamento = new AtomicBoolean();
+
+    public FechamentoDiarioService(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   ContaService contaService,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Nullable JournalEngine journalEngine,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.fechamento.agendado:false}") boolean agendado,
+                                   @Value("${app.fechamento.juros-ao-dia:0}") BigDecimal jurosAoDia,
+                                   @Value("${app.fechamento.tarifa-manutencao:0}") BigDecimal tarifaManutencao,
+                                   @Value("${app.fechamento.dia-tarifa:1}") int diaTarifa,
+                                   @Value("${app.fechamento.paralelismo:4}") int paralelismo,
+                                   @Value("${app.fechamento.tamanho-faixa:1000}") long tamanhoFaixa,
+                                   @Value("${app.fechamento.dias-retroativos:7}") int diasRetroativos) {
+        if (jurosAoDia.signum() < 0 || tarifaManutencao.signum() < 0) {
+            throw new IllegalArgumentException("Juros e tarifa do fechamento não podem ser negativos");
+        }
+        if (diaTarifa < 1 || diaTarifa > 31) {
+            throw new IllegalArgumentException("Dia da tarifa deve estar entre 1 e 31");
+        }
+        if (diasRetroativos < 1) {
+            throw new IllegalArgumentException("Dias retroativos do fechamento devem ser pelo menos 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.contaService = contaService;
+        this.eventPublisher = eventPublisher;
+        this.journalEngine = journalEngine;
+        this.agendado = agendado;
+        this.jurosAoDia = jurosAoDia;
+        this.tarifaManutencao = tarifaManutencao.setScale(2, RoundingMode.HALF_EVEN);
+        this.diaTarifa = diaTarifa;
+        this.paralelismo = paralelismo;
+        this.tamanhoFaixa = tamanhoFaixa;
+        this.diasRetroativos = diasRetroativos;
+        this.lancamentosJuros = Counter.builder("banco.fechamento.lancamentos")
+                .description("Movimentações geradas pelo fechamento diário, por tipo")
+                .tag("tipo", "juros")
+                .register(meterRegistry);
+        this.lancamentosTarifa = Counter.builder("banco.fechamento.lancamentos")
+                .description("Movimentações geradas pelo fechamento diário, por tipo")
+                .tag("tipo", "tarifa")
+                .register(meterRegistry);
+    }
+
+    /** Fecha o dia anterior; {@code app.fechamento.cron}, só com {@code app.fechamento.agendado=true}. */
+    @Scheduled(cron = "${app.fechamento.cron:0 0 1 * * *}")
+    public void fecharAgendado() {
+        if (agendado) {
+            fechar(LocalDate.now().minusDays(1));
+        }
+    }
+
+    /**
+     * Fecha um dia já encerrado: o último dia fechado, um posterior a ele ou um
+     * dia já iniciado. Fechar de novo um dia concluído não gera lançamentos.
+     * Retorna vazio se já houver um fechamento em andamento.
+     */
+    public Optional<FechamentoResultadoDTO> fechar(LocalDate data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Data é obrigatória");
+        }
+        if (!data.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Só é possível fechar dias já encerrados");
+        }
+        validarOrdem(data);
+        if (!emAndamento.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(executar(data));
+        } finally {
+            emAndamento.set(false);
+        }
+    }
+
+    private void validarOrdem(LocalDate data) {
+        Date ultimoFechado = jdbcTemplate.queryForObject("SELECT MAX(data) FROM fechamento_faixas", Date.class);
+        if (ultimoFechado == null) {
+            LocalDate limite = LocalDate.now().minusDays(diasRetroativos);
+            if (data.isBefore(limite)) {
+                throw new IllegalArgumentException("O primeiro fechamento deve ser a partir de " + limite);
+            }
+        } else if (data.isBefore(ultimoFechado.toLocalDate()) && !jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) > 0 FROM fechamento_faixas WHERE data = ?", Boolean.class, Date.valueOf(data))) {
+            throw new IllegalArgumentException("Dia " + data + " é anterior ao último fechamento ("
+                    + ultimoFechado.toLocalDate() + ") e não pode mais ser fechado");
+        }
+    }
+
+    private FechamentoResultadoDTO executar(LocalDate data) {
+        long inicio = System.nanoTime();
+        List<Long> tamanhos = jdbcTemplate.queryForList(
+                "SELECT DISTINCT faixa_fim - faixa_inicio + 1 FROM fechamento_faixas WHERE data = ?",
+                Long.class, Date.valueOf(data));
+        if (tamanhos.stream().anyMatch(tamanho -> tamanho != tamanhoFaixa)) {
+            throw new IllegalArgumentException("Fechamento de " + data + " já iniciado com faixas de " + tamanhos
+                    + " contas; use o mesmo app.fechamento.tamanho-faixa para retomá-lo");
+        }
+        Execucao execucao = new Execucao(data, new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT faixa_inicio FROM fechamento_faixas WHERE data = ?", Long.class, Date.valueOf(data))));
+
+        Map<String, Object> limites = jdbcTemplate.queryForMap("SELECT MIN(id) AS menor, MAX(id) AS maior FROM contas");
+        if (limites.get("menor") != null) {
+            long primeira = ((Number) limites.get("menor")).longValue() / tamanhoFaixa;
+            long ultima = ((Number) limites.get("maior")).longValue() / tamanhoFaixa;
+            ForkJoinPool pool = new ForkJoinPool(paralelismo);
+            try {
+                pool.invoke(new Faixas(execucao, primeira, ultima));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+        FechamentoResultadoDTO resultado = new FechamentoResultadoDTO(data, execucao.processadas.sum(),
+                execucao.jaConcluidas.sum(), execucao.comFalha.sum(), execucao.contas.sum(),
+                BigDecimal.valueOf(execucao.centavosJuros.sum(), 2), execucao.tarifasCobradas.sum(),
+                BigDecimal.valueOf(execucao.centavosTarifas.sum(), 2), execucao.tarifasNaoCobradas.sum(), duracaoMs);
+        logger.info("Fechamento de {}: {} faixas processadas, {} já concluídas, {} com falha, {} contas em {} ms",
+                data, resultado.getFaixasProcessadas(), resultado.getFaixasJaConcluidas(),
+                resultado.getFaixasComFalha(), resultado.getContasProcessadas(), duracaoMs);
+        return resultado;
+    }
+
+    private void fecharFaixa(Execucao execucao, long faixaInicio, long faixaFim) {
+        if (execucao.concluidas.contains(faixaInicio)) {
+            execucao.jaConcluidas.increment();
+            return;
+        }
+        List<Long> contaIds = jdbcTemplate.queryForList(
+                "SELECT id FROM contas WHERE id BETWEEN ? AND ?", Long.class, faixaInicio, faixaFim);
+        if (contaIds.isEmpty()) {
+            return;
+        }
+        try {
+            FaixaFechada faixa = JournalEngine.sincronizado(journalEngine, contaIds, () ->
+                    transactionTemplate.execute(status -> gravarFaixa(execucao.data, faixaInicio, faixaFim)));
+            if (faixa == null) {
+                execucao.jaConcluidas.increment();
+                return;
+            }
+            // Só conta depois do commit
+            execucao.processadas.increment();
+            execucao.contas.add(faixa.contas());
+            execucao.centavosJuros.add(faixa.centavosJuros());
+            execucao.centavosTarifas.add(faixa.centavosTarifas());
+            execucao.tarifasCobradas.add(faixa.tarifasCobradas());
+            execucao.tarifasNaoCobradas.add(faixa.tarifasNaoCobradas());
+            lancamentosJuros.increment(faixa.lancamentosJuros());
+            lancamentosTarifa.increment(faixa.tarifasCobradas());
+        } catch (RuntimeException e) {
+            execucao.comFalha.increment();
+            logger.error("Fechamento de {}: falha na faixa {}-{}", execucao.data, faixaInicio, faixaFim, e);
+        }
+    }
+
+    /** Gera os lançamentos da faixa; null se outra execução já a fechou. */
+    @Nullable
+    private FaixaFechada gravarFaixa(LocalDate dia, long faixaInicio, long faixaFim) {
+        Date data = Date.valueOf(dia);
+        try {
+            jdbcTemplate.update(INSERT_FAIXA, data, faixaInicio, faixaFim, Timestamp.valueOf(LocalDateTime.now()));
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+
+        Map<Long, BigDecimal> saldos = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_CONTAS_DA_FAIXA,
+                rs -> { saldos.put(rs.getLong("id"), rs.getBigDecimal("saldo")); }, faixaInicio, faixaFim);
+        Map<Long, BigDecimal> posteriores = new HashMap<>();
+        jdbcTemplate.query(SELECT_MOVIMENTACOES_POSTERIORES,
+                rs -> { posteriores.put(rs.getLong("conta_id"), rs.getBigDecimal("total")); },
+                faixaInicio, faixaFim, data);
+
+        boolean cobrarTarifa = tarifaManutencao.signum() > 0
+                && dia.getDayOfMonth() == Math.min(diaTarifa, dia.lengthOfMonth());
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        MovimentacoesRegistradasEvent.Acumulador variacoes = new MovimentacoesRegistradasEvent.Acumulador();
+        long centavosJuros = 0;
+        long centavosTarifas = 0;
+        int tarifasCobradas = 0;
+        int tarifasNaoCobradas = 0;
+        for (Map.Entry<Long, BigDecimal> conta : saldos.entrySet()) {
+            Long contaId = conta.getKey();
+            BigDecimal saldo = conta.getValue();
+            BigDecimal saldoDoDia = saldo.subtract(posteriores.getOrDefault(contaId, BigDecimal.ZERO));
+            BigDecimal ajuste = BigDecimal.ZERO;
+
+            BigDecimal juros = saldoDoDia.signum() > 0
+                    ? saldoDoDia.multiply(jurosAoDia).setScale(2, RoundingMode.HALF_EVEN)
+                    : BigDecimal.ZERO;
+            if (juros.signum() > 0) {
+                inserts.add(new Object[] {TipoMovimentacao.DEPOSITO.name(), juros, data, contaId});
+                ajuste = ajuste.add(juros);
+                centavosJuros += juros.movePointRight(2).longValueExact();
+            }
+
+            if (cobrarTarifa) {
+                // Como nos saques, a tarifa não deixa o saldo atual negativo
+                if (saldo.add(ajuste).compareTo(tarifaManutencao) >= 0) {
+                    inserts.add(new Object[] {TipoMovimentacao.SAQUE.name(), tarifaManutencao, data, contaId});
+                    ajuste = ajuste.subtract(tarifaManutencao);
+                    centavosTarifas += tarifaManutencao.movePointRight(2).longValueExact();
+                    tarifasCobradas++;
+                } else {
+                    tarifasNaoCobradas++;
+                }
+            }
+
+            if (ajuste.signum() != 0) {
+                updates.add(new Object[] {ajuste, contaId});
+                variacoes.somar(contaId, dia, ajuste);
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_MOVIMENTACAO, inserts);
+            jdbcTemplate.batchUpdate(UPDATE_SALDO, updates);
+            eventPublisher.publishEvent(variacoes.evento());
+            updates.forEach(update -> contaService.descartarDoCache((Long) update[1]));
+        }
+
+        return new FaixaFechada(saldos.size(), centavosJuros, centavosTarifas,
+                inserts.size() - tarifasCobradas, tarifasCobradas, tarifasNaoCobradas);
+    }
+
+    private record FaixaFechada(int contas, long centavosJuros, long centavosTarifas, int lancamentosJuros,
+                                int tarifasCobradas, int tarifasNaoCobradas) {
+    }
+
+    private static final class Execucao {
+        private final LocalDate data;
+        private final Set<Long> concluidas;
+        private final LongAdder processadas = new LongAdder();
+        private final LongAdder jaConcluidas = new LongAdder();
+        private final LongAdder comFalha = new LongAdder();
+        private final LongAdder contas = new LongAdder();
+        private final LongAdder centavosJuros = new LongAdder();
+        private final LongAdder centavosTarifas = new LongAdder();
+        private final LongAdder tarifasCobradas = new LongAdder();
+        private final LongAdder tarifasNaoCobradas = new LongAdder();
+
+        private Execucao(LocalDate data, Set<Long> concluidas) {
+            this.data = data;
+            this.concluidas = concluidas;
+        }
+    }
+
+    /** Faixas de índice {@code primeira} a {@code ultima}; a faixa k cobre os ids k*tamanho a (k+1)*tamanho - 1. */
+    private final class Faixas extends RecursiveAction {
+        private final Execucao execucao;
+        private final long primeira;
+        private final long ultima;
+
+        private Faixas(Execucao execucao, long primeira, long ultima) {
+            this.execucao = execucao;
+            this.primeira = primeira;
+            this.ultima = ultima;
+        }
+
+        @Override
+        protected void compute() {
+            if (primeira == ultima) {
+                fecharFaixa(execucao, primeira * tamanhoFaixa, (primeira + 1) * tamanhoFaixa - 1);
+                return;
+            }
+            long meio = primeira + (ultima - primeira) / 2;
+            invokeAll(new Faixas(execucao, primeira, meio), new Faixas(execucao, meio + 1, ultima));
+        }
+    }
+}
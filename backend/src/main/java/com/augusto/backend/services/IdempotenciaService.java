@@ -0,0 +1,180 @@
+package com.augusto.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Chaves de idempotência dos lançamentos (header Idempotency-Key).
+ *
+ * <p>A tabela chaves_idempotencia é a fonte da verdade: a chave é gravada na
+ * mesma transação da movimentação, e a chave primária garante que duas
+ * tentativas concorrentes não gravam duas movimentações (a segunda falha com
+ * DuplicateKeyException e desfaz tudo). Na frente dela fica um cache limitado
+ * das chaves recentes, que é onde as repetições de um gateway costumam cair.
+ * Uma chave nova não está no cache: custa um SELECT pela chave primária antes
+ * do lançamento e o INSERT na transação que já existia. Nos modos ledger e
+ * journal o lote ainda confere suas chaves no banco ({@link #buscarNoBanco}),
+ * com as contas já travadas, o que soma mais um SELECT por lote.
+ *
+ * <p>Cada chave guarda o usuário e o hash da requisição que a usou primeiro
+ * (ver {@link ChaveIdempotente}): repetir a chave com outro corpo ou de outro
+ * usuário é recusado em vez de devolver a movimentação original. As chaves
+ * ficam {@code app.idempotencia.retencao} no banco.
+ */
+@Service
+public class IdempotenciaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotenciaService.class);
+
+    private static final int TAMANHO_MAXIMO_CHAVE = 100;
+
+    private static final String INSERT_CHAVE = "INSERT INTO chaves_idempotencia "
+            + "(chave, movimentacao_id, criada_em, usuario, hash_requisicao) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_CHAVES =
+            "SELECT chave, movimentacao_id, usuario, hash_requisicao FROM chaves_idempotencia ";
+
+    private static final String DELETE_EXPIRADAS = "DELETE FROM chaves_idempotencia WHERE criada_em < ? LIMIT ?";
+
+    /** Chave já gravada e a movimentação que ela gerou. */
+    public record ChaveGravada(ChaveIdempotente chave, long movimentacaoId) {
+    }
+
+    private static final RowMapper<ChaveGravada> CHAVE_GRAVADA = (rs, i) -> new ChaveGravada(
+            new ChaveIdempotente(rs.getString("chave"), rs.getString("usuario"), rs.getString("hash_requisicao")),
+            rs.getLong("movimentacao_id"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final Cache<String, ChaveGravada> recentes;
+    private final Duration retencao;
+    private final int tamanhoLoteLimpeza;
+
+    public IdempotenciaService(JdbcTemplate jdbcTemplate,
+                               @Value("${app.idempotencia.cache.tamanho-maximo:100000}") long tamanhoMaximo,
+                               @Value("${app.idempotencia.cache.ttl:24h}") Duration ttl,
+                               @Value("${app.idempotencia.retencao:7d}") Duration retencao,
+                               @Value("${app.idempotencia.limpeza.tamanho-lote:10000}") int tamanhoLoteLimpeza) {
+        if (ttl.compareTo(retencao) > 0) {
+            // O cache responderia por chaves que o banco já esqueceu
+            throw new IllegalArgumentException("app.idempotencia.cache.ttl não pode ser maior que app.idempotencia.retencao");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.recentes = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .build();
+        this.retencao = retencao;
+        this.tamanhoLoteLimpeza = tamanhoLoteLimpeza;
+    }
+
+    public static void validar(String chave) {
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new IllegalArgumentException("Idempotency-Key deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres");
+        }
+    }
+
+    /**
+     * Id da movimentação já gravada com a chave: primeiro no cache, depois no
+     * banco. Lança IdempotenciaConflitanteException se a chave foi usada por
+     * outro usuário ou com outro corpo.
+     */
+    public Optional<Long> buscar(ChaveIdempotente chave) {
+        ChaveGravada gravada = recentes.getIfPresent(chave.chave());
+        if (gravada == null) {
+            List<ChaveGravada> doBanco = jdbcTemplate.query(SELECT_CHAVES + "WHERE chave = ?", CHAVE_GRAVADA, chave.chave());
+            if (doBanco.isEmpty()) {
+                return Optional.empty();
+            }
+            gravada = doBanco.get(0);
+            recentes.put(chave.chave(), gravada);
+        }
+        chave.conferir(gravada.chave());
+        return Optional.of(gravada.movimentacaoId());
+    }
+
+    /** Consulta várias chaves de uma vez, direto no banco (usado pelos lotes do ledger e do journal). */
+    public Map<String, ChaveGravada> buscarNoBanco(Collection<String> chaves) {
+        Map<String, ChaveGravada> encontradas = new HashMap<>();
+        if (chaves.isEmpty()) {
+            return encontradas;
+        }
+        namedJdbcTemplate.query(SELECT_CHAVES + "WHERE chave IN (:chaves)", new MapSqlParameterSource("chaves", chaves),
+                rs -> {
+                    ChaveGravada gravada = CHAVE_GRAVADA.mapRow(rs, 0);
+                    encontradas.put(gravada.chave().chave(), gravada);
+                });
+        return encontradas;
+    }
+
+    /**
+     * Grava as chaves na transação corrente. Lança DuplicateKeyException se
+     * alguma já foi gravada por outra transação. As chaves só entram no cache
+     * depois do commit, para que um rollback não deixe uma chave sem movimentação.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Map<ChaveIdempotente, Long> movimentacoesPorChave) {
+        if (movimentacoesPorChave.isEmpty()) {
+            return;
+        }
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> inserts = new ArrayList<>(movimentacoesPorChave.size());
+        Map<String, ChaveGravada> gravadas = new HashMap<>();
+        movimentacoesPorChave.forEach((chave, movimentacaoId) -> {
+            inserts.add(new Object[] {chave.chave(), movimentacaoId, agora, chave.usuario(), chave.hash()});
+            gravadas.put(chave.chave(), new ChaveGravada(chave, movimentacaoId));
+        });
+        jdbcTemplate.batchUpdate(INSERT_CHAVE, inserts);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentes.putAll(gravadas);
+            }
+        });
+    }
+
+    /**
+     * Apaga as chaves mais antigas que {@code app.idempotencia.retencao}, em
+     * lotes para não segurar travas na tabela. Depois disso uma repetição com a
+     * mesma chave gera uma nova movimentação.
+     */
+    @Scheduled(cron = "${app.idempotencia.limpeza.cron:0 45 3 * * *}")
+    public int limparExpiradas() {
+        Timestamp limite = Timestamp.valueOf(LocalDateTime.now().minus(retencao));
+        int total = 0;
+        int apagadas;
+        do {
+            apagadas = jdbcTemplate.update(DELETE_EXPIRADAS, limite, tamanhoLoteLimpeza);
+            total += apagadas;
+        } while (apagadas == tamanhoLoteLimpeza);
+        if (total > 0) {
+            logger.info("{} chaves de idempotência anteriores a {} apagadas", total, limite);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,762 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.domain.Movimentacao;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.exception.SaldoInsuficienteException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Motor de lançamentos usado quando {@code app.movimentacao.modo=journal}.
+ *
+ * <p>A movimentação é validada contra o saldo mantido em memória, gravada num
+ * journal local (arquivos mapeados em memória, só com append) e confirmada ao
+ * cliente assim que o journal vai para o disco. O force() é feito em grupo, por
+ * tempo ({@code app.journal.fsync.intervalo}) ou volume
+ * ({@code app.journal.fsync.bytes}), então várias requisições dividem o mesmo
+ * fsync. Uma thread separada drena o journal para o MySQL em lotes: um UPDATE
+ * de saldo por conta, os INSERTs por JDBC batch e o checkpoint
+ * (journal_checkpoint) na mesma transação. Ao subir, os registros depois do
+ * checkpoint são regravados antes de aceitar requisições, sem duplicar nada.
+ *
+ * <p>Nesse modo o banco fica alguns milissegundos atrás do journal: a
+ * movimentação devolvida ainda não tem id, e leituras de saldo pela API podem
+ * não refletir os últimos lançamentos. Operações que alteram saldo por fora do
+ * journal (transferências, lotes, exclusões) passam por
+ * {@link #comContasSincronizadas}, que espera a drenagem e descarta os saldos
+ * em memória das contas envolvidas.
+ *
+ * <p>Formato de cada registro: tamanho (int), conteúdo e CRC32C do conteúdo.
+ * Com chave de idempotência, o conteúdo termina com o usuário e o hash da
+ * requisição; registros gravados antes desses campos continuam legíveis.
+ * Tamanho 0 marca o fim dos dados do segmento e -1 que o restante está no
+ * próximo arquivo. Um registro incompleto ou com CRC errado encerra a leitura:
+ * nenhum registro depois dele foi confirmado ao cliente.
+ */
+@Component
+@ConditionalOnProperty(name = "app.movimentacao.modo", havingValue = "journal")
+public class JournalEngine implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalEngine.class);
+
+    private static final int FIM_DOS_DADOS = 0;
+    private static final int PROXIMO_SEGMENTO = -1;
+    // seq, conta, tipo, valor em centavos, data e tamanho da chave
+    private static final int CABECALHO_REGISTRO = 8 + 8 + 1 + 8 + 4 + 2;
+    private static final int QUANTIDADE_TRAVAS = 256;
+
+    private static final String INSERT_MOVIMENTACAO =
+            "INSERT INTO movimentacoes (tipo, valor, data, conta_id) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IdempotenciaService idempotenciaService;
+    private final ContaService contaService;
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+    private final long intervaloFsyncNanos;
+    private final long bytesFsync;
+    private final int tamanhoLoteDrenagem;
+
+    // Estado do arquivo, guardado por 'arquivo'
+    private final ReentrantLock arquivo = new ReentrantLock();
+    private final Condition aguardandoForce = arquivo.newCondition();
+    private final Condition forceConcluido = arquivo.newCondition();
+    private final Deque<Segmento> segmentos = new ArrayDeque<>();
+    private Segmento segmentoAtual;
+    private long ultimoSeq;
+    private long seqDuravel;
+    private long bytesSemForce;
+
+    private final ConcurrentLinkedQueue<Registro> aDrenar = new ConcurrentLinkedQueue<>();
+    // Avanço de seqDrenado, guardado por 'drenagem': um lock e não synchronized, para que
+    // esperar a drenagem numa virtual thread não prenda a carrier thread
+    private final ReentrantLock drenagem = new ReentrantLock();
+    private final Condition drenado = drenagem.newCondition();
+    private volatile long seqDrenado;
+
+    // Saldo de cada conta já usada pelo journal: o do banco mais o que ainda não foi drenado
+    private final Map<Long, BigDecimal> saldos = new ConcurrentHashMap<>();
+    private final ReentrantLock[] travas = new ReentrantLock[QUANTIDADE_TRAVAS];
+    private final Map<String, Pendente> pendentesPorChave = new ConcurrentHashMap<>();
+
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean ativo;
+
+    public JournalEngine(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         ApplicationEventPublisher eventPublisher,
+                         IdempotenciaService idempotenciaService,
+                         ContaService contaService,
+                         @Value("${app.journal.diretorio:journal}") Path diretorio,
+                         @Value("${app.journal.tamanho-segmento:64MB}") DataSize tamanhoSegmento,
+                         @Value("${app.journal.fsync.intervalo:2ms}") Duration intervaloFsync,
+                         @Value("${app.journal.fsync.bytes:256KB}") DataSize bytesFsync,
+                         @Value("${app.journal.drenagem.tamanho-lote:1000}") int tamanhoLoteDrenagem) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.idempotenciaService = idempotenciaService;
+        this.contaService = contaService;
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = Math.toIntExact(tamanhoSegmento.toBytes());
+        this.intervaloFsyncNanos = intervaloFsync.toNanos();
+        this.bytesFsync = bytesFsync.toBytes();
+        this.tamanhoLoteDrenagem = tamanhoLoteDrenagem;
+        for (int i = 0; i < travas.length; i++) {
+            travas[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Regrava o que ficou no journal e abre um segmento novo. Roda depois que
+     * todos os beans existem (os @EventListener, como o de saldos diários, já
+     * estão registrados) e antes de o servidor web começar a aceitar requisições.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            Files.createDirectories(diretorio);
+            jdbcTemplate.update("INSERT INTO journal_checkpoint (id, ultimo_seq) SELECT 1, 0 FROM DUAL "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM journal_checkpoint WHERE id = 1)");
+            long checkpoint = jdbcTemplate.queryForObject(
+                    "SELECT ultimo_seq FROM journal_checkpoint WHERE id = 1", Long.class);
+
+            List<Path> arquivos = listarSegmentos();
+            List<Registro> pendentes = new ArrayList<>();
+            long maiorSeq = ler(arquivos, checkpoint, pendentes);
+            for (int inicio = 0; inicio < pendentes.size(); inicio += tamanhoLoteDrenagem) {
+                gravarNoBanco(pendentes.subList(inicio, Math.min(inicio + tamanhoLoteDrenagem, pendentes.size())));
+            }
+            for (Path arquivo : arquivos) {
+                Files.delete(arquivo);
+            }
+
+            ultimoSeq = Math.max(maiorSeq, checkpoint);
+            seqDuravel = ultimoSeq;
+            seqDrenado = ultimoSeq;
+            segmentoAtual = Segmento.criar(diretorio, ultimoSeq + 1, tamanhoSegmento);
+            segmentos.add(segmentoAtual);
+            logger.info("Journal em {}: {} movimentações regravadas no banco, próximo seq {}",
+                    diretorio.toAbsolutePath(), pendentes.size(), ultimoSeq + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir o journal em " + diretorio, e);
+        }
+
+        ativo = true;
+        iniciar("journal-fsync", this::executarForce);
+        iniciar("journal-drenagem", this::executarDrenagem);
+    }
+
+    private void iniciar(String nome, Runnable tarefa) {
+        Thread thread = new Thread(tarefa, nome);
+        thread.setDaemon(true);
+        threads.add(thread);
+        thread.start();
+    }
+
+    /**
+     * Valida e grava a movimentação no journal; retorna depois do force() que
+     * a inclui. Retorna null se a conta não existir, como o caminho direto.
+     */
+    public Movimentacao postar(Movimentacao movimentacao, @Nullable ChaveIdempotente chaveIdempotencia) {
+        if (!ativo) {
+            throw new IllegalStateException("Journal indisponível para novas movimentações");
+        }
+        Long contaId = movimentacao.getConta().getId();
+        long centavos = centavos(movimentacao.getValor());
+
+        CompletableFuture<Movimentacao> resultado = new CompletableFuture<>();
+        Pendente pendente = chaveIdempotencia == null ? null : new Pendente(chaveIdempotencia, resultado);
+        if (chaveIdempotencia != null) {
+            // A chave só sai de pendentesPorChave depois de entrar no cache do IdempotenciaService
+            Pendente anterior = pendentesPorChave.putIfAbsent(chaveIdempotencia.chave(), pendente);
+            if (anterior != null) {
+                chaveIdempotencia.conferir(anterior.chave());
+                return aguardar(anterior.resultado());
+            }
+            boolean jaGravada;
+            try {
+                jaGravada = idempotenciaService.buscar(chaveIdempotencia).isPresent();
+            } catch (RuntimeException e) {
+                pendentesPorChave.remove(chaveIdempotencia.chave(), pendente);
+                throw e;
+            }
+            if (jaGravada) {
+                // Drenada entre a consulta do service e aqui: o service devolve a original
+                pendentesPorChave.remove(chaveIdempotencia.chave(), pendente);
+                throw new DuplicateKeyException("Idempotency-Key já usada: " + chaveIdempotencia.chave());
+            }
+        }
+
+        try {
+            long seq;
+            BigDecimal novoSaldo;
+            ReentrantLock trava = trava(contaId);
+            trava.lock();
+            try {
+                BigDecimal saldo = saldos.get(contaId);
+                if (saldo == null) {
+                    List<BigDecimal> doBanco = jdbcTemplate.queryForList(
+                            "SELECT saldo FROM contas WHERE id = ?", BigDecimal.class, contaId);
+                    if (doBanco.isEmpty()) {
+                        resultado.complete(null);
+                        if (chaveIdempotencia != null) {
+                            pendentesPorChave.remove(chaveIdempotencia.chave(), pendente);
+                        }
+                        return null;
+                    }
+                    saldo = doBanco.get(0);
+                }
+                if (movimentacao.getTipo() == TipoMovimentacao.SAQUE && saldo.compareTo(movimentacao.getValor()) < 0) {
+                    throw new SaldoInsuficienteException();
+                }
+
+                seq = anexar(contaId, movimentacao.getTipo(), centavos, movimentacao.getData(), chaveIdempotencia);
+                novoSaldo = saldo.add(movimentacao.getTipo().comSinal(movimentacao.getValor()));
+                saldos.put(contaId, novoSaldo);
+            } finally {
+                trava.unlock();
+            }
+
+            aguardarForce(seq);
+            movimentacao.getConta().setSaldo(novoSaldo);
+            resultado.complete(movimentacao);
+            return movimentacao;
+        } catch (RuntimeException e) {
+            // Recusada: a chave não foi usada e pode ser repetida, como nos outros modos
+            resultado.completeExceptionally(e);
+            if (chaveIdempotencia != null) {
+                pendentesPorChave.remove(chaveIdempotencia.chave(), pendente);
+            }
+            throw e;
+        }
+    }
+
+    private static Movimentacao aguardar(CompletableFuture<Movimentacao> resultado) {
+        try {
+            return resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Executa uma operação que altera saldos sem passar pelo journal: bloqueia
+     * novos lançamentos nas contas, espera o journal ser drenado e, quando a
+     * operação termina (no fim da transação, se houver uma), descarta os saldos
+     * em memória dessas contas para que sejam relidos do banco.
+     */
+    public <T> T comContasSincronizadas(Collection<Long> contaIds, Supplier<T> operacao) {
+        Set<Integer> indices = new TreeSet<>();
+        contaIds.forEach(contaId -> indices.add(indiceTrava(contaId)));
+        List<ReentrantLock> travadas = new ArrayList<>(indices.size());
+        try {
+            for (int indice : indices) {
+                travas[indice].lock();
+                travadas.add(travas[indice]);
+            }
+            aguardarDrenagem();
+        } catch (RuntimeException e) {
+            liberar(contaIds, travadas);
+            throw e;
+        }
+
+        boolean emTransacao = TransactionSynchronizationManager.isSynchronizationActive();
+        try {
+            return operacao.get();
+        } finally {
+            if (emTransacao) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        liberar(contaIds, travadas);
+                    }
+                });
+            } else {
+                liberar(contaIds, travadas);
+            }
+        }
+    }
+
+    /** Atalho para quem só tem o journal quando {@code app.movimentacao.modo=journal}. */
+    public static <T> T sincronizado(@Nullable JournalEngine journal, Collection<Long> contaIds, Supplier<T> operacao) {
+        return journal == null ? operacao.get() : journal.comContasSincronizadas(contaIds, operacao);
+    }
+
+    private void liberar(Collection<Long> contaIds, List<ReentrantLock> travadas) {
+        contaIds.forEach(saldos::remove);
+        for (int i = travadas.size() - 1; i >= 0; i--) {
+            travadas.get(i).unlock();
+        }
+    }
+
+    private ReentrantLock trava(Long contaId) {
+        return travas[indiceTrava(contaId)];
+    }
+
+    private static int indiceTrava(Long contaId) {
+        return Math.floorMod(contaId.hashCode(), QUANTIDADE_TRAVAS);
+    }
+
+    private static long centavos(BigDecimal valor) {
+        try {
+            return valor.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Valor deve ter no máximo duas casas decimais");
+        }
+    }
+
+    // ---- arquivo ----
+
+    private long anexar(Long contaId, TipoMovimentacao tipo, long centavos, LocalDate data,
+                        @Nullable ChaveIdempotente chave) {
+        byte[] bytesChave = bytes(chave == null ? null : chave.chave());
+        byte[] bytesUsuario = bytes(chave == null ? null : chave.usuario());
+        byte[] bytesHash = bytes(chave == null ? null : chave.hash());
+        ByteBuffer conteudo = ByteBuffer.allocate(CABECALHO_REGISTRO + bytesChave.length
+                + (chave == null ? 0 : 2 + bytesUsuario.length + 2 + bytesHash.length));
+
+        arquivo.lock();
+        try {
+            long seq = ultimoSeq + 1;
+            conteudo.putLong(seq).putLong(contaId).put((byte) tipo.ordinal()).putLong(centavos)
+                    .putInt((int) data.toEpochDay()).putShort((short) bytesChave.length).put(bytesChave);
+            if (chave != null) {
+                conteudo.putShort((short) bytesUsuario.length).put(bytesUsuario)
+                        .putShort((short) bytesHash.length).put(bytesHash);
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(conteudo.array());
+
+            int tamanhoRegistro = 4 + conteudo.capacity() + 4;
+            // Sobra espaço para o marcador de fim depois do registro
+            if (segmentoAtual.posicao + tamanhoRegistro + 4 > tamanhoSegmento) {
+                trocarSegmento(seq);
+            }
+            Segmento segmento = segmentoAtual;
+            int posicao = segmento.posicao;
+            segmento.buffer.put(posicao + 4, conteudo.array());
+            segmento.buffer.putInt(posicao + 4 + conteudo.capacity(), (int) crc.getValue());
+            // O tamanho vai por último: até ele ser escrito o registro não existe para a leitura
+            segmento.buffer.putInt(posicao, conteudo.capacity());
+            segmento.posicao += tamanhoRegistro;
+            segmento.ultimoSeq = seq;
+
+            ultimoSeq = seq;
+            aDrenar.add(new Registro(seq, contaId, tipo, BigDecimal.valueOf(centavos, 2), data, chave));
+            bytesSemForce += tamanhoRegistro;
+            aguardandoForce.signal();
+            return seq;
+        } finally {
+            arquivo.unlock();
+        }
+    }
+
+    private static byte[] bytes(@Nullable String texto) {
+        return texto == null ? new byte[0] : texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void trocarSegmento(long proximoSeq) {
+        Segmento anterior = segmentoAtual;
+        anterior.buffer.putInt(anterior.posicao, PROXIMO_SEGMENTO);
+        anterior.buffer.force();
+        try {
+            segmentoAtual = Segmento.criar(diretorio, proximoSeq, tamanhoSegmento);
+        } catch (IOException e) {
+            ativo = false;
+            throw new UncheckedIOException("Falha ao criar segmento do journal", e);
+        }
+        segmentos.add(segmentoAtual);
+    }
+
+    private void aguardarForce(long seq) {
+        arquivo.lock();
+        try {
+            while (seqDuravel < seq) {
+                if (!ativo) {
+                    throw new IllegalStateException("Journal encerrado antes de gravar a movimentação");
+                }
+                forceConcluido.await(100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido esperando o journal", e);
+        } finally {
+            arquivo.unlock();
+        }
+    }
+
+    private void executarForce() {
+        while (ativo || seqDuravel < ultimoSeq) {
+            long alvo;
+            Segmento segmento;
+            arquivo.lock();
+            try {
+                while (ativo && ultimoSeq == seqDuravel) {
+                    aguardandoForce.await(100, TimeUnit.MILLISECONDS);
+                }
+                // Junta mais registros no mesmo force() até o intervalo ou o volume configurado
+                long restante = intervaloFsyncNanos;
+                while (ativo && bytesSemForce < bytesFsync && restante > 0) {
+                    restante = aguardandoForce.awaitNanos(restante);
+                }
+                alvo = ultimoSeq;
+                segmento = segmentoAtual;
+                bytesSemForce = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                arquivo.unlock();
+            }
+
+            // Fora do lock: novos registros continuam entrando durante o force()
+            segmento.buffer.force();
+
+            arquivo.lock();
+            try {
+                seqDuravel = Math.max(seqDuravel, alvo);
+                forceConcluido.signalAll();
+            } finally {
+                arquivo.unlock();
+            }
+        }
+    }
+
+    // ---- drenagem ----
+
+    private void executarDrenagem() {
+        List<Registro> lote = new ArrayList<>(tamanhoLoteDrenagem);
+        while (ativo || !aDrenar.isEmpty() || !lote.isEmpty()) {
+            long duravel = seqDuravel;
+            Registro proximo;
+            while (lote.size() < tamanhoLoteDrenagem && (proximo = aDrenar.peek()) != null && proximo.seq() <= duravel) {
+                lote.add(aDrenar.poll());
+            }
+            if (lote.isEmpty()) {
+                if (!ativo && seqDuravel >= ultimoSeq) {
+                    break;
+                }
+                esperar(Duration.ofMillis(1));
+                continue;
+            }
+
+            try {
+                gravarNoBanco(lote);
+            } catch (RuntimeException e) {
+                // O lote fica para a próxima tentativa; nada dele foi gravado
+                logger.error("Falha ao drenar {} movimentações do journal", lote.size(), e);
+                esperar(Duration.ofSeconds(1));
+                continue;
+            }
+
+            long ultimoDrenado = lote.get(lote.size() - 1).seq();
+            lote.forEach(registro -> {
+                if (registro.chave() != null) {
+                    pendentesPorChave.remove(registro.chave().chave());
+                }
+            });
+            lote.clear();
+            drenagem.lock();
+            try {
+                seqDrenado = ultimoDrenado;
+                drenado.signalAll();
+            } finally {
+                drenagem.unlock();
+            }
+            apagarSegmentosDrenados(ultimoDrenado);
+        }
+    }
+
+    private void esperar(Duration tempo) {
+        try {
+            Thread.sleep(tempo.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void aguardarDrenagem() {
+        long alvo;
+        arquivo.lock();
+        try {
+            alvo = ultimoSeq;
+        } finally {
+            arquivo.unlock();
+        }
+        drenagem.lock();
+        try {
+            while (seqDrenado < alvo) {
+                if (!ativo) {
+                    throw new IllegalStateException("Journal encerrado com movimentações não drenadas");
+                }
+                drenado.await(100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido esperando a drenagem do journal", e);
+        } finally {
+            drenagem.unlock();
+        }
+    }
+
+    /**
+     * Grava um lote de registros numa transação: saldos (um UPDATE por conta, na
+     * ordem do id), movimentações, chaves de idempotência, saldos diários e o
+     * checkpoint. Registros cuja chave já está no banco são ignorados, o que
+     * também torna a regravação na subida segura.
+     */
+    private void gravarNoBanco(List<Registro> lote) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> chaves = new LinkedHashSet<>();
+            lote.forEach(registro -> {
+                if (registro.chave() != null) {
+                    chaves.add(registro.chave().chave());
+                }
+            });
+            Set<String> jaGravadas = idempotenciaService.buscarNoBanco(chaves).keySet();
+
+            List<Registro> novos = new ArrayList<>(lote.size());
+            Set<String> vistas = new LinkedHashSet<>();
+            Map<Long, BigDecimal> variacaoPorConta = new TreeMap<>();
+            MovimentacoesRegistradasEvent.Acumulador variacoes = new MovimentacoesRegistradasEvent.Acumulador();
+            for (Registro registro : lote) {
+                if (registro.chave() != null
+                        && (jaGravadas.contains(registro.chave().chave()) || !vistas.add(registro.chave().chave()))) {
+                    continue;
+                }
+                BigDecimal valor = registro.tipo().comSinal(registro.valor());
+                variacaoPorConta.merge(registro.contaId(), valor, BigDecimal::add);
+                variacoes.somar(registro.contaId(), registro.data(), valor);
+                novos.add(registro);
+            }
+
+            if (!novos.isEmpty()) {
+                List<Object[]> updates = new ArrayList<>(variacaoPorConta.size());
+                variacaoPorConta.forEach((contaId, valor) -> updates.add(new Object[] {valor, contaId}));
+                jdbcTemplate.batchUpdate("UPDATE contas SET saldo = saldo + ? WHERE id = ?", updates);
+                List<Long> ids = inserirMovimentacoes(novos);
+
+                Map<ChaveIdempotente, Long> chavesNovas = new HashMap<>();
+                for (int i = 0; i < novos.size(); i++) {
+                    if (novos.get(i).chave() != null) {
+                        chavesNovas.put(novos.get(i).chave(), ids.get(i));
+                    }
+                }
+                idempotenciaService.registrar(chavesNovas);
+                eventPublisher.publishEvent(variacoes.evento());
+                variacaoPorConta.keySet().forEach(contaService::descartarDoCache);
+            }
+            jdbcTemplate.update("UPDATE journal_checkpoint SET ultimo_seq = ? WHERE id = 1",
+                    lote.get(lote.size() - 1).seq());
+        });
+    }
+
+    private List<Long> inserirMovimentacoes(List<Registro> registros) {
+        KeyHolder geradas = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_MOVIMENTACAO, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Registro registro = registros.get(i);
+                        ps.setString(1, registro.tipo().name());
+                        ps.setBigDecimal(2, registro.valor());
+                        ps.setDate(3, Date.valueOf(registro.data()));
+                        ps.setLong(4, registro.contaId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return registros.size();
+                    }
+                }, geradas);
+        List<Long> ids = new ArrayList<>(registros.size());
+        geradas.getKeyList().forEach(chave -> ids.add(((Number) chave.values().iterator().next()).longValue()));
+        return ids;
+    }
+
+    private void apagarSegmentosDrenados(long drenado) {
+        List<Segmento> apagar = new ArrayList<>();
+        arquivo.lock();
+        try {
+            while (segmentos.size() > 1 && segmentos.peekFirst().ultimoSeq <= drenado) {
+                apagar.add(segmentos.pollFirst());
+            }
+        } finally {
+            arquivo.unlock();
+        }
+        for (Segmento segmento : apagar) {
+            try {
+                Files.deleteIfExists(segmento.arquivo);
+            } catch (IOException e) {
+                logger.warn("Não foi possível apagar o segmento drenado {}", segmento.arquivo, e);
+            }
+        }
+    }
+
+    // ---- leitura na subida ----
+
+    private List<Path> listarSegmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.getFileName().toString().matches("journal-\\d{20}\\.log"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /** Lê os registros dos segmentos, guarda os posteriores ao checkpoint e devolve o maior seq válido. */
+    private long ler(List<Path> arquivos, long checkpoint, List<Registro> pendentes) throws IOException {
+        long maiorSeq = 0;
+        for (Path caminho : arquivos) {
+            try (FileChannel canal = FileChannel.open(caminho, StandardOpenOption.READ)) {
+                ByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                while (buffer.remaining() >= 4) {
+                    int tamanho = buffer.getInt();
+                    if (tamanho == PROXIMO_SEGMENTO) {
+                        break;
+                    }
+                    if (tamanho == FIM_DOS_DADOS) {
+                        return maiorSeq;
+                    }
+                    if (tamanho < CABECALHO_REGISTRO || tamanho + 4 > buffer.remaining()) {
+                        logger.warn("Registro incompleto em {}; leitura do journal encerrada", caminho);
+                        return maiorSeq;
+                    }
+                    byte[] conteudo = new byte[tamanho];
+                    buffer.get(conteudo);
+                    CRC32C crc = new CRC32C();
+                    crc.update(conteudo);
+                    if ((int) crc.getValue() != buffer.getInt()) {
+                        logger.warn("CRC inválido em {}; leitura do journal encerrada", caminho);
+                        return maiorSeq;
+                    }
+                    Registro registro = Registro.de(ByteBuffer.wrap(conteudo));
+                    maiorSeq = registro.seq();
+                    if (registro.seq() > checkpoint) {
+                        pendentes.add(registro);
+                    }
+                }
+            }
+        }
+        return maiorSeq;
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        // O force termina o que já foi anexado e a drenagem grava o que já está no disco
+        for (Thread thread : threads) {
+            thread.join(10_000);
+        }
+    }
+
+    private record Pendente(ChaveIdempotente chave, CompletableFuture<Movimentacao> resultado) {
+    }
+
+    private record Registro(long seq, long contaId, TipoMovimentacao tipo, BigDecimal valor, LocalDate data,
+                            @Nullable ChaveIdempotente chave) {
+
+        static Registro de(ByteBuffer conteudo) {
+            long seq = conteudo.getLong();
+            long contaId = conteudo.getLong();
+            TipoMovimentacao tipo = TipoMovimentacao.values()[conteudo.get()];
+            BigDecimal valor = BigDecimal.valueOf(conteudo.getLong(), 2);
+            LocalDate data = LocalDate.ofEpochDay(conteudo.getInt());
+            String chave = texto(conteudo);
+            if (chave == null) {
+                return new Registro(seq, contaId, tipo, valor, data, null);
+            }
+            // Registros anteriores ao usuário e ao hash terminam na chave
+            String usuario = conteudo.hasRemaining() ? texto(conteudo) : null;
+            String hash = conteudo.hasRemaining() ? texto(conteudo) : null;
+            return new Registro(seq, contaId, tipo, valor, data, new ChaveIdempotente(chave, usuario, hash));
+        }
+
+        private static String texto(ByteBuffer conteudo) {
+            byte[] bytes = new byte[conteudo.getShort()];
+            conteudo.get(bytes);
+            return bytes.length == 0 ? null : new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class Segmento {
+        private final Path arquivo;
+        private final MappedByteBuffer buffer;
+        private int posicao;
+        private long ultimoSeq;
+
+        private Segmento(Path arquivo, MappedByteBuffer buffer, long ultimoSeq) {
+            this.arquivo = arquivo;
+            this.buffer = buffer;
+            this.ultimoSeq = ultimoSeq;
+        }
+
+        static Segmento criar(Path diretorio, long primeiroSeq, int tamanho) throws IOException {
+            Path arquivo = diretorio.resolve(String.format("journal-%020d.log", primeiroSeq));
+            try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // O mapeamento continua válido depois de fechar o canal
+                return new Segmento(arquivo, canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanho), primeiroSeq - 1);
+            }
+        }
+    }
+}
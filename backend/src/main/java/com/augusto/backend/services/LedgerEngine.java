@@ -0,0 +1,344 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Movimentacao;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.exception.IdempotenciaConflitanteException;
+import com.augusto.backend.exception.SaldoInsuficienteException;
+import com.augusto.backend.repository.ContaRepository;
+import com.augusto.backend.repository.MovimentacaoRepository;
+import com.augusto.backend.services.IdempotenciaService.ChaveGravada;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Motor de lançamentos usado quando {@code app.movimentacao.modo=ledger}.
+ *
+ * <p>Cada conta pertence a um único worker (pelo id da conta), então não há
+ * disputa entre workers pelo mesmo registro. O worker junta os pedidos que
+ * chegaram enquanto o lote anterior era gravado, valida os saldos em memória e
+ * grava movimentações e saldos numa única transação. Quem chamou {@link #postar}
+ * fica bloqueado até o commit do lote que contém o seu pedido, por no máximo
+ * {@code app.ledger.espera-maxima}; fila cheia ou espera esgotada viram 503.
+ *
+ * <p>Um lote que esbarra em deadlock ou timeout de lock é regravado, como
+ * {@link MovimentacaoService#transferir} faz. Um worker que morre por um
+ * {@link Error} falha o lote em curso e é substituído por outro na mesma fila.
+ */
+@Component
+@ConditionalOnProperty(name = "app.movimentacao.modo", havingValue = "ledger")
+public class LedgerEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerEngine.class);
+    private static final int TENTATIVAS_LOTE = 3;
+
+    private final ContaRepository contaRepository;
+    private final MovimentacaoRepository movimentacaoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IdempotenciaService idempotenciaService;
+    private final int tamanhoLote;
+    private final Duration esperaMaxima;
+    private final List<BlockingQueue<Pedido>> filas = new ArrayList<>();
+    // Trocados pelo handler de exceções não capturadas quando um worker morre
+    private final List<Thread> workers = new CopyOnWriteArrayList<>();
+    private volatile boolean ativo = true;
+
+    public LedgerEngine(ContaRepository contaRepository,
+                        MovimentacaoRepository movimentacaoRepository,
+                        PlatformTransactionManager transactionManager,
+                        ApplicationEventPublisher eventPublisher,
+                        IdempotenciaService idempotenciaService,
+                        @Value("${app.ledger.workers:4}") int quantidadeWorkers,
+                        @Value("${app.ledger.tamanho-lote:256}") int tamanhoLote,
+                        @Value("${app.ledger.capacidade-fila:10000}") int capacidadeFila,
+                        @Value("${app.ledger.espera-maxima:10s}") Duration esperaMaxima) {
+        this.contaRepository = contaRepository;
+        this.movimentacaoRepository = movimentacaoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.idempotenciaService = idempotenciaService;
+        this.tamanhoLote = tamanhoLote;
+        this.esperaMaxima = esperaMaxima;
+
+        for (int i = 0; i < quantidadeWorkers; i++) {
+            filas.add(new ArrayBlockingQueue<>(capacidadeFila));
+            workers.add(iniciarWorker(i));
+        }
+        logger.info("Ledger iniciado com {} workers e lotes de até {} movimentações", quantidadeWorkers, tamanhoLote);
+    }
+
+    /**
+     * Enfileira a movimentação no worker da conta e espera o lote ser gravado.
+     * Retorna null se a conta não existir, como o caminho direto do service.
+     * Com chave de idempotência, a chave é gravada no mesmo lote; se ela já
+     * tiver gerado uma movimentação, essa é devolvida e nada é lançado (ou a
+     * repetição é recusada, se veio de outro usuário ou com outro corpo).
+     */
+    public Movimentacao postar(Movimentacao movimentacao, @Nullable ChaveIdempotente chaveIdempotencia) {
+        Long contaId = movimentacao.getConta().getId();
+        Pedido pedido = new Pedido(movimentacao, chaveIdempotencia);
+        BlockingQueue<Pedido> fila = filas.get(Math.floorMod(contaId.hashCode(), filas.size()));
+
+        if (!ativo || !fila.offer(pedido)) {
+            throw new RejectedExecutionException("Ledger indisponível para novas movimentações");
+        }
+
+        try {
+            return pedido.resultado.get(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Ainda na fila, o pedido sai dela e nunca será gravado; já num lote, o resultado
+            // é incerto e a repetição com a mesma Idempotency-Key devolve o que foi gravado
+            throw new RejectedExecutionException(fila.remove(pedido)
+                    ? "Movimentação não processada em " + esperaMaxima
+                    : "Movimentação sem confirmação em " + esperaMaxima, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Falha no worker do ledger", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido esperando o ledger", e);
+        }
+    }
+
+    private Thread iniciarWorker(int indice) {
+        Thread worker = new Thread(() -> executar(filas.get(indice)), "ledger-" + indice);
+        worker.setDaemon(true);
+        worker.setUncaughtExceptionHandler((morto, e) -> {
+            logger.error("Worker {} do ledger morreu", morto.getName(), e);
+            if (ativo) {
+                workers.set(indice, iniciarWorker(indice));
+            }
+        });
+        worker.start();
+        return worker;
+    }
+
+    private void executar(BlockingQueue<Pedido> fila) {
+        List<Pedido> lote = new ArrayList<>(tamanhoLote);
+        while (ativo) {
+            try {
+                lote.add(fila.take());
+                fila.drainTo(lote, tamanhoLote - 1);
+                processarLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                lote.clear();
+            }
+        }
+        Pedido restante;
+        while ((restante = fila.poll()) != null) {
+            restante.resultado.completeExceptionally(new IllegalStateException("Ledger encerrado"));
+        }
+    }
+
+    private void processarLote(List<Pedido> lote) {
+        try {
+            for (int tentativa = 1; ; tentativa++) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> gravarLote(lote));
+                    break;
+                } catch (PessimisticLockingFailureException e) {
+                    if (tentativa >= TENTATIVAS_LOTE) {
+                        throw e;
+                    }
+                    logger.warn("Lote de {} movimentações esbarrou em lock; tentativa {} de {}",
+                            lote.size(), tentativa + 1, TENTATIVAS_LOTE);
+                    lote.forEach(Pedido::reiniciar);
+                }
+            }
+            lote.forEach(Pedido::concluir);
+        } catch (RuntimeException | Error e) {
+            logger.error("Falha ao gravar lote de {} movimentações", lote.size(), e);
+            lote.forEach(pedido -> pedido.resultado.completeExceptionally(e));
+            if (e instanceof Error erro) {
+                throw erro;
+            }
+        }
+    }
+
+    private void gravarLote(List<Pedido> lote) {
+        Set<Long> contaIds = new LinkedHashSet<>();
+        lote.forEach(pedido -> contaIds.add(pedido.movimentacao.getConta().getId()));
+
+        Map<Long, Conta> contas = new HashMap<>();
+        contaRepository.findAllByIdParaAtualizacao(contaIds).forEach(conta -> contas.put(conta.getId(), conta));
+
+        // Consultadas com as contas já travadas: uma repetição vai para a mesma conta, então
+        // qualquer lançamento anterior com a mesma chave já fez commit e está visível aqui
+        Map<String, ChaveGravada> gravadas = buscarChaves(lote);
+        Map<Long, Movimentacao> originais = carregarOriginais(gravadas.values());
+        Map<String, Pedido> primeiroPorChave = new HashMap<>();
+
+        List<Movimentacao> aceitas = new ArrayList<>(lote.size());
+        MovimentacoesRegistradasEvent.Acumulador variacoes = new MovimentacoesRegistradasEvent.Acumulador();
+        for (Pedido pedido : lote) {
+            if (pedido.chave != null) {
+                try {
+                    ChaveGravada gravada = gravadas.get(pedido.chave.chave());
+                    if (gravada != null) {
+                        pedido.chave.conferir(gravada.chave());
+                        pedido.original = originais.get(gravada.movimentacaoId());
+                        if (pedido.original == null) {
+                            // Excluída depois da consulta feita pelo service
+                            throw IdempotenciaConflitanteException.movimentacaoExcluida(pedido.chave.chave());
+                        }
+                        continue;
+                    }
+                    Pedido primeiro = primeiroPorChave.putIfAbsent(pedido.chave.chave(), pedido);
+                    if (primeiro != null) {
+                        pedido.chave.conferir(primeiro.chave);
+                        pedido.repeticaoDe = primeiro;
+                        continue;
+                    }
+                } catch (IdempotenciaConflitanteException e) {
+                    pedido.erro = e;
+                    continue;
+                }
+            }
+            Movimentacao movimentacao = pedido.movimentacao;
+            Conta conta = contas.get(movimentacao.getConta().getId());
+            if (conta == null) {
+                continue;
+            }
+            BigDecimal saldo = conta.getSaldo();
+            if (movimentacao.getTipo() == TipoMovimentacao.SAQUE && saldo.compareTo(movimentacao.getValor()) < 0) {
+                pedido.erro = new SaldoInsuficienteException();
+                continue;
+            }
+            BigDecimal valor = movimentacao.getTipo().comSinal(movimentacao.getValor());
+            conta.setSaldo(saldo.add(valor));
+            variacoes.somar(conta.getId(), movimentacao.getData(), valor);
+            movimentacao.setConta(conta);
+            // A resposta leva o titular da conta, que é lazy e normalmente sai do cache de segundo nível
+            Hibernate.initialize(conta.getUsuario());
+            pedido.aceito = true;
+            aceitas.add(movimentacao);
+        }
+
+        movimentacaoRepository.saveAll(aceitas);
+        Map<ChaveIdempotente, Long> chavesNovas = new HashMap<>();
+        for (Pedido pedido : lote) {
+            if (pedido.aceito && pedido.chave != null) {
+                chavesNovas.put(pedido.chave, pedido.movimentacao.getId());
+            }
+        }
+        idempotenciaService.registrar(chavesNovas);
+        if (!variacoes.isEmpty()) {
+            eventPublisher.publishEvent(variacoes.evento());
+        }
+    }
+
+    /** Chaves do lote que já estão gravadas, por chave. */
+    private Map<String, ChaveGravada> buscarChaves(List<Pedido> lote) {
+        Set<String> chaves = new LinkedHashSet<>();
+        lote.forEach(pedido -> {
+            if (pedido.chave != null) {
+                chaves.add(pedido.chave.chave());
+            }
+        });
+        return idempotenciaService.buscarNoBanco(chaves);
+    }
+
+    /** Movimentações geradas pelas chaves já gravadas, por id. */
+    private Map<Long, Movimentacao> carregarOriginais(Collection<ChaveGravada> gravadas) {
+        if (gravadas.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = gravadas.stream().map(ChaveGravada::movimentacaoId).toList();
+        Map<Long, Movimentacao> porId = new HashMap<>();
+        movimentacaoRepository.findAllById(ids).forEach(original -> {
+            // A resposta sai depois do commit: conta e titular precisam estar carregados
+            Hibernate.initialize(original.getConta());
+            Hibernate.initialize(original.getConta().getUsuario());
+            porId.put(original.getId(), original);
+        });
+        return porId;
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            worker.join(5000);
+        }
+    }
+
+    private static final class Pedido {
+        private final Movimentacao movimentacao;
+        private final ChaveIdempotente chave;
+        private final CompletableFuture<Movimentacao> resultado = new CompletableFuture<>();
+        private boolean aceito;
+        private RuntimeException erro;
+        // Movimentação já gravada antes com a mesma chave
+        private Movimentacao original;
+        // Pedido anterior do mesmo lote com a mesma chave
+        private Pedido repeticaoDe;
+
+        private Pedido(Movimentacao movimentacao, ChaveIdempotente chave) {
+            this.movimentacao = movimentacao;
+            this.chave = chave;
+        }
+
+        /** Desfaz o que a tentativa anterior deixou no pedido, antes de regravar o lote. */
+        private void reiniciar() {
+            aceito = false;
+            erro = null;
+            original = null;
+            repeticaoDe = null;
+            // O id gerado no INSERT que sofreu rollback faria o saveAll tentar um merge
+            movimentacao.setId(null);
+        }
+
+        private void concluir() {
+            if (repeticaoDe != null) {
+                repeticaoDe.concluirComo(resultado);
+            } else if (original != null) {
+                resultado.complete(original);
+            } else {
+                concluirComo(resultado);
+            }
+        }
+
+        private void concluirComo(CompletableFuture<Movimentacao> resultado) {
+            if (erro != null) {
+                resultado.completeExceptionally(erro);
+            } else {
+                resultado.complete(aceito ? movimentacao : null);
+            }
+        }
+    }
+}
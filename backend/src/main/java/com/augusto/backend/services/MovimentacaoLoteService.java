@@ -0,0 +1,160 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.dto.MovimentacaoLoteResultadoDTO;
+import com.augusto.backend.dto.MovimentacaoRequestDTO;
+import com.augusto.backend.repository.ContaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grava lotes grandes de movimentações (carga noturna). Cada bloco de
+ * {@code app.movimentacao.lote.tamanho-bloco} itens é uma transação: as contas
+ * do bloco são travadas uma vez, os saldos são validados e somados em memória,
+ * cada conta recebe um único UPDATE e as movimentações entram por JDBC batch.
+ */
+@Service
+public class MovimentacaoLoteService {
+
+    private static final String INSERT_MOVIMENTACAO =
+            "INSERT INTO movimentacoes (tipo, valor, data, conta_id) VALUES (?, ?, ?, ?)";
+
+    private final ContaRepository contaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JournalEngine journalEngine;
+    private final int tamanhoBloco;
+    private final Counter saldoInsuficiente;
+
+    public MovimentacaoLoteService(ContaRepository contaRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Nullable JournalEngine journalEngine,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.movimentacao.lote.tamanho-bloco:5000}") int tamanhoBloco) {
+        this.contaRepository = contaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.journalEngine = journalEngine;
+        this.tamanhoBloco = tamanhoBloco;
+        this.saldoInsuficiente = Counter.builder("banco.movimentacao.saldo.insuficiente")
+                .description("Saques recusados por saldo insuficiente")
+                .tag("origem", "lote")
+                .register(meterRegistry);
+    }
+
+    public List<MovimentacaoLoteResultadoDTO> salvarLote(List<MovimentacaoRequestDTO> itens) {
+        if (itens == null || itens.isEmpty()) {
+            throw new IllegalArgumentException("Lote de movimentações vazio");
+        }
+
+        MovimentacaoLoteResultadoDTO[] resultados = new MovimentacaoLoteResultadoDTO[itens.size()];
+        for (int inicio = 0; inicio < itens.size(); inicio += tamanhoBloco) {
+            int fim = Math.min(inicio + tamanhoBloco, itens.size());
+            int offset = inicio;
+            List<MovimentacaoRequestDTO> bloco = itens.subList(inicio, fim);
+            try {
+                // No modo journal, espera a drenagem das contas do bloco antes de travá-las no banco
+                JournalEngine.sincronizado(journalEngine, contaIds(bloco), () -> {
+                    transactionTemplate.executeWithoutResult(status -> gravarBloco(bloco, offset, resultados));
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                for (int i = inicio; i < fim; i++) {
+                    resultados[i] = new MovimentacaoLoteResultadoDTO(i, false, "Falha ao gravar o bloco: " + e.getMessage());
+                }
+            }
+        }
+        return Arrays.asList(resultados);
+    }
+
+    private static Set<Long> contaIds(List<MovimentacaoRequestDTO> bloco) {
+        Set<Long> contaIds = new LinkedHashSet<>();
+        for (MovimentacaoRequestDTO item : bloco) {
+            if (item != null && item.getContaId() != null) {
+                contaIds.add(item.getContaId());
+            }
+        }
+        return contaIds;
+    }
+
+    private void gravarBloco(List<MovimentacaoRequestDTO> bloco, int offset, MovimentacaoLoteResultadoDTO[] resultados) {
+        Set<Long> contaIds = contaIds(bloco);
+        Map<Long, Conta> contas = new HashMap<>();
+        if (!contaIds.isEmpty()) {
+            contaRepository.findAllByIdParaAtualizacao(contaIds).forEach(conta -> contas.put(conta.getId(), conta));
+        }
+
+        List<Object[]> inserts = new ArrayList<>(bloco.size());
+        MovimentacoesRegistradasEvent.Acumulador variacoes = new MovimentacoesRegistradasEvent.Acumulador();
+        for (int i = 0; i < bloco.size(); i++) {
+            int indice = offset + i;
+            MovimentacaoRequestDTO item = bloco.get(i);
+            String erro = validar(item);
+            if (erro != null) {
+                resultados[indice] = new MovimentacaoLoteResultadoDTO(indice, false, erro);
+                continue;
+            }
+
+            Conta conta = contas.get(item.getContaId());
+            if (conta == null) {
+                resultados[indice] = new MovimentacaoLoteResultadoDTO(indice, false, "Conta não encontrada");
+                continue;
+            }
+            if (item.getTipo() == TipoMovimentacao.SAQUE && conta.getSaldo().compareTo(item.getValor()) < 0) {
+                saldoInsuficiente.increment();
+                resultados[indice] = new MovimentacaoLoteResultadoDTO(indice, false, "Saldo insuficiente");
+                continue;
+            }
+
+            // A conta está gerenciada e travada: o saldo final de cada conta vira um único UPDATE no commit
+            BigDecimal valor = item.getTipo().comSinal(item.getValor());
+            conta.setSaldo(conta.getSaldo().add(valor));
+            variacoes.somar(conta.getId(), item.getData(), valor);
+            inserts.add(new Object[] {item.getTipo().name(), item.getValor(), Date.valueOf(item.getData()), conta.getId()});
+            resultados[indice] = new MovimentacaoLoteResultadoDTO(indice, true, null);
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_MOVIMENTACAO, inserts);
+            eventPublisher.publishEvent(variacoes.evento());
+        }
+    }
+
+    private String validar(MovimentacaoRequestDTO item) {
+        if (item == null || item.getContaId() == null) {
+            return "ID da conta é obrigatório";
+        }
+        if (item.getTipo() == null) {
+            return "Tipo da movimentação é obrigatório";
+        }
+        if (item.getValor() == null || item.getValor().compareTo(BigDecimal.ZERO) <= 0) {
+            return "Valor deve ser positivo";
+        }
+        if (item.getData() == null) {
+            return "Data é obrigatória";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,134 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.domain.MovimentacaoRecorrente;
+import com.augusto.backend.dto.MovimentacaoRecorrenteRequestDTO;
+import com.augusto.backend.exception.ResourceNotFoundException;
+import com.augusto.backend.repository.MovimentacaoRecorrenteRepository;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Cadastro das movimentações recorrentes. Cada gravação é sua própria
+ * transação (a do repositório) e só depois do commit a nova próxima execução
+ * é passada ao {@link AgendadorRecorrencias}, que no disparo relê a
+ * recorrência.
+ */
+@Service
+public class MovimentacaoRecorrenteService {
+
+    private final MovimentacaoRecorrenteRepository recorrenteRepository;
+    private final ContaService contaService;
+    private final AgendadorRecorrencias agendador;
+
+    public MovimentacaoRecorrenteService(MovimentacaoRecorrenteRepository recorrenteRepository,
+                                         ContaService contaService,
+                                         AgendadorRecorrencias agendador) {
+        this.recorrenteRepository = recorrenteRepository;
+        this.contaService = contaService;
+        this.agendador = agendador;
+    }
+
+    public List<MovimentacaoRecorrente> findByContaId(Long contaId) {
+        if (contaId == null || contaId <= 0) {
+            throw new IllegalArgumentException("ID da conta deve ser um número positivo");
+        }
+        return recorrenteRepository.findByContaIdOrderById(contaId);
+    }
+
+    public MovimentacaoRecorrente findByIdOrThrow(Long id) {
+        return recorrenteRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Movimentação recorrente não encontrada com ID: " + id));
+    }
+
+    public MovimentacaoRecorrente criar(MovimentacaoRecorrenteRequestDTO request) {
+        validar(request);
+        if (request.getContaId() == null) {
+            throw new IllegalArgumentException("ID da conta é obrigatório");
+        }
+        contaService.findByIdOrThrow(request.getContaId());
+
+        LocalDateTime inicio = request.getInicio().truncatedTo(ChronoUnit.SECONDS);
+        MovimentacaoRecorrente recorrente = new MovimentacaoRecorrente(null, request.getContaId(), request.getTipo(),
+                request.getValor(), request.getPeriodicidade(), inicio, request.getFim(),
+                !Boolean.FALSE.equals(request.getAtiva()), 0, inicio, null);
+        return agendar(recorrenteRepository.save(recorrente));
+    }
+
+    /**
+     * Altera tipo, valor, periodicidade, início, fim e situação. Mudar o início
+     * ou a periodicidade recomeça a contagem a partir do novo início; retomar
+     * uma recorrência pausada pula as ocorrências que passaram durante a pausa.
+     */
+    public MovimentacaoRecorrente atualizar(Long id, MovimentacaoRecorrenteRequestDTO request) {
+        validar(request);
+        MovimentacaoRecorrente recorrente = findByIdOrThrow(id);
+        if (request.getContaId() != null && !request.getContaId().equals(recorrente.getContaId())) {
+            throw new IllegalArgumentException("A conta de uma movimentação recorrente não pode ser alterada");
+        }
+
+        LocalDateTime inicio = request.getInicio().truncatedTo(ChronoUnit.SECONDS);
+        boolean estavaAtiva = recorrente.isAtiva();
+        recorrente.setTipo(request.getTipo());
+        recorrente.setValor(request.getValor());
+        recorrente.setFim(request.getFim());
+        recorrente.setAtiva(request.getAtiva() != null ? request.getAtiva() : estavaAtiva);
+        if (!inicio.equals(recorrente.getInicio()) || request.getPeriodicidade() != recorrente.getPeriodicidade()) {
+            recorrente.setInicio(inicio);
+            recorrente.setPeriodicidade(request.getPeriodicidade());
+            recorrente.setExecucoes(0);
+            recorrente.setProximaExecucao(inicio);
+        } else if (!estavaAtiva && recorrente.isAtiva()) {
+            LocalDateTime agora = LocalDateTime.now();
+            while (recorrente.getProximaExecucao().isBefore(agora)) {
+                recorrente.avancar();
+            }
+            recorrente.setAtiva(true);
+        }
+        if (recorrente.getFim() != null && recorrente.getProximaExecucao().toLocalDate().isAfter(recorrente.getFim())) {
+            recorrente.setAtiva(false);
+        }
+        return agendar(recorrenteRepository.save(recorrente));
+    }
+
+    public void deleteById(Long id) {
+        if (!recorrenteRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Movimentação recorrente não encontrada com ID: " + id);
+        }
+        // Uma entrada que já esteja no agendador é ignorada no disparo
+        recorrenteRepository.deleteById(id);
+    }
+
+    private MovimentacaoRecorrente agendar(MovimentacaoRecorrente recorrente) {
+        if (recorrente.isAtiva()) {
+            agendador.reagendar(recorrente.getId(), recorrente.getProximaExecucao());
+        }
+        return recorrente;
+    }
+
+    private static void validar(MovimentacaoRecorrenteRequestDTO request) {
+        if (request == null || request.getTipo() == null) {
+            throw new IllegalArgumentException("Tipo da movimentação é obrigatório");
+        }
+        if (request.getValor() == null || request.getValor().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Valor deve ser positivo");
+        }
+        if (request.getPeriodicidade() == null) {
+            throw new IllegalArgumentException("Periodicidade é obrigatória");
+        }
+        if (request.getInicio() == null) {
+            throw new IllegalArgumentException("Início é obrigatório");
+        }
+        // Ocorrências no passado seriam lançadas retroativamente de uma vez
+        if (request.getInicio().toLocalDate().isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Início não pode ser anterior a hoje");
+        }
+        if (request.getFim() != null && request.getFim().isBefore(request.getInicio().toLocalDate())) {
+            throw new IllegalArgumentException("Fim não pode ser anterior ao início");
+        }
+    }
+}
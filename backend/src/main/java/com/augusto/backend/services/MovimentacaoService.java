@@ -3,82 +3,494 @@ package com.augusto.backend.services;
 import com.augusto.backend.domain.Conta;
 import com.augusto.backend.domain.Movimentacao;
 import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.domain.MovimentacaoArquivada;
+import com.augusto.backend.dto.ExtratoPaginaDTO;
+import com.augusto.backend.dto.MovimentacaoDTO;
+import com.augusto.backend.dto.TransferenciaDTO;
+import com.augusto.backend.exception.IdempotenciaConflitanteException;
+import com.augusto.backend.exception.ResourceNotFoundException;
+import com.augusto.backend.exception.SaldoInsuficienteException;
 import com.augusto.backend.repository.ContaRepository;
+import com.augusto.backend.repository.MovimentacaoArquivadaRepository;
 import com.augusto.backend.repository.MovimentacaoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class MovimentacaoService {
 
+    private static final LocalDate DATA_MINIMA_EXTRATO = LocalDate.of(1900, 1, 1);
+    private static final LocalDate DATA_MAXIMA_EXTRATO = LocalDate.of(9999, 12, 31);
+    private static final int LIMITE_MAXIMO_EXTRATO = 500;
+    private static final int TENTATIVAS_TRANSFERENCIA = 3;
+
+    // Ordem do extrato: mais recente primeiro
+    private static final Comparator<MovimentacaoDTO> ORDEM_EXTRATO = Comparator
+            .comparing(MovimentacaoDTO::getData).thenComparing(MovimentacaoDTO::getId).reversed();
+
     private final MovimentacaoRepository movimentacaoRepository;
+    private final MovimentacaoArquivadaRepository movimentacaoArquivadaRepository;
+    private final ArquivamentoService arquivamentoService;
     private final ContaRepository contaRepository;
+    private final ContaService contaService;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerEngine ledgerEngine;
+    private final JournalEngine journalEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IdempotenciaService idempotenciaService;
+    private final Timer tempoLancamento;
+    private final Timer tempoTransferencia;
+    private final Counter saldoInsuficiente;
 
-    MovimentacaoService (MovimentacaoRepository movimentacaoRepository, ContaRepository contaRepository, ContaService contaService) {
+    MovimentacaoService (MovimentacaoRepository movimentacaoRepository, MovimentacaoArquivadaRepository movimentacaoArquivadaRepository,
+                         ArquivamentoService arquivamentoService, ContaRepository contaRepository, ContaService contaService,
+                         PlatformTransactionManager transactionManager, @Nullable LedgerEngine ledgerEngine,
+                         @Nullable JournalEngine journalEngine,
+                         ApplicationEventPublisher eventPublisher, IdempotenciaService idempotenciaService,
+                         MeterRegistry meterRegistry) {
         this.movimentacaoRepository = movimentacaoRepository;
+        this.movimentacaoArquivadaRepository = movimentacaoArquivadaRepository;
+        this.arquivamentoService = arquivamentoService;
         this.contaRepository = contaRepository;
+        this.contaService = contaService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ledgerEngine = ledgerEngine;
+        this.journalEngine = journalEngine;
+        this.eventPublisher = eventPublisher;
+        this.idempotenciaService = idempotenciaService;
+        String modo = ledgerEngine != null ? "ledger" : journalEngine != null ? "journal" : "direto";
+        this.tempoLancamento = Timer.builder("banco.movimentacao.lancamento")
+                .description("Tempo de MovimentacaoService.save, incluindo a espera pelo lote no modo ledger")
+                .tag("modo", modo)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.tempoTransferencia = Timer.builder("banco.movimentacao.transferencia")
+                .description("Tempo de MovimentacaoService.transferir, incluindo as novas tentativas")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.saldoInsuficiente = Counter.builder("banco.movimentacao.saldo.insuficiente")
+                .description("Saques recusados por saldo insuficiente")
+                .tag("origem", modo)
+                .register(meterRegistry);
     }
+    // As leituras sem intervalo de datas incluem movimentacoes_arquivo quando já houve
+    // arquivamento (ver ArquivamentoService); movimentações arquivadas são somente leitura
+    @Transactional(readOnly = true)
     public List<Movimentacao> findAll() {
-        return movimentacaoRepository.findAll();
+        List<Movimentacao> movimentacoes = movimentacaoRepository.findAll();
+        return arquivamentoService.precisaDoArquivo(null)
+                ? unir(movimentacaoArquivadaRepository.findAll(), movimentacoes)
+                : movimentacoes;
     }
+    @Transactional(readOnly = true)
     public Optional<Movimentacao> findById(Long id) {
-        return movimentacaoRepository.findById(id);
+        Optional<Movimentacao> movimentacao = movimentacaoRepository.findById(id);
+        if (movimentacao.isEmpty() && arquivamentoService.precisaDoArquivo(null)) {
+            return movimentacaoArquivadaRepository.findById(id).map(MovimentacaoArquivada::paraMovimentacao);
+        }
+        return movimentacao;
     }
+    @Transactional(readOnly = true)
     public List<Movimentacao> findByContaId(Long contaId) {
-        return movimentacaoRepository.findByContaId(contaId);
+        List<Movimentacao> movimentacoes = movimentacaoRepository.findByContaId(contaId);
+        return arquivamentoService.precisaDoArquivo(null)
+                ? unir(movimentacaoArquivadaRepository.findByContaId(contaId), movimentacoes)
+                : movimentacoes;
     }
 
-    @Transactional
+    /** Listagem com conta e titular resumidos, numa única consulta. */
+    @Transactional(readOnly = true)
+    public List<MovimentacaoDTO> listarMovimentacoes() {
+        List<MovimentacaoDTO> movimentacoes = movimentacaoRepository.listarTodas();
+        return arquivamentoService.precisaDoArquivo(null)
+                ? unirPorId(movimentacaoArquivadaRepository.listarTodas(), movimentacoes)
+                : movimentacoes;
+    }
+
+    @Transactional(readOnly = true)
+    public List<MovimentacaoDTO> listarMovimentacoesDaConta(Long contaId) {
+        List<MovimentacaoDTO> movimentacoes = movimentacaoRepository.listarPorConta(contaId);
+        return arquivamentoService.precisaDoArquivo(null)
+                ? unirPorId(movimentacaoArquivadaRepository.listarPorConta(contaId), movimentacoes)
+                : movimentacoes;
+    }
+
+    private static List<Movimentacao> unir(List<MovimentacaoArquivada> arquivadas, List<Movimentacao> atuais) {
+        List<Movimentacao> todas = new ArrayList<>(arquivadas.size() + atuais.size());
+        arquivadas.forEach(m -> todas.add(m.paraMovimentacao()));
+        todas.addAll(atuais);
+        return todas;
+    }
+
+    private static List<MovimentacaoDTO> unirPorId(List<MovimentacaoDTO> arquivadas, List<MovimentacaoDTO> atuais) {
+        List<MovimentacaoDTO> todas = new ArrayList<>(arquivadas.size() + atuais.size());
+        todas.addAll(arquivadas);
+        todas.addAll(atuais);
+        todas.sort(Comparator.comparing(MovimentacaoDTO::getId));
+        return todas;
+    }
+
+    /**
+     * Página do extrato, da movimentação mais recente para a mais antiga. O
+     * cursor guarda (data, id) da última linha devolvida, então cada página é
+     * uma busca por faixa no índice (conta_id, data, id) e o custo não cresce
+     * com o tamanho do histórico.
+     */
+    @Transactional(readOnly = true)
+    public ExtratoPaginaDTO findExtrato(Long contaId, LocalDate de, LocalDate ate, int limite, String cursor) {
+        if (contaId == null || contaId <= 0) {
+            throw new IllegalArgumentException("ID da conta deve ser um número positivo");
+        }
+        if (limite <= 0 || limite > LIMITE_MAXIMO_EXTRATO) {
+            throw new IllegalArgumentException("Limite deve estar entre 1 e " + LIMITE_MAXIMO_EXTRATO);
+        }
+        LocalDate inicio = de != null ? de : DATA_MINIMA_EXTRATO;
+        LocalDate fim = ate != null ? ate : DATA_MAXIMA_EXTRATO;
+        if (inicio.isAfter(fim)) {
+            throw new IllegalArgumentException("Data inicial não pode ser posterior à data final");
+        }
+
+        // Busca uma linha a mais só para saber se existe próxima página
+        Limit limit = Limit.of(limite + 1);
+        List<MovimentacaoDTO> movimentacoes;
+        LocalDate cursorData = null;
+        Long cursorId = null;
+        if (cursor == null || cursor.isBlank()) {
+            movimentacoes = movimentacaoRepository.findExtrato(contaId, inicio, fim, limit);
+        } else {
+            String[] posicao = decodificarCursor(cursor);
+            cursorData = LocalDate.parse(posicao[0]);
+            cursorId = Long.valueOf(posicao[1]);
+            movimentacoes = movimentacaoRepository.findExtratoAposCursor(contaId, inicio, fim, cursorData, cursorId, limit);
+        }
+
+        // Intervalo que começa antes do limite do arquivo: a mesma página também no arquivo,
+        // mesclada na ordem do extrato. Extratos recentes não chegam a consultar o arquivo.
+        if (arquivamentoService.precisaDoArquivo(inicio)) {
+            List<MovimentacaoDTO> arquivadas = cursorData == null
+                    ? movimentacaoArquivadaRepository.findExtrato(contaId, inicio, fim, limit)
+                    : movimentacaoArquivadaRepository.findExtratoAposCursor(contaId, inicio, fim, cursorData, cursorId, limit);
+            if (!arquivadas.isEmpty()) {
+                List<MovimentacaoDTO> mescladas = new ArrayList<>(movimentacoes);
+                mescladas.addAll(arquivadas);
+                mescladas.sort(ORDEM_EXTRATO);
+                movimentacoes = mescladas.size() > limite + 1 ? mescladas.subList(0, limite + 1) : mescladas;
+            }
+        }
+
+        String proximoCursor = null;
+        if (movimentacoes.size() > limite) {
+            movimentacoes = new ArrayList<>(movimentacoes.subList(0, limite));
+            proximoCursor = codificarCursor(movimentacoes.get(limite - 1));
+        }
+        return new ExtratoPaginaDTO(movimentacoes, proximoCursor);
+    }
+
+    private String codificarCursor(MovimentacaoDTO ultima) {
+        String posicao = ultima.getData() + "_" + ultima.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(posicao.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodificarCursor(String cursor) {
+        try {
+            String[] posicao = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("_");
+            if (posicao.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            LocalDate.parse(posicao[0]);
+            Long.parseLong(posicao[1]);
+            return posicao;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    /**
+     * Com {@code app.movimentacao.modo=ledger} a movimentação é entregue ao
+     * {@link LedgerEngine} e com {@code journal} ao {@link JournalEngine} (que
+     * devolve a movimentação ainda sem id); caso contrário é gravada aqui, numa
+     * transação própria. A transação não é aberta nesses modos para não segurar
+     * uma conexão enquanto o lote é montado.
+     */
     public Movimentacao save(Movimentacao movimentacao) {
-        Optional<Conta> optionalConta = contaRepository.findById(movimentacao.getConta().getId());
-        if (optionalConta.isPresent()) {
-            Conta conta = optionalConta.get();
-            BigDecimal saldoAtual = conta.getSaldo();
-            if (movimentacao.getTipo() == TipoMovimentacao.DEPOSITO) {
-                saldoAtual = saldoAtual.add(movimentacao.getValor());
-            } else if (movimentacao.getTipo() == TipoMovimentacao.SAQUE) {
-                if (saldoAtual.compareTo(movimentacao.getValor()) < 0) {
-                    throw new RuntimeException("Saldo insuficiente");
+        return save(movimentacao, null);
+    }
+
+    /**
+     * Como {@link #save(Movimentacao)}, mas com uma chave de idempotência: se a
+     * chave já gerou uma movimentação, devolve essa movimentação sem lançar de
+     * novo. A chave é gravada na mesma transação do lançamento; se uma tentativa
+     * concorrente com a mesma chave fizer commit antes, esta é desfeita e também
+     * devolve a original. Lançamentos recusados (saldo insuficiente, conta
+     * inexistente) não gravam a chave e podem ser repetidos.
+     */
+    public Movimentacao save(Movimentacao movimentacao, @Nullable String chaveIdempotencia) {
+        return save(movimentacao, chaveIdempotencia, null);
+    }
+
+    /**
+     * Como {@link #save(Movimentacao, String)}, guardando com a chave o usuário
+     * que fez a requisição. A chave só devolve a original para o mesmo usuário
+     * e o mesmo corpo; repeti-la com outros dados lança
+     * IdempotenciaConflitanteException (422).
+     */
+    public Movimentacao save(Movimentacao movimentacao, @Nullable String chaveIdempotencia, @Nullable String usuario) {
+        ChaveIdempotente chave = null;
+        if (chaveIdempotencia != null) {
+            IdempotenciaService.validar(chaveIdempotencia);
+            chave = ChaveIdempotente.de(chaveIdempotencia, usuario, movimentacao);
+            Optional<Movimentacao> original = buscarPorChave(chave);
+            if (original.isPresent()) {
+                return original.get();
+            }
+        }
+
+        Timer.Sample inicio = Timer.start();
+        try {
+            if (ledgerEngine != null) {
+                return ledgerEngine.postar(movimentacao, chave);
+            }
+            if (journalEngine != null) {
+                return journalEngine.postar(movimentacao, chave);
+            }
+            ChaveIdempotente chaveFinal = chave;
+            return transactionTemplate.execute(status -> {
+                Movimentacao salva = postar(movimentacao);
+                if (salva != null && chaveFinal != null) {
+                    idempotenciaService.registrar(Map.of(chaveFinal, salva.getId()));
+                }
+                return salva;
+            });
+        } catch (DuplicateKeyException e) {
+            if (chave == null) {
+                throw e;
+            }
+            return buscarPorChave(chave).orElseThrow(() -> e);
+        } catch (SaldoInsuficienteException e) {
+            saldoInsuficiente.increment();
+            throw e;
+        } finally {
+            inicio.stop(tempoLancamento);
+        }
+    }
+
+    /**
+     * Movimentação gerada pela chave, incluindo as arquivadas. Se ela foi excluída,
+     * a chave continua gravada e o lançamento não pode ser repetido com ela:
+     * lança IdempotenciaConflitanteException (422).
+     */
+    private Optional<Movimentacao> buscarPorChave(ChaveIdempotente chave) {
+        Optional<Long> movimentacaoId = idempotenciaService.buscar(chave);
+        if (movimentacaoId.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(findById(movimentacaoId.get())
+                .orElseThrow(() -> IdempotenciaConflitanteException.movimentacaoExcluida(chave.chave())));
+    }
+
+    /**
+     * O saldo é alterado por um UPDATE condicional (ver
+     * {@link ContaRepository#debitarSeHouverSaldo}), de modo que depósitos e
+     * saques concorrentes na mesma conta não se sobrescrevem e a checagem de
+     * saldo insuficiente não depende de uma leitura anterior.
+     */
+    private Movimentacao postar(Movimentacao movimentacao) {
+        Long contaId = movimentacao.getConta().getId();
+        BigDecimal valor = movimentacao.getValor();
+        if (movimentacao.getTipo() == TipoMovimentacao.DEPOSITO) {
+            if (contaRepository.ajustarSaldo(contaId, valor) == 0) {
+                return null;
+            }
+        } else if (movimentacao.getTipo() == TipoMovimentacao.SAQUE) {
+            if (contaRepository.debitarSeHouverSaldo(contaId, valor) == 0) {
+                if (!contaRepository.existsById(contaId)) {
+                    return null;
                 }
-                saldoAtual = saldoAtual.subtract(movimentacao.getValor());
+                throw new SaldoInsuficienteException();
             }
-            conta.setSaldo(saldoAtual);
-            contaRepository.save(conta);
-            return movimentacaoRepository.save(movimentacao);
+        }
+        contaService.descartarDoCache(contaId);
+        Optional<Conta> optionalConta = contaRepository.findByIdSemCache(contaId);
+        if (optionalConta.isPresent()) {
+            movimentacao.setConta(optionalConta.get());
+            Movimentacao salva = movimentacaoRepository.save(movimentacao);
+            eventPublisher.publishEvent(MovimentacoesRegistradasEvent.de(contaId, salva.getData(),
+                    salva.getTipo().comSinal(salva.getValor())));
+            return salva;
         }
         return null;
     }
 
-    @Transactional
+    /**
+     * Transfere {@code valor} da conta de origem para a de destino numa única
+     * transação: um SAQUE na origem e um DEPOSITO no destino, ligados pelo mesmo
+     * transferenciaId. As duas contas são travadas juntas e na ordem do id (ver
+     * {@link ContaRepository#findAllByIdParaAtualizacao}), então transferências
+     * cruzadas entre as mesmas contas esperam umas pelas outras em vez de entrar
+     * em deadlock. O lock é mantido só pelos INSERTs e UPDATEs da transferência.
+     *
+     * <p>Transferências não passam pelo {@link LedgerEngine}: as duas contas
+     * podem estar em workers diferentes. Como o ledger também trava as contas na
+     * ordem do id, os dois caminhos convivem sem deadlock entre eles. Um deadlock
+     * ainda pode vir dos índices de movimentacoes e saldos_diarios; nesse caso a
+     * transferência inteira é repetida algumas vezes.
+     */
+    public TransferenciaDTO transferir(Long contaOrigemId, Long contaDestinoId, BigDecimal valor, LocalDate data) {
+        if (contaOrigemId == null || contaOrigemId <= 0 || contaDestinoId == null || contaDestinoId <= 0) {
+            throw new IllegalArgumentException("ID da conta deve ser um número positivo");
+        }
+        if (contaOrigemId.equals(contaDestinoId)) {
+            throw new IllegalArgumentException("Conta de origem e de destino devem ser diferentes");
+        }
+        if (valor == null || valor.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Valor deve ser positivo");
+        }
+        if (data == null) {
+            throw new IllegalArgumentException("Data é obrigatória");
+        }
+
+        String transferenciaId = UUID.randomUUID().toString();
+        Timer.Sample inicio = Timer.start();
+        try {
+            return JournalEngine.sincronizado(journalEngine, List.of(contaOrigemId, contaDestinoId), () -> {
+                for (int tentativa = 1; ; tentativa++) {
+                    try {
+                        return transactionTemplate.execute(status ->
+                                gravarTransferencia(transferenciaId, contaOrigemId, contaDestinoId, valor, data));
+                    } catch (PessimisticLockingFailureException e) {
+                        if (tentativa >= TENTATIVAS_TRANSFERENCIA) {
+                            throw e;
+                        }
+                    }
+                }
+            });
+        } catch (SaldoInsuficienteException e) {
+            saldoInsuficiente.increment();
+            throw e;
+        } finally {
+            inicio.stop(tempoTransferencia);
+        }
+    }
+
+    private TransferenciaDTO gravarTransferencia(String transferenciaId, Long contaOrigemId, Long contaDestinoId,
+                                                 BigDecimal valor, LocalDate data) {
+        Map<Long, Conta> contas = new HashMap<>();
+        contaRepository.findAllByIdParaAtualizacao(List.of(contaOrigemId, contaDestinoId))
+                .forEach(conta -> contas.put(conta.getId(), conta));
+        Conta origem = contas.get(contaOrigemId);
+        Conta destino = contas.get(contaDestinoId);
+        if (origem == null || destino == null) {
+            Long ausente = origem == null ? contaOrigemId : contaDestinoId;
+            throw new ResourceNotFoundException("Conta não encontrada com ID: " + ausente);
+        }
+        if (origem.getSaldo().compareTo(valor) < 0) {
+            throw new SaldoInsuficienteException();
+        }
+
+        // As contas estão gerenciadas e travadas: os novos saldos viram dois UPDATEs no commit
+        origem.setSaldo(origem.getSaldo().subtract(valor));
+        destino.setSaldo(destino.getSaldo().add(valor));
+        Movimentacao debito = new Movimentacao(null, TipoMovimentacao.SAQUE, valor, data, origem, transferenciaId);
+        Movimentacao credito = new Movimentacao(null, TipoMovimentacao.DEPOSITO, valor, data, destino, transferenciaId);
+        movimentacaoRepository.saveAll(List.of(debito, credito));
+
+        MovimentacoesRegistradasEvent.Acumulador variacoes = new MovimentacoesRegistradasEvent.Acumulador();
+        variacoes.somar(contaOrigemId, data, valor.negate());
+        variacoes.somar(contaDestinoId, data, valor);
+        eventPublisher.publishEvent(variacoes.evento());
+
+        // Convertido ainda dentro da transação, com a sessão aberta para o titular lazy
+        return new TransferenciaDTO(transferenciaId, MovimentacaoDTO.de(debito), MovimentacaoDTO.de(credito));
+    }
+
     public void deleteById(Long id) {
+        // A conta de uma movimentação não muda: lida antes, serve para travar e esperar a
+        // drenagem do journal sem segurar uma conexão; a transação abre só depois
+        Optional<Long> contaId = movimentacaoRepository.findById(id).map(movimentacao -> movimentacao.getConta().getId());
+        if (contaId.isEmpty()) {
+            rejeitarSeArquivada(id);
+            return;
+        }
+        JournalEngine.sincronizado(journalEngine, List.of(contaId.get()), () -> {
+            transactionTemplate.executeWithoutResult(status -> excluir(id));
+            return null;
+        });
+    }
+
+    private void excluir(Long id) {
         Optional<Movimentacao> optionalMovimentacao = movimentacaoRepository.findById(id);
         if (optionalMovimentacao.isPresent()) {
             Movimentacao movimentacao = optionalMovimentacao.get();
-            Conta conta = movimentacao.getConta();
-            BigDecimal saldoAtual = conta.getSaldo();
-            if (movimentacao.getTipo() == TipoMovimentacao.DEPOSITO) {
-                saldoAtual = saldoAtual.subtract(movimentacao.getValor());
-            } else if (movimentacao.getTipo() == TipoMovimentacao.SAQUE) {
-                saldoAtual = saldoAtual.add(movimentacao.getValor());
+            if (movimentacao.getTransferenciaId() != null) {
+                throw new IllegalArgumentException("Movimentação de transferência não pode ser excluída isoladamente");
             }
-            conta.setSaldo(saldoAtual);
-            contaRepository.save(conta);
-            movimentacaoRepository.deleteById(id);
+            BigDecimal estorno = movimentacao.getTipo().comSinal(movimentacao.getValor()).negate();
+            Long contaId = movimentacao.getConta().getId();
+            movimentacaoRepository.delete(movimentacao);
+            contaRepository.ajustarSaldo(contaId, estorno);
+            contaService.descartarDoCache(contaId);
+            eventPublisher.publishEvent(MovimentacoesRegistradasEvent.de(contaId, movimentacao.getData(), estorno));
         }
     }
 
     @Transactional
     public Movimentacao update(Long id, Movimentacao movimentacaoDetails) {
+        if (movimentacaoDetails.getData() == null) {
+            throw new IllegalArgumentException("Data é obrigatória");
+        }
         Optional<Movimentacao> optionalMovimentacao = movimentacaoRepository.findById(id);
         if (optionalMovimentacao.isPresent()) {
             Movimentacao movimentacao = optionalMovimentacao.get();
+            LocalDate dataAnterior = movimentacao.getData();
             movimentacao.setData(movimentacaoDetails.getData());
-            return movimentacaoRepository.save(movimentacao);
+            Movimentacao salva = movimentacaoRepository.save(movimentacao);
+
+            if (!salva.getData().equals(dataAnterior)) {
+                // O saldo da conta não muda, mas o valor passa a contar em outro dia
+                Long contaId = salva.getConta().getId();
+                contaRepository.findAllByIdParaAtualizacao(List.of(contaId));
+                BigDecimal valor = salva.getTipo().comSinal(salva.getValor());
+                MovimentacoesRegistradasEvent.Acumulador variacoes = new MovimentacoesRegistradasEvent.Acumulador();
+                variacoes.somar(contaId, dataAnterior, valor.negate());
+                variacoes.somar(contaId, salva.getData(), valor);
+                eventPublisher.publishEvent(variacoes.evento());
+            }
+            return salva;
         }
+        rejeitarSeArquivada(id);
         return null;
     }
+
+    /**
+     * Movimentações arquivadas são somente leitura: sem esta checagem, excluir uma
+     * delas não faria nada e alterar responderia como se ela não existisse.
+     */
+    private void rejeitarSeArquivada(Long id) {
+        if (arquivamentoService.precisaDoArquivo(null) && movimentacaoArquivadaRepository.existsById(id)) {
+            throw new IllegalArgumentException("Movimentação arquivada não pode ser alterada nem excluída");
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.augusto.backend.services;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publicado, dentro da transação, sempre que movimentações alteram o saldo de
+ * contas: ao gravar, excluir ou mudar a data de uma movimentação, e nos
+ * caminhos em lote. Cada variação é o efeito líquido (já com sinal) numa conta
+ * em um dia.
+ */
+public record MovimentacoesRegistradasEvent(List<Variacao> variacoes) {
+
+    public record Variacao(Long contaId, LocalDate data, BigDecimal valor) {
+    }
+
+    public static MovimentacoesRegistradasEvent de(Long contaId, LocalDate data, BigDecimal valor) {
+        return new MovimentacoesRegistradasEvent(List.of(new Variacao(contaId, data, valor)));
+    }
+
+    /** Soma as variações por conta e dia antes de publicar o evento de um lote. */
+    public static final class Acumulador {
+        private record Chave(Long contaId, LocalDate data) {
+        }
+
+        private final Map<Chave, BigDecimal> totais = new LinkedHashMap<>();
+
+        public void somar(Long contaId, LocalDate data, BigDecimal valor) {
+            totais.merge(new Chave(contaId, data), valor, BigDecimal::add);
+        }
+
+        public boolean isEmpty() {
+            return totais.isEmpty();
+        }
+
+        public MovimentacoesRegistradasEvent evento() {
+            List<Variacao> variacoes = new ArrayList<>(totais.size());
+            totais.forEach((chave, total) -> variacoes.add(new Variacao(chave.contaId(), chave.data(), total)));
+            return new MovimentacoesRegistradasEvent(variacoes);
+        }
+    }
+}
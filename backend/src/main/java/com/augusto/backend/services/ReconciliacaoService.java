@@ -0,0 +1,241 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.dto.DivergenciaSaldoDTO;
+import com.augusto.backend.dto.ReconciliacaoResultadoDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Confere o saldo de cada conta contra a soma das suas movimentações e,
+ * opcionalmente, corrige as contas divergentes.
+ *
+ * <p>A faixa de ids das contas é dividida recursivamente num ForkJoinPool
+ * próprio ({@code app.reconciliacao.paralelismo} threads, cada uma com uma
+ * conexão) até faixas de {@code app.reconciliacao.tamanho-faixa} ids. Cada
+ * faixa é uma única consulta agregada, lida linha a linha, então a memória
+ * usada não depende do número de contas. Por ser um único SELECT, saldo e soma
+ * vêm do mesmo snapshot e um lançamento concorrente não aparece como
+ * divergência.
+ *
+ * <p>A correção trava a conta, recalcula a soma e só então grava o saldo
+ * calculado, de modo que não sobrescreve um lançamento feito depois da leitura.
+ * Uma reconciliação com correção segura o lock do arquivamento
+ * ({@link ArquivamentoService#semArquivamento}): durante um arquivamento, as
+ * linhas de uma partição ficam por um momento fora de movimentacoes e do
+ * arquivo, e a soma sairia menor.
+ */
+@Service
+public class ReconciliacaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliacaoService.class);
+
+    private static final String SOMA_MOVIMENTACOES = "COALESCE(SUM(CASE WHEN m.tipo = 'SAQUE' THEN -m.valor ELSE m.valor END), 0)";
+
+    private static final String SELECT_FAIXA =
+            "SELECT c.id, c.saldo, " + SOMA_MOVIMENTACOES + " AS calculado "
+            + "FROM contas c LEFT JOIN movimentacoes m ON m.conta_id = c.id "
+            + "WHERE c.id BETWEEN ? AND ? GROUP BY c.id, c.saldo";
+
+    // Parcela arquivada do saldo (ver ArquivamentoService), correlacionada à conta c
+    private static final String SOMA_ARQUIVADA =
+            "(SELECT " + SOMA_MOVIMENTACOES + " FROM movimentacoes_arquivo m WHERE m.conta_id = c.id)";
+
+    private static final String SELECT_FAIXA_COM_ARQUIVO =
+            "SELECT c.id, c.saldo, " + SOMA_MOVIMENTACOES + " + " + SOMA_ARQUIVADA + " AS calculado "
+            + "FROM contas c LEFT JOIN movimentacoes m ON m.conta_id = c.id "
+            + "WHERE c.id BETWEEN ? AND ? GROUP BY c.id, c.saldo";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ContaService contaService;
+    private final JournalEngine journalEngine;
+    private final ArquivamentoService arquivamentoService;
+    private final int paralelismo;
+    private final long tamanhoFaixa;
+    private final int maxDivergenciasListadas;
+    private final Counter divergenciasEncontradas;
+    private final AtomicBoolean emAndamento = new AtomicBoolean();
+
+    public ReconciliacaoService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ContaService contaService,
+                                @Nullable JournalEngine journalEngine,
+                                ArquivamentoService arquivamentoService,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.reconciliacao.paralelismo:4}") int paralelismo,
+                                @Value("${app.reconciliacao.tamanho-faixa:10000}") long tamanhoFaixa,
+                                @Value("${app.reconciliacao.max-divergencias-listadas:1000}") int maxDivergenciasListadas) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.contaService = contaService;
+        this.journalEngine = journalEngine;
+        this.arquivamentoService = arquivamentoService;
+        this.paralelismo = paralelismo;
+        this.tamanhoFaixa = tamanhoFaixa;
+        this.maxDivergenciasListadas = maxDivergenciasListadas;
+        this.divergenciasEncontradas = Counter.builder("banco.reconciliacao.divergencias")
+                .description("Contas cujo saldo não bate com a soma das movimentações")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa a reconciliação de todas as contas. Retorna vazio se já houver
+     * uma reconciliação em andamento ou, com {@code corrigir}, um arquivamento.
+     */
+    public Optional<ReconciliacaoResultadoDTO> reconciliar(boolean corrigir) {
+        if (!emAndamento.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            if (!corrigir) {
+                return Optional.of(executar(false));
+            }
+            Optional<ReconciliacaoResultadoDTO> resultado = arquivamentoService.semArquivamento(() -> executar(true));
+            if (resultado.isEmpty()) {
+                logger.info("Reconciliação com correção adiada: arquivamento de movimentações em andamento");
+            }
+            return resultado;
+        } finally {
+            emAndamento.set(false);
+        }
+    }
+
+    private ReconciliacaoResultadoDTO executar(boolean corrigir) {
+        long inicio = System.nanoTime();
+        Execucao execucao = new Execucao(corrigir);
+
+        Map<String, Object> limites = jdbcTemplate.queryForMap("SELECT MIN(id) AS menor, MAX(id) AS maior FROM contas");
+        if (limites.get("menor") != null) {
+            long menor = ((Number) limites.get("menor")).longValue();
+            long maior = ((Number) limites.get("maior")).longValue();
+            ForkJoinPool pool = new ForkJoinPool(paralelismo);
+            try {
+                pool.invoke(new Faixa(execucao, menor, maior));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+        ReconciliacaoResultadoDTO resultado = new ReconciliacaoResultadoDTO(execucao.verificadas.sum(),
+                execucao.encontradas.sum(), execucao.corrigidas.sum(), new ArrayList<>(execucao.listadas), duracaoMs);
+        logger.info("Reconciliação de saldos: {} contas verificadas, {} divergentes, {} corrigidas em {} ms",
+                resultado.getContasVerificadas(), resultado.getDivergenciasEncontradas(),
+                resultado.getDivergenciasCorrigidas(), duracaoMs);
+        return resultado;
+    }
+
+    private void verificarFaixa(Execucao execucao, long inicio, long fim) {
+        List<Long> divergentes = new ArrayList<>();
+        String selectFaixa = arquivamentoService.precisaDoArquivo(null) ? SELECT_FAIXA_COM_ARQUIVO : SELECT_FAIXA;
+        jdbcTemplate.query(selectFaixa, rs -> {
+            execucao.verificadas.increment();
+            BigDecimal saldo = rs.getBigDecimal("saldo");
+            BigDecimal calculado = rs.getBigDecimal("calculado");
+            if (saldo.compareTo(calculado) != 0) {
+                if (execucao.corrigir) {
+                    divergentes.add(rs.getLong("id"));
+                } else {
+                    execucao.registrar(new DivergenciaSaldoDTO(rs.getLong("id"), saldo, calculado, false));
+                }
+            }
+        }, inicio, fim);
+
+        // Fora da leitura: a correção usa outra conexão e trava a conta
+        for (Long contaId : divergentes) {
+            DivergenciaSaldoDTO divergencia = corrigir(contaId);
+            if (divergencia != null) {
+                execucao.registrar(divergencia);
+            }
+        }
+    }
+
+    /** Corrige a conta se ela ainda divergir com a linha travada; null se não diverge mais. */
+    private DivergenciaSaldoDTO corrigir(Long contaId) {
+        return JournalEngine.sincronizado(journalEngine, List.of(contaId), () -> transactionTemplate.execute(status -> {
+            List<BigDecimal> saldos = jdbcTemplate.queryForList(
+                    "SELECT saldo FROM contas WHERE id = ? FOR UPDATE", BigDecimal.class, contaId);
+            if (saldos.isEmpty()) {
+                return null;
+            }
+            String somaArquivada = arquivamentoService.precisaDoArquivo(null) ? " + " + SOMA_ARQUIVADA : "";
+            BigDecimal calculado = jdbcTemplate.queryForObject(
+                    "SELECT " + SOMA_MOVIMENTACOES + somaArquivada
+                    + " FROM contas c LEFT JOIN movimentacoes m ON m.conta_id = c.id WHERE c.id = ? GROUP BY c.id",
+                    BigDecimal.class, contaId);
+            if (saldos.get(0).compareTo(calculado) == 0) {
+                return null;
+            }
+            jdbcTemplate.update("UPDATE contas SET saldo = ? WHERE id = ?", calculado, contaId);
+            contaService.descartarDoCache(contaId);
+            logger.warn("Saldo da conta {} corrigido de {} para {}", contaId, saldos.get(0), calculado);
+            return new DivergenciaSaldoDTO(contaId, saldos.get(0), calculado, true);
+        }));
+    }
+
+    private final class Execucao {
+        private final boolean corrigir;
+        private final LongAdder verificadas = new LongAdder();
+        private final LongAdder encontradas = new LongAdder();
+        private final LongAdder corrigidas = new LongAdder();
+        private final ConcurrentLinkedQueue<DivergenciaSaldoDTO> listadas = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger quantidadeListada = new AtomicInteger();
+
+        private Execucao(boolean corrigir) {
+            this.corrigir = corrigir;
+        }
+
+        private void registrar(DivergenciaSaldoDTO divergencia) {
+            encontradas.increment();
+            divergenciasEncontradas.increment();
+            if (divergencia.isCorrigida()) {
+                corrigidas.increment();
+            }
+            if (quantidadeListada.incrementAndGet() <= maxDivergenciasListadas) {
+                listadas.add(divergencia);
+            }
+        }
+    }
+
+    private final class Faixa extends RecursiveAction {
+        private final Execucao execucao;
+        private final long inicio;
+        private final long fim;
+
+        private Faixa(Execucao execucao, long inicio, long fim) {
+            this.execucao = execucao;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio < tamanhoFaixa) {
+                verificarFaixa(execucao, inicio, fim);
+                return;
+            }
+            long meio = inicio + (fim - inicio) / 2;
+            invokeAll(new Faixa(execucao, inicio, meio), new Faixa(execucao, meio + 1, fim));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.dto.ResumoAnualDTO;
+import com.augusto.backend.dto.ResumoMensalDTO;
+import com.augusto.backend.services.MovimentacoesRegistradasEvent.Variacao;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Totais mensais de depósitos e saques de uma conta
+ * (GET /api/contas/{id}/resumo?ano=).
+ *
+ * <p>Cada mês é uma consulta agrupada por tipo sobre a faixa (conta_id, data)
+ * do índice idx_movimentacoes_conta_data_id, e o resultado fica em cache por
+ * conta e mês, sem expiração: um mês só é recalculado se alguma movimentação
+ * daquele mês for gravada, excluída ou mudar de data (ver {@link #descartar}),
+ * o que para meses fechados normalmente nunca acontece.
+ */
+@Service
+public class ResumoMensalService {
+
+    private static final String SELECT_TOTAIS_DO_MES =
+            "SELECT tipo, SUM(valor) AS total, COUNT(*) AS quantidade FROM movimentacoes "
+            + "WHERE conta_id = ? AND data >= ? AND data < ? GROUP BY tipo";
+
+    // Meses anteriores ao limite do arquivo: as linhas já arquivadas mais as retroativas
+    // gravadas depois na tabela principal. O arquivamento só move linhas, então os meses
+    // em cache continuam valendo.
+    private static final String SELECT_TOTAIS_DO_MES_COM_ARQUIVO =
+            "SELECT tipo, SUM(valor) AS total, COUNT(*) AS quantidade FROM ("
+            + "SELECT tipo, valor FROM movimentacoes WHERE conta_id = ? AND data >= ? AND data < ? "
+            + "UNION ALL SELECT tipo, valor FROM movimentacoes_arquivo WHERE conta_id = ? AND data >= ? AND data < ?"
+            + ") m GROUP BY tipo";
+
+    private record Chave(Long contaId, YearMonth mes) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ContaService contaService;
+    private final ArquivamentoService arquivamentoService;
+    private final Cache<Chave, ResumoMensalDTO> resumos;
+
+    public ResumoMensalService(JdbcTemplate jdbcTemplate,
+                               ContaService contaService,
+                               ArquivamentoService arquivamentoService,
+                               @Value("${app.resumo.cache.tamanho-maximo:100000}") long tamanhoMaximo) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.contaService = contaService;
+        this.arquivamentoService = arquivamentoService;
+        this.resumos = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .build();
+    }
+
+    public ResumoAnualDTO resumoDoAno(Long contaId, int ano) {
+        if (contaId == null || contaId <= 0) {
+            throw new IllegalArgumentException("ID da conta deve ser um número positivo");
+        }
+        if (ano < 1900 || ano > 9999) {
+            throw new IllegalArgumentException("Ano deve estar entre 1900 e 9999");
+        }
+        // Conferida a cada chamada, mesmo com o ano todo em cache: a exclusão de uma conta não
+        // descarta os meses dela (que ficam zerados, já que só conta sem movimentações é excluída)
+        // e a consulta normalmente sai do cache de segundo nível
+        contaService.findByIdOrThrow(contaId);
+        List<ResumoMensalDTO> meses = new ArrayList<>(12);
+        for (int mes = 1; mes <= 12; mes++) {
+            // get com a função de carga é atômico por chave: um descarte que chegue durante
+            // o cálculo espera ele terminar e então remove o valor, que pode estar velho
+            meses.add(resumos.get(new Chave(contaId, YearMonth.of(ano, mes)), this::calcular));
+        }
+        return new ResumoAnualDTO(contaId, ano, meses);
+    }
+
+    private ResumoMensalDTO calcular(Chave chave) {
+        ResumoMensalDTO resumo = new ResumoMensalDTO(chave.mes().getMonthValue(), BigDecimal.ZERO, 0, BigDecimal.ZERO, 0);
+        RowCallbackHandler totalizar = rs -> {
+            if ("SAQUE".equals(rs.getString("tipo"))) {
+                resumo.setTotalSaques(rs.getBigDecimal("total"));
+                resumo.setQuantidadeSaques(rs.getLong("quantidade"));
+            } else {
+                resumo.setTotalDepositos(rs.getBigDecimal("total"));
+                resumo.setQuantidadeDepositos(rs.getLong("quantidade"));
+            }
+        };
+        Date inicio = Date.valueOf(chave.mes().atDay(1));
+        Date fim = Date.valueOf(chave.mes().plusMonths(1).atDay(1));
+        if (arquivamentoService.precisaDoArquivo(chave.mes().atDay(1))) {
+            jdbcTemplate.query(SELECT_TOTAIS_DO_MES_COM_ARQUIVO, totalizar,
+                    chave.contaId(), inicio, fim, chave.contaId(), inicio, fim);
+        } else {
+            jdbcTemplate.query(SELECT_TOTAIS_DO_MES, totalizar, chave.contaId(), inicio, fim);
+        }
+        return resumo;
+    }
+
+    /**
+     * Descarta os meses afetados depois do commit, quando um novo cálculo já
+     * enxerga a alteração. Todos os caminhos que gravam, excluem ou mudam a data
+     * de movimentações publicam o evento, inclusive transferências e lotes.
+     */
+    @TransactionalEventListener
+    public void descartar(MovimentacoesRegistradasEvent evento) {
+        for (Variacao variacao : evento.variacoes()) {
+            resumos.invalidate(new Chave(variacao.contaId(), YearMonth.from(variacao.data())));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.augusto.backend.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Roda de tempo hierárquica (timer wheel) de ids com vencimento. Cada nível tem
+ * 64 posições; uma posição do nível 0 dura um tick, uma do nível 1 dura 64
+ * ticks, e assim por diante. Agendar e vencer custam O(1); um item só é
+ * redistribuído quando a posição do nível de cima em que ele está começa,
+ * no máximo uma vez por nível.
+ *
+ * <p>Não é thread-safe: é usada só pela thread do agendador.
+ */
+public final class RodaDeTempo {
+
+    private static final int BITS = 6;
+    private static final int POSICOES = 1 << BITS;
+    private static final int MASCARA = POSICOES - 1;
+
+    private record Item(long id, long vencimento) {
+    }
+
+    private final long tickMs;
+    private final int niveis;
+    private final ArrayDeque<Item>[][] rodas;
+    private final List<Long> vencidos = new ArrayList<>();
+    private long tickAtual;
+    private int tamanho;
+
+    @SuppressWarnings("unchecked")
+    public RodaDeTempo(long tickMs, int niveis, long agoraMs) {
+        if (tickMs <= 0 || niveis < 1 || niveis > 10) {
+            throw new IllegalArgumentException("Tick deve ser positivo e a roda deve ter de 1 a 10 níveis");
+        }
+        this.tickMs = tickMs;
+        this.niveis = niveis;
+        this.rodas = new ArrayDeque[niveis][POSICOES];
+        this.tickAtual = agoraMs / tickMs;
+    }
+
+    /** Intervalo coberto sem redistribuir o item no nível mais alto. */
+    public long alcanceMs() {
+        return tickMs << (BITS * niveis);
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /** Agenda {@code id} para {@code vencimentoMs}; vencimentos passados saem no próximo {@link #avancar}. */
+    public void agendar(long id, long vencimentoMs) {
+        tamanho++;
+        inserir(new Item(id, Math.floorDiv(vencimentoMs, tickMs)));
+    }
+
+    /** Avança até {@code agoraMs} e devolve os ids vencidos, na ordem de vencimento. */
+    public List<Long> avancar(long agoraMs) {
+        long alvo = agoraMs / tickMs;
+        while (tickAtual < alvo) {
+            tickAtual++;
+            // Começa uma nova posição em cada nível cujos bits de baixo zeraram
+            for (int nivel = 1; nivel < niveis && (tickAtual & ((1L << (BITS * nivel)) - 1)) == 0; nivel++) {
+                redistribuir(nivel, (int) ((tickAtual >>> (BITS * nivel)) & MASCARA));
+            }
+            // Os vencidos saem; com um só nível, um item além do alcance também está aqui e volta para a roda
+            redistribuir(0, (int) (tickAtual & MASCARA));
+        }
+        List<Long> resultado = new ArrayList<>(vencidos);
+        tamanho -= vencidos.size();
+        vencidos.clear();
+        return resultado;
+    }
+
+    private void redistribuir(int nivel, int indice) {
+        ArrayDeque<Item> posicao = rodas[nivel][indice];
+        if (posicao == null || posicao.isEmpty()) {
+            return;
+        }
+        List<Item> itens = new ArrayList<>(posicao);
+        posicao.clear();
+        itens.forEach(this::inserir);
+    }
+
+    private void inserir(Item item) {
+        long distancia = item.vencimento() - tickAtual;
+        if (distancia <= 0) {
+            vencidos.add(item.id());
+            return;
+        }
+        for (int nivel = 0; nivel < niveis; nivel++) {
+            if (distancia < 1L << (BITS * (nivel + 1))) {
+                adicionar(nivel, (int) ((item.vencimento() >>> (BITS * nivel)) & MASCARA), item);
+                return;
+            }
+        }
+        // Além do alcance: espera na última posição do nível mais alto e é redistribuído de lá
+        long limite = tickAtual + (1L << (BITS * niveis)) - 1;
+        adicionar(niveis - 1, (int) ((limite >>> (BITS * (niveis - 1))) & MASCARA), item);
+    }
+
+    private void adicionar(int nivel, int indice, Item item) {
+        ArrayDeque<Item> posicao = rodas[nivel][indice];
+        if (posicao == null) {
+            posicao = new ArrayDeque<>();
+            rodas[nivel][indice] = posicao;
+        }
+        posicao.add(item);
+    }
+}
@@ -0,0 +1,165 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.domain.SaldoDiario;
+import com.augusto.backend.repository.SaldoDiarioRepository;
+import com.augusto.backend.services.MovimentacoesRegistradasEvent.Variacao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Mantém a tabela saldos_diarios: um registro por conta e dia com movimentação,
+ * com o saldo ao final daquele dia. Os registros são atualizados na mesma
+ * transação que grava as movimentações, a partir do
+ * {@link MovimentacoesRegistradasEvent}. Como todo caminho de gravação trava
+ * antes a linha da conta, não há duas transações mexendo nos registros da
+ * mesma conta ao mesmo tempo.
+ */
+@Service
+public class SaldoDiarioService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SaldoDiarioService.class);
+
+    // Movimentação retroativa desloca o saldo de todos os dias seguintes
+    private static final String UPDATE_SALDOS_A_PARTIR =
+            "UPDATE saldos_diarios SET saldo = saldo + ? WHERE conta_id = ? AND data >= ?";
+
+    // Cria o registro do dia, se ainda não existir, a partir do último saldo anterior
+    private static final String INSERT_SALDO_DO_DIA =
+            "INSERT INTO saldos_diarios (conta_id, data, saldo) "
+            + "SELECT ?, ?, COALESCE((SELECT s.saldo FROM saldos_diarios s WHERE s.conta_id = ? AND s.data < ? "
+            + "ORDER BY s.data DESC LIMIT 1), 0) + ? FROM DUAL "
+            + "WHERE NOT EXISTS (SELECT 1 FROM saldos_diarios s WHERE s.conta_id = ? AND s.data = ?)";
+
+    private static final String SELECT_VARIACAO_POR_DIA =
+            "SELECT data, SUM(CASE WHEN tipo = 'SAQUE' THEN -valor ELSE valor END) AS variacao "
+            + "FROM movimentacoes WHERE conta_id = ? GROUP BY data ORDER BY data";
+
+    private static final String SELECT_VARIACAO_POR_DIA_COM_ARQUIVO =
+            "SELECT data, SUM(CASE WHEN tipo = 'SAQUE' THEN -valor ELSE valor END) AS variacao FROM ("
+            + "SELECT data, tipo, valor FROM movimentacoes WHERE conta_id = ? "
+            + "UNION ALL SELECT data, tipo, valor FROM movimentacoes_arquivo WHERE conta_id = ?"
+            + ") m GROUP BY data ORDER BY data";
+
+    private final SaldoDiarioRepository saldoDiarioRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ArquivamentoService arquivamentoService;
+    private final boolean backfillNaInicializacao;
+
+    public SaldoDiarioService(SaldoDiarioRepository saldoDiarioRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ArquivamentoService arquivamentoService,
+                              @Value("${app.saldo-diario.backfill-na-inicializacao:false}") boolean backfillNaInicializacao) {
+        this.saldoDiarioRepository = saldoDiarioRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.arquivamentoService = arquivamentoService;
+        this.backfillNaInicializacao = backfillNaInicializacao;
+    }
+
+    public BigDecimal saldoEm(Long contaId, LocalDate data) {
+        if (contaId == null || contaId <= 0) {
+            throw new IllegalArgumentException("ID da conta deve ser um número positivo");
+        }
+        if (data == null) {
+            throw new IllegalArgumentException("Data é obrigatória");
+        }
+        return saldoDiarioRepository.findFirstByContaIdAndDataLessThanEqualOrderByDataDesc(contaId, data)
+                .map(SaldoDiario::getSaldo)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(MovimentacoesRegistradasEvent evento) {
+        List<Variacao> variacoes = evento.variacoes();
+        if (variacoes.isEmpty()) {
+            return;
+        }
+
+        // Os inserts precisam ir em ordem de data: o registro de um dia novo parte
+        // do registro anterior, que pode ter sido criado neste mesmo lote
+        List<Variacao> ordenadas = new ArrayList<>(variacoes);
+        ordenadas.sort(Comparator.comparing(Variacao::contaId).thenComparing(Variacao::data));
+
+        List<Object[]> updates = new ArrayList<>(ordenadas.size());
+        List<Object[]> inserts = new ArrayList<>(ordenadas.size());
+        for (Variacao variacao : ordenadas) {
+            Date data = Date.valueOf(variacao.data());
+            updates.add(new Object[] {variacao.valor(), variacao.contaId(), data});
+            inserts.add(new Object[] {variacao.contaId(), data, variacao.contaId(), data, variacao.valor(),
+                    variacao.contaId(), data});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SALDOS_A_PARTIR, updates);
+        jdbcTemplate.batchUpdate(INSERT_SALDO_DO_DIA, inserts);
+    }
+
+    /** Recalcula do zero os saldos diários de uma conta a partir das movimentações. */
+    public void reconstruir(Long contaId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Trava a conta para que nenhuma movimentação entre durante o recálculo
+            jdbcTemplate.queryForList("SELECT id FROM contas WHERE id = ? FOR UPDATE", Long.class, contaId);
+            jdbcTemplate.update("DELETE FROM saldos_diarios WHERE conta_id = ?", contaId);
+
+            List<Object[]> inserts = new ArrayList<>();
+            BigDecimal[] saldo = {BigDecimal.ZERO};
+            RowCallbackHandler acumular = rs -> {
+                saldo[0] = saldo[0].add(rs.getBigDecimal("variacao"));
+                inserts.add(new Object[] {contaId, rs.getDate("data"), saldo[0]});
+            };
+            if (arquivamentoService.precisaDoArquivo(null)) {
+                jdbcTemplate.query(SELECT_VARIACAO_POR_DIA_COM_ARQUIVO, acumular, contaId, contaId);
+            } else {
+                jdbcTemplate.query(SELECT_VARIACAO_POR_DIA, acumular, contaId);
+            }
+
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate("INSERT INTO saldos_diarios (conta_id, data, saldo) VALUES (?, ?, ?)", inserts);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        if (backfillNaInicializacao) {
+            reconstruirTodos();
+        }
+    }
+
+    /** Backfill de todas as contas, uma transação por conta, percorrendo os ids em blocos. */
+    public void reconstruirTodos() {
+        long ultimoId = 0;
+        long total = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList("SELECT id FROM contas WHERE id > ? ORDER BY id LIMIT 1000",
+                    Long.class, ultimoId);
+            for (Long contaId : ids) {
+                reconstruir(contaId);
+            }
+            total += ids.size();
+            if (!ids.isEmpty()) {
+                ultimoId = ids.get(ids.size() - 1);
+            }
+        } while (!ids.isEmpty());
+        logger.info("Saldos diários reconstruídos para {} contas", total);
+    }
+}
@@ -2,42 +2,74 @@ package com.augusto.backend.services;
 
 import com.augusto.backend.domain.Usuario;
 import com.augusto.backend.repository.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
-public class UsuarioService implements UserDetailsService {
+public class UsuarioService implements UserDetailsService, UserDetailsPasswordService {
 
     private UsuarioRepository usuarioRepository;
     
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    UsuarioService (UsuarioRepository usuarioRepository) {
+    // Usuários autenticados por email, para o filtro JWT não ir ao banco a cada requisição.
+    // O TTL limita quanto tempo uma alteração feita por outra instância fica invisível.
+    private final Cache<String, Usuario> usuariosPorEmail;
+    // Email de cada usuário em usuariosPorEmail: o email pode mudar, e a invalidação pelo id
+    // não precisa varrer o cache
+    private final Map<Long, String> emailPorId = new ConcurrentHashMap<>();
+
+    UsuarioService (UsuarioRepository usuarioRepository,
+                    @Value("${app.security.usuario-cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                    @Value("${app.security.usuario-cache.ttl:5m}") Duration ttl) {
         this.usuarioRepository = usuarioRepository;
+        this.usuariosPorEmail = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .evictionListener((String email, Usuario usuario, RemovalCause causa) -> {
+                    if (usuario != null) {
+                        emailPorId.remove(usuario.getId(), email);
+                    }
+                })
+                .build();
     }
 
+    @Transactional(readOnly = true)
     public List<Usuario> findAll() {
         return usuarioRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Optional<Usuario> findById(Long id) {
         return usuarioRepository.findById(id);
     }
 
     public Usuario save(Usuario usuario) {
-        return usuarioRepository.save(usuario);
+        Usuario salvo = usuarioRepository.save(usuario);
+        invalidarCache(salvo);
+        return salvo;
     }
 
     public void deleteById(Long id) {
         usuarioRepository.deleteById(id);
+        invalidarCache(id);
     }
 
     public Usuario update(Long id, Usuario usuarioDetails) {
@@ -47,7 +79,9 @@ public class UsuarioService implements UserDetailsService {
             usuario.setNome(usuarioDetails.getNome());
             usuario.setCpf(usuarioDetails.getCpf());
             usuario.setEndereco(usuarioDetails.getEndereco());
-            return usuarioRepository.save(usuario);
+            Usuario salvo = usuarioRepository.save(usuario);
+            invalidarCache(salvo);
+            return salvo;
         }
         return null;
     }
@@ -55,11 +89,43 @@ public class UsuarioService implements UserDetailsService {
     // Métodos para autenticação
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        Usuario usuario = usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + email));
+        Usuario usuario = usuariosPorEmail.getIfPresent(email);
+        if (usuario == null) {
+            usuario = usuarioRepository.findByEmail(email)
+                    .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + email));
+            usuariosPorEmail.put(email, usuario);
+            emailPorId.put(usuario.getId(), email);
+        }
         return usuario;
     }
 
+    // Chamado pelo DaoAuthenticationProvider após um login bem-sucedido quando
+    // PasswordEncoder.upgradeEncoding indica que o hash precisa ser refeito
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Usuario usuario = usuarioRepository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + user.getUsername()));
+        usuario.setSenha(newPassword);
+        return save(usuario);
+    }
+
+    private void invalidarCache(Usuario usuario) {
+        if (usuario.getEmail() != null) {
+            usuariosPorEmail.invalidate(usuario.getEmail());
+        }
+        invalidarCache(usuario.getId());
+    }
+
+    private void invalidarCache(Long id) {
+        // O email pode ter mudado, então invalida também o que estava guardado para o id
+        String email = id != null ? emailPorId.remove(id) : null;
+        if (email != null) {
+            usuariosPorEmail.invalidate(email);
+        }
+    }
+
+    // findByEmail e findByCpf ficam fora de readOnly (no primário com réplica configurada):
+    // checam duplicidade logo antes do cadastro e não podem ver uma réplica atrasada
     public Optional<Usuario> findByEmail(String email) {
         return usuarioRepository.findByEmail(email);
     }
@@ -71,6 +137,7 @@ public class UsuarioService implements UserDetailsService {
     public Usuario createUser(Usuario usuario) {
         // Criptografar senha antes de salvar
         usuario.setSenha(passwordEncoder.encode(usuario.getSenha()));
+        // Usuário novo: não há nada dele no cache (só logins bem-sucedidos entram lá)
         return usuarioRepository.save(usuario);
     }
 }
\ No newline at end of file
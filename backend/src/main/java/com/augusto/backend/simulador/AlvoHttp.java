@@ -0,0 +1,81 @@
+package com.augusto.backend.simulador;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Manda as operações pela API (POST /api/movimentacoes e
+ * /api/movimentacoes/transferencia), passando por Tomcat, filtro JWT e JSON.
+ */
+class AlvoHttp implements AlvoSimulacao {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlvoHttp.class);
+
+    private final HttpClient cliente;
+    private final URI movimentacoes;
+    private final URI transferencias;
+    private final String autorizacao;
+    private final Duration timeout;
+
+    AlvoHttp(String urlBase, String token, Duration timeout) {
+        this.timeout = timeout;
+        this.cliente = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.movimentacoes = URI.create(urlBase + "/api/movimentacoes");
+        this.transferencias = URI.create(urlBase + "/api/movimentacoes/transferencia");
+        this.autorizacao = "Bearer " + token;
+    }
+
+    @Override
+    public Resultado depositar(long contaId, BigDecimal valor, LocalDate data) {
+        return enviar(movimentacoes, String.format("{\"contaId\":%d,\"tipo\":\"DEPOSITO\",\"valor\":\"%s\",\"data\":\"%s\"}",
+                contaId, valor.toPlainString(), data));
+    }
+
+    @Override
+    public Resultado sacar(long contaId, BigDecimal valor, LocalDate data) {
+        return enviar(movimentacoes, String.format("{\"contaId\":%d,\"tipo\":\"SAQUE\",\"valor\":\"%s\",\"data\":\"%s\"}",
+                contaId, valor.toPlainString(), data));
+    }
+
+    @Override
+    public Resultado transferir(long contaOrigemId, long contaDestinoId, BigDecimal valor, LocalDate data) {
+        return enviar(transferencias, String.format(
+                "{\"contaOrigemId\":%d,\"contaDestinoId\":%d,\"valor\":%s,\"data\":\"%s\"}",
+                contaOrigemId, contaDestinoId, valor.toPlainString(), data));
+    }
+
+    private Resultado enviar(URI uri, String corpo) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Authorization", autorizacao)
+                .header("Content-Type", "application/json")
+                .timeout(timeout)
+                .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+        try {
+            HttpResponse<String> resposta = cliente.send(request, HttpResponse.BodyHandlers.ofString());
+            if (resposta.statusCode() < 300) {
+                return Resultado.OK;
+            }
+            // Saldo insuficiente volta como 400, com a mensagem da exceção no corpo
+            if (resposta.statusCode() == 400 && resposta.body().contains("Saldo insuficiente")) {
+                return Resultado.RECUSADA;
+            }
+            logger.debug("{} respondeu {}: {}", uri, resposta.statusCode(), resposta.body());
+            return Resultado.ERRO;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Resultado.ERRO;
+        } catch (Exception e) {
+            logger.debug("Falha ao chamar {}", uri, e);
+            return Resultado.ERRO;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.augusto.backend.simulador;
+
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Movimentacao;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.exception.SaldoInsuficienteException;
+import com.augusto.backend.services.MovimentacaoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/** Chama o MovimentacaoService no próprio processo: mede serviço, pool e banco, sem HTTP. */
+class AlvoServico implements AlvoSimulacao {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlvoServico.class);
+
+    private final MovimentacaoService movimentacaoService;
+
+    AlvoServico(MovimentacaoService movimentacaoService) {
+        this.movimentacaoService = movimentacaoService;
+    }
+
+    @Override
+    public Resultado depositar(long contaId, BigDecimal valor, LocalDate data) {
+        return lancar(contaId, TipoMovimentacao.DEPOSITO, valor, data);
+    }
+
+    @Override
+    public Resultado sacar(long contaId, BigDecimal valor, LocalDate data) {
+        return lancar(contaId, TipoMovimentacao.SAQUE, valor, data);
+    }
+
+    @Override
+    public Resultado transferir(long contaOrigemId, long contaDestinoId, BigDecimal valor, LocalDate data) {
+        return executar(() -> {
+            movimentacaoService.transferir(contaOrigemId, contaDestinoId, valor, data);
+            return Resultado.OK;
+        });
+    }
+
+    private Resultado lancar(long contaId, TipoMovimentacao tipo, BigDecimal valor, LocalDate data) {
+        return executar(() -> {
+            Conta conta = new Conta();
+            conta.setId(contaId);
+            Movimentacao salva = movimentacaoService.save(new Movimentacao(null, tipo, valor, data, conta));
+            return salva != null ? Resultado.OK : Resultado.ERRO;
+        });
+    }
+
+    private Resultado executar(Supplier<Resultado> operacao) {
+        try {
+            return operacao.get();
+        } catch (SaldoInsuficienteException e) {
+            return Resultado.RECUSADA;
+        } catch (RuntimeException e) {
+            logger.debug("Operação simulada falhou", e);
+            return Resultado.ERRO;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.augusto.backend.simulador;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Para onde o simulador manda as operações: direto para o MovimentacaoService
+ * ({@link AlvoServico}) ou pela API HTTP ({@link AlvoHttp}).
+ */
+interface AlvoSimulacao {
+
+    enum Resultado {
+        OK,
+        // Recusada pela regra de negócio (saldo insuficiente): conta como resposta válida
+        RECUSADA,
+        ERRO
+    }
+
+    Resultado depositar(long contaId, BigDecimal valor, LocalDate data);
+
+    Resultado sacar(long contaId, BigDecimal valor, LocalDate data);
+
+    Resultado transferir(long contaOrigemId, long contaDestinoId, BigDecimal valor, LocalDate data);
+}
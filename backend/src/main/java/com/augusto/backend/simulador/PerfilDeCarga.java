@@ -0,0 +1,43 @@
+package com.augusto.backend.simulador;
+
+import java.time.Duration;
+
+/**
+ * Taxa de chegada de operações ao longo da simulação: uma taxa média que
+ * oscila como um dia comprimido em {@code periodoDiurno} (começa no vale, a
+ * "madrugada") e, a cada {@code intervaloRajada}, uma rajada de
+ * {@code duracaoRajada} com a taxa multiplicada.
+ */
+record PerfilDeCarga(double taxaMedia,
+                     double amplitudeDiurna,
+                     Duration periodoDiurno,
+                     Duration intervaloRajada,
+                     Duration duracaoRajada,
+                     double multiplicadorRajada) {
+
+    PerfilDeCarga {
+        if (taxaMedia <= 0) {
+            throw new IllegalArgumentException("Taxa do simulador deve ser positiva");
+        }
+        if (amplitudeDiurna < 0 || amplitudeDiurna > 1) {
+            throw new IllegalArgumentException("Amplitude diurna deve estar entre 0 e 1");
+        }
+    }
+
+    /** Operações por segundo no instante {@code decorrido} desde o início da carga. */
+    double taxaEm(Duration decorrido) {
+        double taxa = taxaMedia;
+        if (amplitudeDiurna > 0 && !periodoDiurno.isZero()) {
+            double fase = 2 * Math.PI * decorrido.toNanos() / periodoDiurno.toNanos();
+            taxa *= 1 - amplitudeDiurna * Math.cos(fase);
+        }
+        if (!intervaloRajada.isZero() && !duracaoRajada.isZero()) {
+            long posicao = decorrido.toNanos() % intervaloRajada.toNanos();
+            if (posicao >= intervaloRajada.toNanos() - duracaoRajada.toNanos()) {
+                taxa *= multiplicadorRajada;
+            }
+        }
+        // Nunca zero: o intervalo até a próxima chegada é sorteado a partir da taxa
+        return Math.max(taxa, taxaMedia * 0.01);
+    }
+}
@@ -0,0 +1,89 @@
+package com.augusto.backend.simulador;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Percentis de latência e vazão por chave (operação do simulador, entrada do
+ * teste de carga), a cada intervalo e no total, e a contagem de chegadas
+ * descartadas. Usado pelo {@link RelatorioSimulacao} e pelo relatório do teste
+ * de carga (src/carga), que só acrescentam as próprias contagens de resultado.
+ *
+ * <p>{@link #registrar} e {@link #descartar} podem ser chamados de qualquer
+ * thread; os demais métodos, por uma única thread de relatório.
+ */
+public final class RelatorioLatencias<K> {
+
+    private static final class Latencias {
+        // Latências em microssegundos
+        private final Recorder recorder = new Recorder(3);
+        private final Histogram total = new Histogram(3);
+        private Histogram intervalo;
+    }
+
+    // Na ordem das chaves recebidas, que é a ordem de impressão
+    private final Map<K, Latencias> porChave = new LinkedHashMap<>();
+    private final LongAdder descartadas = new LongAdder();
+
+    public RelatorioLatencias(Collection<K> chaves) {
+        for (K chave : chaves) {
+            porChave.putIfAbsent(chave, new Latencias());
+        }
+    }
+
+    /** Latência medida desde o instante previsto pelo modelo de chegadas (sem coordinated omission). */
+    public void registrar(K chave, long latenciaNanos) {
+        porChave.get(chave).recorder.recordValue(Math.max(1, latenciaNanos / 1000));
+    }
+
+    /** Chegada que não saiu porque já havia o máximo de operações pendentes. */
+    public void descartar() {
+        descartadas.increment();
+    }
+
+    public long descartadas() {
+        return descartadas.sum();
+    }
+
+    /** Fecha o intervalo desde a última chamada em todas as chaves e o soma ao total. */
+    public void fecharIntervalo() {
+        porChave.values().forEach(latencias -> {
+            latencias.intervalo = latencias.recorder.getIntervalHistogram(latencias.intervalo);
+            latencias.total.add(latencias.intervalo);
+        });
+    }
+
+    /** Vazão e percentis do último intervalo fechado. */
+    public String formatarIntervalo(K chave, Duration intervalo) {
+        return formatar(porChave.get(chave).intervalo, intervalo);
+    }
+
+    /** Vazão e percentis de tudo o que já foi fechado. */
+    public String formatarTotal(K chave, Duration duracao) {
+        return formatar(porChave.get(chave).total, duracao);
+    }
+
+    /** Como {@link #formatarTotal}, com as latências de todas as chaves juntas. */
+    public String formatarGeral(Duration duracao) {
+        Histogram geral = new Histogram(3);
+        porChave.values().forEach(latencias -> geral.add(latencias.total));
+        return formatar(geral, duracao);
+    }
+
+    private static String formatar(Histogram histograma, Duration periodo) {
+        double segundos = Math.max(periodo.toMillis(), 1) / 1000.0;
+        return String.format("%8.1f/s  p50=%8.2fms  p95=%8.2fms  p99=%8.2fms  p99.9=%8.2fms  max=%8.2fms",
+                histograma.getTotalCount() / segundos,
+                histograma.getValueAtPercentile(50) / 1000.0,
+                histograma.getValueAtPercentile(95) / 1000.0,
+                histograma.getValueAtPercentile(99) / 1000.0,
+                histograma.getValueAtPercentile(99.9) / 1000.0,
+                histograma.getMaxValue() / 1000.0);
+    }
+}
@@ -0,0 +1,77 @@
+package com.augusto.backend.simulador;
+
+import com.augusto.backend.simulador.AlvoSimulacao.Resultado;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Vazão e percentis de latência por operação, a cada intervalo e no total.
+ * A latência é medida a partir do instante em que a operação deveria ter
+ * começado (e não de quando uma thread ficou livre para ela), então fila e
+ * atraso do próprio simulador aparecem nos percentis em vez de sumirem.
+ */
+class RelatorioSimulacao {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelatorioSimulacao.class);
+
+    enum Operacao {
+        DEPOSITO, SAQUE, TRANSFERENCIA
+    }
+
+    private static final class Contadores {
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder recusadas = new LongAdder();
+        private final LongAdder erros = new LongAdder();
+    }
+
+    private final RelatorioLatencias<Operacao> latencias = new RelatorioLatencias<>(List.of(Operacao.values()));
+    private final Map<Operacao, Contadores> porOperacao = new EnumMap<>(Operacao.class);
+
+    RelatorioSimulacao() {
+        for (Operacao operacao : Operacao.values()) {
+            porOperacao.put(operacao, new Contadores());
+        }
+    }
+
+    void registrar(Operacao operacao, Resultado resultado, long latenciaNanos) {
+        latencias.registrar(operacao, latenciaNanos);
+        Contadores contadores = porOperacao.get(operacao);
+        switch (resultado) {
+            case OK -> contadores.ok.increment();
+            case RECUSADA -> contadores.recusadas.increment();
+            case ERRO -> contadores.erros.increment();
+        }
+    }
+
+    /** Chegada que não entrou na fila porque o simulador já estava com o máximo pendente. */
+    void descartar() {
+        latencias.descartar();
+    }
+
+    /** Imprime o intervalo desde a última chamada e acumula no total; chamado por uma única thread. */
+    void imprimirIntervalo(Duration decorrido, Duration intervalo, double taxaAtual, int pendentes) {
+        latencias.fecharIntervalo();
+        StringBuilder linha = new StringBuilder(String.format("[%4ds] taxa alvo %.0f/s, pendentes %d, descartadas %d",
+                decorrido.toSeconds(), taxaAtual, pendentes, latencias.descartadas()));
+        for (Operacao operacao : Operacao.values()) {
+            linha.append(String.format("%n    %-13s %s", operacao, latencias.formatarIntervalo(operacao, intervalo)));
+        }
+        logger.info(linha.toString());
+    }
+
+    void imprimirFinal(Duration duracao) {
+        latencias.fecharIntervalo();
+        StringBuilder linha = new StringBuilder(String.format("Resultado da simulação (%ds, descartadas %d):",
+                duracao.toSeconds(), latencias.descartadas()));
+        porOperacao.forEach((operacao, contadores) -> linha.append(String.format(
+                "%n    %-13s %s ok=%d recusadas=%d erros=%d", operacao, latencias.formatarTotal(operacao, duracao),
+                contadores.ok.sum(), contadores.recusadas.sum(), contadores.erros.sum())));
+        logger.info(linha.toString());
+    }
+}
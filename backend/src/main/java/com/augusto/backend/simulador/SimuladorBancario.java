@@ -0,0 +1,340 @@
+package com.augusto.backend.simulador;
+
+import com.augusto.backend.config.JwtUtil;
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Movimentacao;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.domain.Usuario;
+import com.augusto.backend.services.ContaService;
+import com.augusto.backend.services.MovimentacaoService;
+import com.augusto.backend.services.UsuarioService;
+import com.augusto.backend.simulador.AlvoSimulacao.Resultado;
+import com.augusto.backend.simulador.RelatorioSimulacao.Operacao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulador de carga bancária, ativo só com o perfil {@code simulador}
+ * (configuração em application-simulador.properties).
+ *
+ * <p>Ao subir, cria {@code app.simulador.usuarios} usuários com
+ * {@code app.simulador.contas-por-usuario} contas cada, pelos services, e
+ * deposita o saldo inicial. Depois gera chegadas num modelo aberto (Poisson,
+ * com a taxa do {@link PerfilDeCarga}: ciclo diurno e rajadas) durante
+ * {@code app.simulador.duracao}, sorteando depósito, saque ou transferência
+ * pelo mix configurado e concentrando parte do tráfego em poucas contas
+ * quentes. As operações vão para o MovimentacaoService ou para a API HTTP
+ * ({@code app.simulador.alvo}). Vazão e percentis saem no log a cada
+ * {@code app.simulador.relatorio.intervalo} e no fim.
+ *
+ * <p>Com o perfil {@code virtual} também ativo (Java 21+), cada operação roda
+ * numa virtual thread; senão, num pool de {@code app.simulador.threads}
+ * threads de plataforma.
+ */
+@Component
+@Profile("simulador")
+public class SimuladorBancario implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimuladorBancario.class);
+
+    private static final int USUARIOS_POR_TAREFA = 100;
+
+    private final UsuarioService usuarioService;
+    private final ContaService contaService;
+    private final MovimentacaoService movimentacaoService;
+    private final JwtUtil jwtUtil;
+    private final ApplicationContext contexto;
+    private final Environment environment;
+
+    @Value("${app.simulador.usuarios:1000}")
+    private int usuarios;
+    @Value("${app.simulador.contas-por-usuario:2}")
+    private int contasPorUsuario;
+    @Value("${app.simulador.saldo-inicial:1000.00}")
+    private BigDecimal saldoInicial;
+    @Value("${app.simulador.valor-maximo:200.00}")
+    private BigDecimal valorMaximo;
+    @Value("${app.simulador.duracao:60s}")
+    private Duration duracao;
+    @Value("${app.simulador.taxa:500}")
+    private double taxa;
+    @Value("${app.simulador.mix.deposito:45}")
+    private int pesoDeposito;
+    @Value("${app.simulador.mix.saque:40}")
+    private int pesoSaque;
+    @Value("${app.simulador.mix.transferencia:15}")
+    private int pesoTransferencia;
+    @Value("${app.simulador.contas-quentes.fracao:0.01}")
+    private double fracaoQuentes;
+    @Value("${app.simulador.contas-quentes.trafego:0.5}")
+    private double trafegoQuentes;
+    @Value("${app.simulador.diurno.amplitude:0.5}")
+    private double amplitudeDiurna;
+    @Value("${app.simulador.diurno.periodo:60s}")
+    private Duration periodoDiurno;
+    @Value("${app.simulador.rajada.intervalo:20s}")
+    private Duration intervaloRajada;
+    @Value("${app.simulador.rajada.duracao:2s}")
+    private Duration duracaoRajada;
+    @Value("${app.simulador.rajada.multiplicador:5}")
+    private double multiplicadorRajada;
+    @Value("${app.simulador.alvo:servico}")
+    private String alvo;
+    @Value("${app.simulador.url-base:}")
+    private String urlBase;
+    @Value("${app.simulador.http.timeout:10s}")
+    private Duration timeoutHttp;
+    @Value("${app.simulador.threads:256}")
+    private int threads;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    @Value("${app.simulador.max-pendentes:100000}")
+    private int maxPendentes;
+    @Value("${app.simulador.relatorio.intervalo:5s}")
+    private Duration intervaloRelatorio;
+    @Value("${app.simulador.encerrar-ao-terminar:true}")
+    private boolean encerrarAoTerminar;
+
+    private final AtomicInteger pendentes = new AtomicInteger();
+    private long[] contas;
+    private int quantidadeQuentes;
+
+    public SimuladorBancario(UsuarioService usuarioService, ContaService contaService,
+                             MovimentacaoService movimentacaoService, JwtUtil jwtUtil,
+                             ApplicationContext contexto, Environment environment) {
+        this.usuarioService = usuarioService;
+        this.contaService = contaService;
+        this.movimentacaoService = movimentacaoService;
+        this.jwtUtil = jwtUtil;
+        this.contexto = contexto;
+        this.environment = environment;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (pesoDeposito < 0 || pesoSaque < 0 || pesoTransferencia < 0
+                || pesoDeposito + pesoSaque + pesoTransferencia == 0) {
+            throw new IllegalArgumentException("Mix do simulador deve ter pesos não negativos e ao menos um positivo");
+        }
+        PerfilDeCarga perfil = new PerfilDeCarga(taxa, amplitudeDiurna, periodoDiurno,
+                intervaloRajada, duracaoRajada, multiplicadorRajada);
+        Executor executor = criarExecutor();
+        try {
+            String emailDeAcesso = popular(executor);
+            AlvoSimulacao destino = criarAlvo(emailDeAcesso);
+            gerarCarga(executor, destino, perfil);
+        } finally {
+            if (executor instanceof ExecutorService pool) {
+                pool.shutdownNow();
+            }
+        }
+
+        if (encerrarAoTerminar) {
+            System.exit(SpringApplication.exit(contexto));
+        }
+    }
+
+    private Executor criarExecutor() {
+        // Mesma regra do Spring Boot: em Java 17 spring.threads.virtual.enabled é ignorada
+        if (virtualThreads && JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("simulador-");
+            executor.setVirtualThreads(true);
+            logger.info("Simulador usando virtual threads");
+            return executor;
+        }
+        AtomicInteger numero = new AtomicInteger();
+        logger.info("Simulador usando {} threads de plataforma", threads);
+        return Executors.newFixedThreadPool(threads, tarefa -> {
+            Thread thread = new Thread(tarefa, "simulador-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private AlvoSimulacao criarAlvo(String emailDeAcesso) {
+        if ("http".equals(alvo)) {
+            String url = urlBase.isBlank()
+                    ? "http://localhost:" + environment.getProperty("local.server.port", "8080")
+                    : urlBase;
+            logger.info("Simulador enviando operações para {}", url);
+            return new AlvoHttp(url, jwtUtil.generateToken(emailDeAcesso), timeoutHttp);
+        }
+        if (!"servico".equals(alvo)) {
+            throw new IllegalArgumentException("app.simulador.alvo deve ser servico ou http");
+        }
+        return new AlvoServico(movimentacaoService);
+    }
+
+    /** Cria usuários, contas e depósitos iniciais; devolve o email de um usuário criado, para o token JWT. */
+    private String popular(Executor executor) throws InterruptedException {
+        String execucao = Long.toString(System.currentTimeMillis(), 36);
+        ConcurrentLinkedQueue<Long> criadas = new ConcurrentLinkedQueue<>();
+        AtomicInteger falhas = new AtomicInteger();
+        int tarefas = (usuarios + USUARIOS_POR_TAREFA - 1) / USUARIOS_POR_TAREFA;
+        CountDownLatch concluidas = new CountDownLatch(tarefas);
+        long inicio = System.nanoTime();
+
+        for (int tarefa = 0; tarefa < tarefas; tarefa++) {
+            int primeiro = tarefa * USUARIOS_POR_TAREFA;
+            int ultimo = Math.min(primeiro + USUARIOS_POR_TAREFA, usuarios);
+            executor.execute(() -> {
+                try {
+                    for (int i = primeiro; i < ultimo; i++) {
+                        try {
+                            criarUsuario(execucao, i, criadas);
+                        } catch (RuntimeException e) {
+                            falhas.incrementAndGet();
+                            logger.warn("Falha ao criar usuário simulado {}: {}", i, e.getMessage());
+                        }
+                    }
+                } finally {
+                    concluidas.countDown();
+                }
+            });
+        }
+        concluidas.await();
+
+        List<Long> ids = new ArrayList<>(criadas);
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Nenhuma conta simulada foi criada");
+        }
+        // Embaralhadas: as primeiras viram as contas quentes
+        Collections.shuffle(ids);
+        contas = ids.stream().mapToLong(Long::longValue).toArray();
+        quantidadeQuentes = (int) Math.min(contas.length, Math.round(contas.length * fracaoQuentes));
+        logger.info("Simulador criou {} contas de {} usuários em {} ms ({} falhas); {} contas quentes recebem {}% do tráfego",
+                contas.length, usuarios, (System.nanoTime() - inicio) / 1_000_000, falhas.get(),
+                quantidadeQuentes, Math.round(trafegoQuentes * 100));
+        return emailSimulado(execucao, 0);
+    }
+
+    private void criarUsuario(String execucao, int indice, ConcurrentLinkedQueue<Long> criadas) {
+        Usuario usuario = new Usuario();
+        usuario.setNome("Cliente simulado " + indice);
+        usuario.setEmail(emailSimulado(execucao, indice));
+        usuario.setCpf(String.format("%011d", indice));
+        // Não é um hash válido: o usuário simulado não consegue fazer login por senha
+        usuario.setSenha(UUID.randomUUID().toString());
+        Usuario salvo = usuarioService.save(usuario);
+
+        for (int j = 0; j < contasPorUsuario; j++) {
+            Conta conta = contaService.createConta(salvo.getId(), "SIM-" + execucao + "-" + indice + "-" + j);
+            if (saldoInicial.signum() > 0) {
+                movimentacaoService.save(new Movimentacao(null, TipoMovimentacao.DEPOSITO, saldoInicial,
+                        LocalDate.now(), conta));
+            }
+            criadas.add(conta.getId());
+        }
+    }
+
+    private static String emailSimulado(String execucao, int indice) {
+        return "sim-" + execucao + "-" + indice + "@simulador.local";
+    }
+
+    private void gerarCarga(Executor executor, AlvoSimulacao destino, PerfilDeCarga perfil) throws InterruptedException {
+        RelatorioSimulacao relatorio = new RelatorioSimulacao();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long inicio = System.nanoTime();
+        long fim = inicio + duracao.toNanos();
+        long proximoRelatorio = inicio + intervaloRelatorio.toNanos();
+        long proxima = inicio;
+        logger.info("Simulação iniciada: {} ops/s em média por {} s, alvo {}", taxa, duracao.toSeconds(), alvo);
+
+        while (proxima < fim) {
+            long espera = proxima - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+
+            if (pendentes.get() >= maxPendentes) {
+                relatorio.descartar();
+            } else {
+                long agendada = proxima;
+                pendentes.incrementAndGet();
+                executor.execute(() -> {
+                    try {
+                        executarOperacao(destino, relatorio, agendada);
+                    } finally {
+                        pendentes.decrementAndGet();
+                    }
+                });
+            }
+
+            double taxaAtual = perfil.taxaEm(Duration.ofNanos(proxima - inicio));
+            proxima += (long) (-Math.log(1 - random.nextDouble()) / taxaAtual * 1e9);
+
+            long agora = System.nanoTime();
+            if (agora >= proximoRelatorio) {
+                relatorio.imprimirIntervalo(Duration.ofNanos(agora - inicio), intervaloRelatorio, taxaAtual, pendentes.get());
+                proximoRelatorio += intervaloRelatorio.toNanos();
+            }
+        }
+
+        // Espera as operações em andamento antes do relatório final
+        long limite = System.nanoTime() + Duration.ofMinutes(1).toNanos();
+        while (pendentes.get() > 0 && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        relatorio.imprimirFinal(Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    private void executarOperacao(AlvoSimulacao destino, RelatorioSimulacao relatorio, long agendada) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BigDecimal valor = BigDecimal.valueOf(random.nextLong(1, valorMaximo.movePointRight(2).longValue() + 1), 2);
+        LocalDate hoje = LocalDate.now();
+        int sorteio = random.nextInt(pesoDeposito + pesoSaque + pesoTransferencia);
+
+        Operacao operacao;
+        Resultado resultado;
+        if (sorteio < pesoDeposito) {
+            operacao = Operacao.DEPOSITO;
+            resultado = destino.depositar(sortearConta(random), valor, hoje);
+        } else if (sorteio < pesoDeposito + pesoSaque || contas.length < 2) {
+            operacao = Operacao.SAQUE;
+            resultado = destino.sacar(sortearConta(random), valor, hoje);
+        } else {
+            operacao = Operacao.TRANSFERENCIA;
+            long origem = sortearConta(random);
+            long destinoConta = sortearConta(random);
+            while (destinoConta == origem) {
+                // Com uma única conta quente, o destino repetido sai do conjunto todo
+                destinoConta = contas[random.nextInt(contas.length)];
+            }
+            resultado = destino.transferir(origem, destinoConta, valor, hoje);
+        }
+        relatorio.registrar(operacao, resultado, System.nanoTime() - agendada);
+    }
+
+    private long sortearConta(ThreadLocalRandom random) {
+        if (quantidadeQuentes > 0 && random.nextDouble() < trafegoQuentes) {
+            return contas[random.nextInt(quantidadeQuentes)];
+        }
+        return contas[random.nextInt(contas.length)];
+    }
+}
@@ -0,0 +1,189 @@
+package com.augusto.backend.config;
+
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Movimentacao;
+import com.augusto.backend.domain.Usuario;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Testes do RoteamentoDataSource")
+class RoteamentoDataSourceTest {
+
+    private final AtomicReference<String> usuarioAtual = new AtomicReference<>();
+    private DataSource primario;
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() {
+        // Dois H2 em memória no papel de primário e réplica; cada um sabe quem é
+        primario = banco("primario");
+        replica = banco("replica");
+    }
+
+    @Test
+    @DisplayName("Deve mandar transações somente leitura para a réplica e as demais para o primário")
+    void deveRotearPeloFlagDeSomenteLeitura() {
+        Roteamento roteamento = new Roteamento(Duration.ZERO);
+
+        assertThat(roteamento.ler()).isEqualTo("replica");
+        assertThat(roteamento.escrever()).isEqualTo("primario");
+        assertThat(roteamento.jdbc.queryForObject("select nome from origem", String.class)).isEqualTo("primario");
+    }
+
+    @Test
+    @DisplayName("Deve manter as leituras do usuário no primário durante a janela após uma escrita")
+    void deveFixarLeiturasDoUsuarioAposEscrita() throws InterruptedException {
+        Roteamento roteamento = new Roteamento(Duration.ofMillis(300));
+        usuarioAtual.set("ana@teste.com");
+
+        assertThat(roteamento.ler()).isEqualTo("replica");
+        roteamento.escrever();
+        assertThat(roteamento.ler()).isEqualTo("primario");
+
+        usuarioAtual.set("bruno@teste.com");
+        assertThat(roteamento.ler()).isEqualTo("replica");
+
+        Thread.sleep(400);
+        usuarioAtual.set("ana@teste.com");
+        assertThat(roteamento.ler()).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Não deve fixar o usuário quando a escrita é revertida")
+    void naoDeveFixarAposRollback() {
+        Roteamento roteamento = new Roteamento(Duration.ofMinutes(1));
+        usuarioAtual.set("ana@teste.com");
+
+        roteamento.transacao.executeWithoutResult(status -> {
+            roteamento.jdbc.update("update origem set nome = nome");
+            status.setRollbackOnly();
+        });
+
+        assertThat(roteamento.ler()).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Não deve fixar leituras quando a janela é zero")
+    void naoDeveFixarComJanelaZero() {
+        Roteamento roteamento = new Roteamento(Duration.ZERO);
+        usuarioAtual.set("ana@teste.com");
+
+        roteamento.escrever();
+
+        assertThat(roteamento.ler()).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Entidades lidas da réplica não devem entrar no cache de segundo nível")
+    void naoDeveGuardarNoCacheOQueVeioDaReplica() {
+        // Réplica atrasada: ainda com o saldo anterior
+        new JdbcTemplate(primario).update("update contas set saldo = 100.00");
+        new JdbcTemplate(replica).update("update contas set saldo = 90.00");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new RoteamentoDataSource(
+                primario, replica, Duration.ZERO, usuarioAtual::get, new SimpleMeterRegistry()));
+        EntityManagerFactory emf = entityManagerFactory(dataSource);
+        try {
+            EntityManager em = SharedEntityManagerCreator.createSharedEntityManager(emf);
+            JpaTransactionManager transactionManager = new JpaTransactionManager(emf);
+            TransactionTemplate leitura = new TransactionTemplate(transactionManager);
+            leitura.setReadOnly(true);
+            TransactionTemplate escrita = new TransactionTemplate(transactionManager);
+
+            assertThat(saldo(leitura, em)).isEqualByComparingTo("90.00");
+            assertThat(emf.getCache().contains(Conta.class, 1L)).isFalse();
+
+            // O primário continua vendo (e cacheando) o próprio saldo
+            assertThat(saldo(escrita, em)).isEqualByComparingTo("100.00");
+            assertThat(emf.getCache().contains(Conta.class, 1L)).isTrue();
+            assertThat(saldo(leitura, em)).isEqualByComparingTo("100.00");
+        } finally {
+            emf.close();
+        }
+    }
+
+    private static BigDecimal saldo(TransactionTemplate transacao, EntityManager em) {
+        return transacao.execute(status -> em.find(Conta.class, 1L).getSaldo());
+    }
+
+    private static EntityManagerFactory entityManagerFactory(DataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean fabrica = new LocalContainerEntityManagerFactoryBean();
+        fabrica.setDataSource(dataSource);
+        fabrica.setManagedTypes(PersistenceManagedTypes.of(
+                Conta.class.getName(), Usuario.class.getName(), Movimentacao.class.getName()));
+        fabrica.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        fabrica.setJpaPropertyMap(Map.of(
+                // Mesmos nomes de coluna que o Spring Boot gera (numero_conta)
+                AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                AvailableSettings.USE_SECOND_LEVEL_CACHE, true,
+                AvailableSettings.CACHE_REGION_FACTORY, "jcache",
+                "hibernate.javax.cache.provider", CaffeineCachingProvider.class.getName(),
+                "hibernate.javax.cache.missing_cache_strategy", "create"));
+        fabrica.afterPropertiesSet();
+        return fabrica.getObject();
+    }
+
+    private class Roteamento {
+        private final JdbcTemplate jdbc;
+        private final TransactionTemplate transacao;
+        private final TransactionTemplate leitura;
+
+        Roteamento(Duration janela) {
+            DataSource dataSource = new LazyConnectionDataSourceProxy(new RoteamentoDataSource(
+                    primario, replica, janela, usuarioAtual::get, new SimpleMeterRegistry()));
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            this.jdbc = new JdbcTemplate(dataSource);
+            this.transacao = new TransactionTemplate(transactionManager);
+            this.leitura = new TransactionTemplate(transactionManager);
+            this.leitura.setReadOnly(true);
+        }
+
+        String ler() {
+            return leitura.execute(status -> jdbc.queryForObject("select nome from origem", String.class));
+        }
+
+        String escrever() {
+            return transacao.execute(status -> {
+                jdbc.update("update origem set nome = nome");
+                return jdbc.queryForObject("select nome from origem", String.class);
+            });
+        }
+    }
+
+    private static DataSource banco(String nome) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + nome + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table origem (nome varchar(20))");
+        jdbc.update("insert into origem (nome) values (?)", nome);
+        jdbc.execute("create table contas (id bigint primary key, numero_conta varchar(255), "
+                + "saldo decimal(38,2), usuario_id bigint)");
+        jdbc.update("insert into contas (id, numero_conta, saldo) values (1, '0001', 0)");
+        return dataSource;
+    }
+}
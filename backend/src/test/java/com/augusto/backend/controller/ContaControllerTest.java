@@ -2,10 +2,13 @@ package com.augusto.backend.controller;
 
 import com.augusto.backend.domain.Conta;
 import com.augusto.backend.domain.Usuario;
+import com.augusto.backend.dto.ContaDTO;
 import com.augusto.backend.dto.ContaRequestDTO;
 import com.augusto.backend.dto.ContaUpdateDTO;
 import com.augusto.backend.mapper.ContaMapper;
 import com.augusto.backend.services.ContaService;
+import com.augusto.backend.services.ResumoMensalService;
+import com.augusto.backend.services.SaldoDiarioService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -42,6 +45,12 @@ class ContaControllerTest {
     @MockBean
     private ContaMapper contaMapper;
 
+    @MockBean
+    private SaldoDiarioService saldoDiarioService;
+
+    @MockBean
+    private ResumoMensalService resumoMensalService;
+
     private Usuario usuarioTeste;
     private Conta contaTeste;
     private List<Conta> contasList;
@@ -71,7 +80,7 @@ class ContaControllerTest {
     @Test
     @DisplayName("GET /api/contas - Deve retornar todas as contas")
     void getAllContas_DeveRetornarTodasAsContas() throws Exception {
-        when(contaService.findAll()).thenReturn(contasList);
+        when(contaService.listarContas()).thenReturn(contasList.stream().map(ContaDTO::de).toList());
 
         mockMvc.perform(get("/api/contas"))
                 .andExpect(status().isOk())
@@ -80,9 +89,11 @@ class ContaControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].numeroConta").value("123456"))
                 .andExpect(jsonPath("$[1].id").value(2))
-                .andExpect(jsonPath("$[1].numeroConta").value("789012"));
+                .andExpect(jsonPath("$[1].numeroConta").value("789012"))
+                .andExpect(jsonPath("$[0].usuario.nome").value("João Silva"))
+                .andExpect(jsonPath("$[0].usuario.email").doesNotExist());
 
-        verify(contaService).findAll();
+        verify(contaService).listarContas();
     }
 
     @Test
@@ -114,14 +125,14 @@ class ContaControllerTest {
     @Test
     @DisplayName("GET /api/contas/usuario/{usuarioId} - Deve retornar contas por usuário")
     void getContasByUsuarioId_DeveRetornarContasPorUsuario() throws Exception {
-        when(contaService.findByUsuarioId(1L)).thenReturn(contasList);
+        when(contaService.listarContasDoUsuario(1L)).thenReturn(contasList.stream().map(ContaDTO::de).toList());
 
         mockMvc.perform(get("/api/contas/usuario/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.length()").value(2));
 
-        verify(contaService).findByUsuarioId(1L);
+        verify(contaService).listarContasDoUsuario(1L);
     }
 
     @Test
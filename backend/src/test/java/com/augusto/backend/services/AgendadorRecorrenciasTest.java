@@ -0,0 +1,115 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.domain.Movimentacao;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.domain.MovimentacaoRecorrente;
+import com.augusto.backend.domain.MovimentacaoRecorrente.Periodicidade;
+import com.augusto.backend.exception.SaldoInsuficienteException;
+import com.augusto.backend.repository.MovimentacaoRecorrenteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do AgendadorRecorrencias")
+class AgendadorRecorrenciasTest {
+
+    @Mock
+    private MovimentacaoRecorrenteRepository recorrenteRepository;
+
+    @Mock
+    private MovimentacaoService movimentacaoService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private AgendadorRecorrencias agendador;
+    private LocalDateTime vencida;
+
+    @BeforeEach
+    void setUp() {
+        agendador = new AgendadorRecorrencias(recorrenteRepository, movimentacaoService, jdbcTemplate,
+                new SimpleMeterRegistry(), false, Duration.ofSeconds(1), Duration.ofHours(1), 1000, 100, 1);
+        vencida = LocalDateTime.now().minusMinutes(1).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Deve lançar a ocorrência vencida com chave de idempotência e avançar para a próxima")
+    void disparar_DeveLancarEAvancar() {
+        MovimentacaoRecorrente recorrente = recorrente(1L, true, vencida);
+        when(recorrenteRepository.findAllById(List.of(1L))).thenReturn(List.of(recorrente));
+        when(movimentacaoService.save(any(Movimentacao.class), anyString())).thenReturn(new Movimentacao());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] {1});
+
+        agendador.disparar(List.of(1L));
+
+        ArgumentCaptor<Movimentacao> movimentacao = ArgumentCaptor.forClass(Movimentacao.class);
+        verify(movimentacaoService).save(movimentacao.capture(), eq("recorrente-1-" + vencida));
+        assertThat(movimentacao.getValue().getValor()).isEqualByComparingTo("50.00");
+        assertThat(movimentacao.getValue().getData()).isEqualTo(vencida.toLocalDate());
+        assertThat(movimentacao.getValue().getConta().getId()).isEqualTo(10L);
+
+        Object[] avanco = avancos().get(0);
+        assertThat(avanco[0]).isEqualTo(1);
+        assertThat(avanco[1]).isEqualTo(Timestamp.valueOf(vencida.plusMonths(1)));
+        assertThat(avanco[2]).isEqualTo(true);
+        assertThat(avanco[3]).isNull();
+        // Condição do UPDATE: execuções e ocorrência lidas
+        assertThat(avanco[5]).isEqualTo(0);
+        assertThat(avanco[6]).isEqualTo(Timestamp.valueOf(vencida));
+    }
+
+    @Test
+    @DisplayName("Deve pular a ocorrência recusada e registrar o motivo")
+    void disparar_DeveRegistrarOcorrenciaRecusada() {
+        when(recorrenteRepository.findAllById(List.of(1L))).thenReturn(List.of(recorrente(1L, true, vencida)));
+        when(movimentacaoService.save(any(Movimentacao.class), anyString())).thenThrow(new SaldoInsuficienteException());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] {1});
+
+        agendador.disparar(List.of(1L));
+
+        Object[] avanco = avancos().get(0);
+        assertThat(avanco[0]).isEqualTo(1);
+        assertThat(avanco[3]).isEqualTo("Saldo insuficiente");
+    }
+
+    @Test
+    @DisplayName("Deve ignorar recorrências pausadas ou que ainda não venceram")
+    void disparar_DeveIgnorarPausadasENaoVencidas() {
+        when(recorrenteRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(
+                recorrente(1L, false, vencida), recorrente(2L, true, LocalDateTime.now().plusHours(1))));
+
+        agendador.disparar(List.of(1L, 2L));
+
+        verifyNoInteractions(movimentacaoService, jdbcTemplate);
+    }
+
+    private static MovimentacaoRecorrente recorrente(Long id, boolean ativa, LocalDateTime proxima) {
+        return new MovimentacaoRecorrente(id, 10L, TipoMovimentacao.DEPOSITO, new BigDecimal("50.00"),
+                Periodicidade.MENSAL, proxima, null, ativa, 0, proxima, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> avancos() {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture());
+        return captor.getValue();
+    }
+}
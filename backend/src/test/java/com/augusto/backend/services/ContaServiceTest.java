@@ -5,15 +5,24 @@ import com.augusto.backend.domain.Usuario;
 import com.augusto.backend.exception.ResourceNotFoundException;
 import com.augusto.backend.repository.ContaRepository;
 import com.augusto.backend.repository.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -32,6 +41,21 @@ class ContaServiceTest {
     @Mock
     private UsuarioRepository usuarioRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private ObjectProvider<JournalEngine> journalEngine;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private ContaService contaService;
 
@@ -141,7 +165,6 @@ class ContaServiceTest {
         novaConta.setNumeroConta("555555");
         novaConta.setUsuario(usuarioTeste);
 
-        when(contaRepository.findAll()).thenReturn(Arrays.asList(contaTeste));
         when(contaRepository.save(any(Conta.class))).thenReturn(novaConta);
 
         Conta resultado = contaService.save(novaConta);
@@ -149,6 +172,7 @@ class ContaServiceTest {
         assertThat(resultado).isNotNull();
         assertThat(resultado.getSaldo()).isEqualTo(BigDecimal.ZERO);
         verify(contaRepository).save(novaConta);
+        verify(contaRepository, never()).findAll();
     }
 
     @Test
@@ -164,7 +188,6 @@ class ContaServiceTest {
     void createConta_DeveCriarContaComSucesso() {
         String numeroConta = "999999";
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTeste));
-        when(contaRepository.findAll()).thenReturn(Arrays.asList(contaTeste));
         when(contaRepository.save(any(Conta.class))).thenReturn(contaTeste);
 
         Conta resultado = contaService.createConta(1L, numeroConta);
@@ -188,28 +211,69 @@ class ContaServiceTest {
     @DisplayName("Deve lançar exceção ao criar conta com número duplicado")
     void createConta_DeveLancarExcecaoAoCriarContaComNumeroDuplicado() {
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTeste));
-        when(contaRepository.findAll()).thenReturn(Arrays.asList(contaTeste));
+        when(contaRepository.save(any(Conta.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_contas_numero_conta"));
 
         assertThatThrownBy(() -> contaService.createConta(1L, "123456"))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Já existe uma conta com o número: 123456");
     }
 
+    @Test
+    @DisplayName("Deve propagar violações de integridade que não são do número da conta")
+    void createConta_DevePropagarOutrasViolacoesDeIntegridade() {
+        DataIntegrityViolationException violacao =
+                new DataIntegrityViolationException("Column 'usuario_id' cannot be null");
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTeste));
+        when(contaRepository.save(any(Conta.class))).thenThrow(violacao);
+
+        assertThatThrownBy(() -> contaService.createConta(1L, "123456")).isSameAs(violacao);
+    }
+
     @Test
     @DisplayName("Deve atualizar conta com sucesso")
     void update_DeveAtualizarContaComSucesso() {
         Conta contaAtualizada = new Conta();
         contaAtualizada.setNumeroConta("888888");
 
-        when(contaRepository.findById(1L)).thenReturn(Optional.of(contaTeste));
-        when(contaRepository.findAll()).thenReturn(Arrays.asList(contaTeste));
-        when(contaRepository.save(any(Conta.class))).thenReturn(contaTeste);
+        when(contaRepository.existsByNumeroContaAndIdNot("888888", 1L)).thenReturn(false);
+        when(contaRepository.alterarNumeroConta(1L, "888888")).thenReturn(1);
+        when(contaRepository.findByIdSemCache(1L)).thenReturn(Optional.of(contaTeste));
 
         Conta resultado = contaService.update(1L, contaAtualizada);
 
-        assertThat(resultado).isNotNull();
-        verify(contaRepository).findById(1L);
-        verify(contaRepository).save(any(Conta.class));
+        assertThat(resultado).isSameAs(contaTeste);
+        // Só o número é gravado: nada de regravar a entidade lida (e o saldo dela)
+        verify(contaRepository).alterarNumeroConta(1L, "888888");
+        verify(contaRepository, never()).save(any(Conta.class));
+        verify(entityManagerFactory.getCache()).evict(Conta.class, 1L);
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção ao atualizar conta inexistente")
+    void update_DeveLancarExcecaoParaContaInexistente() {
+        Conta contaAtualizada = new Conta();
+        contaAtualizada.setNumeroConta("888888");
+
+        when(contaRepository.alterarNumeroConta(999L, "888888")).thenReturn(0);
+
+        assertThatThrownBy(() -> contaService.update(999L, contaAtualizada))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Conta não encontrada com ID: 999");
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção ao atualizar conta para número já usado por outra conta")
+    void update_DeveLancarExcecaoAoAtualizarParaNumeroDuplicado() {
+        Conta contaAtualizada = new Conta();
+        contaAtualizada.setNumeroConta("789012");
+
+        when(contaRepository.existsByNumeroContaAndIdNot("789012", 1L)).thenReturn(true);
+
+        assertThatThrownBy(() -> contaService.update(1L, contaAtualizada))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Já existe uma conta com o número: 789012");
+        verify(contaRepository, never()).alterarNumeroConta(anyLong(), anyString());
     }
 
     @Test
@@ -238,13 +302,56 @@ class ContaServiceTest {
     void atualizarSaldo_DeveAtualizarSaldoComSucesso() {
         BigDecimal novoSaldo = BigDecimal.valueOf(1500.00);
         
-        when(contaRepository.findById(1L)).thenReturn(Optional.of(contaTeste));
-        when(contaRepository.save(any(Conta.class))).thenReturn(contaTeste);
+        when(contaRepository.findAllByIdParaAtualizacao(List.of(1L))).thenReturn(List.of(contaComSaldo("1000.00")));
+        when(contaRepository.definirSaldo(1L, novoSaldo)).thenReturn(1);
+        when(contaRepository.findByIdSemCache(1L)).thenReturn(Optional.of(contaTeste));
 
         Conta resultado = contaService.atualizarSaldo(1L, novoSaldo);
 
-        assertThat(resultado).isNotNull();
-        verify(contaRepository).save(any(Conta.class));
+        assertThat(resultado).isSameAs(contaTeste);
+        verify(contaRepository).definirSaldo(1L, novoSaldo);
+        verify(contaRepository, never()).save(any(Conta.class));
+        verify(entityManagerFactory.getCache()).evict(Conta.class, 1L);
+    }
+
+    @Test
+    @DisplayName("Atualizar saldo deve publicar a diferença como variação de hoje")
+    void atualizarSaldo_DevePublicarDiferencaDoDia() {
+        when(contaRepository.findAllByIdParaAtualizacao(List.of(1L))).thenReturn(List.of(contaComSaldo("1000.00")));
+        when(contaRepository.findByIdSemCache(1L)).thenReturn(Optional.of(contaTeste));
+
+        contaService.atualizarSaldo(1L, new BigDecimal("700.00"));
+
+        verify(eventPublisher).publishEvent(MovimentacoesRegistradasEvent.de(1L, LocalDate.now(), new BigDecimal("-300.00")));
+    }
+
+    @Test
+    @DisplayName("Atualizar saldo para o mesmo valor não deve publicar variação")
+    void atualizarSaldo_SemDiferencaNaoDevePublicar() {
+        when(contaRepository.findAllByIdParaAtualizacao(List.of(1L))).thenReturn(List.of(contaComSaldo("1000.00")));
+        when(contaRepository.findByIdSemCache(1L)).thenReturn(Optional.of(contaTeste));
+
+        contaService.atualizarSaldo(1L, new BigDecimal("1000"));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção ao atualizar saldo de conta inexistente")
+    void atualizarSaldo_DeveLancarExcecaoParaContaInexistente() {
+        when(contaRepository.findAllByIdParaAtualizacao(List.of(999L))).thenReturn(List.of());
+
+        assertThatThrownBy(() -> contaService.atualizarSaldo(999L, BigDecimal.TEN))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Conta não encontrada com ID: 999");
+        verify(contaRepository, never()).definirSaldo(anyLong(), any());
+    }
+
+    private static Conta contaComSaldo(String saldo) {
+        Conta conta = new Conta();
+        conta.setId(1L);
+        conta.setSaldo(new BigDecimal(saldo));
+        return conta;
     }
 
     @Test
@@ -0,0 +1,134 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.dto.FechamentoResultadoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do FechamentoDiarioService")
+class FechamentoDiarioServiceTest {
+
+    // Dia 1: dia de cobrança da tarifa
+    private static final LocalDate DIA = LocalDate.of(2024, 3, 1);
+
+    @Mock
+    private ContaService contaService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private JdbcTemplate jdbc;
+    private FechamentoDiarioService fechamentoDiarioService;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:fechamento-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table contas (id bigint primary key, saldo decimal(38,2) not null)");
+        jdbc.execute("create table movimentacoes (id bigint auto_increment primary key, tipo varchar(20), "
+                + "valor decimal(38,2), data date, conta_id bigint)");
+        jdbc.execute("create table fechamento_faixas (id bigint auto_increment primary key, data date not null, "
+                + "faixa_inicio bigint not null, faixa_fim bigint not null, concluida_em timestamp not null, "
+                + "unique (data, faixa_inicio))");
+
+        // Faixas de 2 ids: {1}, {2, 3}, {4}
+        jdbc.update("insert into contas (id, saldo) values (1, 1000.00), (2, 5.00), (3, 0.00), (4, 300.00)");
+        // Depósito posterior ao dia fechado: não entra no saldo do dia
+        jdbc.update("insert into movimentacoes (tipo, valor, data, conta_id) values ('DEPOSITO', 200.00, '2024-03-02', 4)");
+        // Último dia fechado: o dia anterior a DIA
+        jdbc.update("insert into fechamento_faixas (data, faixa_inicio, faixa_fim, concluida_em) "
+                + "values (?, 0, 1, current_timestamp)", DIA.minusDays(1));
+
+        fechamentoDiarioService = new FechamentoDiarioService(jdbc, new DataSourceTransactionManager(dataSource),
+                contaService, eventPublisher, null, new SimpleMeterRegistry(), false,
+                new BigDecimal("0.001"), new BigDecimal("10"), 1, 2, 2, 7);
+    }
+
+    @Test
+    @DisplayName("Deve lançar juros sobre o saldo do dia e a tarifa apenas em contas com saldo")
+    void fechar_DeveLancarJurosETarifa() {
+        FechamentoResultadoDTO resultado = fechamentoDiarioService.fechar(DIA).orElseThrow();
+
+        assertThat(resultado.getFaixasProcessadas()).isEqualTo(3);
+        assertThat(resultado.getContasProcessadas()).isEqualTo(4);
+        // 1000 * 0,001 = 1,00; 5 * 0,001 = 0,005 -> 0,00 (HALF_EVEN); 100 * 0,001 = 0,10
+        assertThat(resultado.getTotalJuros()).isEqualByComparingTo("1.10");
+        assertThat(resultado.getTarifasCobradas()).isEqualTo(2);
+        assertThat(resultado.getTarifasNaoCobradas()).isEqualTo(2);
+        assertThat(saldo(1)).isEqualByComparingTo("991.00");
+        assertThat(saldo(2)).isEqualByComparingTo("5.00");
+        assertThat(saldo(4)).isEqualByComparingTo("290.10");
+        assertThat(jdbc.queryForObject("select count(*) from movimentacoes where data = ?", Long.class, DIA))
+                .isEqualTo(4);
+        verify(eventPublisher, times(2)).publishEvent(any(MovimentacoesRegistradasEvent.class));
+        verify(contaService).descartarDoCache(1L);
+        verify(contaService, never()).descartarDoCache(2L);
+    }
+
+    @Test
+    @DisplayName("Deve retomar o fechamento pelas faixas ainda não concluídas")
+    void fechar_DeveRetomarPelasFaixasPendentes() {
+        jdbc.update("insert into fechamento_faixas (data, faixa_inicio, faixa_fim, concluida_em) "
+                + "values (?, 0, 1, current_timestamp)", DIA);
+
+        FechamentoResultadoDTO primeira = fechamentoDiarioService.fechar(DIA).orElseThrow();
+        FechamentoResultadoDTO segunda = fechamentoDiarioService.fechar(DIA).orElseThrow();
+
+        assertThat(primeira.getFaixasJaConcluidas()).isEqualTo(1);
+        assertThat(primeira.getFaixasProcessadas()).isEqualTo(2);
+        assertThat(saldo(1)).isEqualByComparingTo("1000.00");
+        assertThat(segunda.getFaixasProcessadas()).isZero();
+        assertThat(segunda.getFaixasJaConcluidas()).isEqualTo(3);
+        assertThat(saldo(4)).isEqualByComparingTo("290.10");
+    }
+
+    @Test
+    @DisplayName("Deve recusar o fechamento de um dia ainda não encerrado")
+    void fechar_DeveRecusarDiaNaoEncerrado() {
+        assertThatThrownBy(() -> fechamentoDiarioService.fechar(LocalDate.now()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Só é possível fechar dias já encerrados");
+    }
+
+    @Test
+    @DisplayName("Deve recusar um dia anterior ao último fechamento que nunca foi iniciado")
+    void fechar_DeveRecusarDiaAnteriorAoUltimoFechado() {
+        assertThatThrownBy(() -> fechamentoDiarioService.fechar(DIA.minusDays(2)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Dia 2024-02-28 é anterior ao último fechamento (2024-02-29) e não pode mais ser fechado");
+        assertThat(jdbc.queryForObject("select count(*) from movimentacoes", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Sem dia fechado, deve aceitar só os últimos dias-retroativos dias")
+    void fechar_PrimeiroFechamentoDeveRespeitarDiasRetroativos() {
+        jdbc.update("delete from fechamento_faixas");
+
+        assertThatThrownBy(() -> fechamentoDiarioService.fechar(DIA))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("O primeiro fechamento deve ser a partir de");
+        assertThat(fechamentoDiarioService.fechar(LocalDate.now().minusDays(7))).isPresent();
+    }
+
+    private BigDecimal saldo(long contaId) {
+        return jdbc.queryForObject("select saldo from contas where id = ?", BigDecimal.class, contaId);
+    }
+}
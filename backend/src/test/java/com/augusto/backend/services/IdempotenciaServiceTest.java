@@ -0,0 +1,89 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Movimentacao;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.exception.IdempotenciaConflitanteException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Testes do IdempotenciaService")
+class IdempotenciaServiceTest {
+
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transacao;
+    private IdempotenciaService idempotenciaService;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:idempotencia-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table chaves_idempotencia (chave varchar(100) primary key, movimentacao_id bigint not null, "
+                + "criada_em timestamp not null, usuario varchar(255), hash_requisicao varchar(64))");
+        transacao = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        idempotenciaService = new IdempotenciaService(jdbc, 100, Duration.ofHours(1), Duration.ofDays(7), 2);
+    }
+
+    @Test
+    @DisplayName("Deve devolver a movimentação original só para o mesmo usuário e o mesmo corpo")
+    void buscar_DeveConferirUsuarioECorpo() {
+        ChaveIdempotente original = ChaveIdempotente.de("chave-1", "ana@email.com", movimentacao("100.00"));
+        transacao.executeWithoutResult(status -> idempotenciaService.registrar(Map.of(original, 7L)));
+
+        assertThat(idempotenciaService.buscar(ChaveIdempotente.de("chave-1", "ana@email.com", movimentacao("100.0"))))
+                .contains(7L);
+        assertThatThrownBy(() -> idempotenciaService.buscar(
+                ChaveIdempotente.de("chave-1", "ana@email.com", movimentacao("999.00"))))
+                .isInstanceOf(IdempotenciaConflitanteException.class);
+        assertThatThrownBy(() -> idempotenciaService.buscar(
+                ChaveIdempotente.de("chave-1", "bruno@email.com", movimentacao("100.00"))))
+                .isInstanceOf(IdempotenciaConflitanteException.class);
+    }
+
+    @Test
+    @DisplayName("Chaves gravadas sem usuário e hash continuam devolvendo a original")
+    void buscar_ChaveAntigaSemHashDeveDevolverOriginal() {
+        jdbc.update("insert into chaves_idempotencia (chave, movimentacao_id, criada_em) values ('antiga', 3, ?)",
+                Timestamp.valueOf(LocalDateTime.now()));
+
+        assertThat(idempotenciaService.buscar(ChaveIdempotente.de("antiga", "ana@email.com", movimentacao("1.00"))))
+                .contains(3L);
+    }
+
+    @Test
+    @DisplayName("Deve apagar em lotes só as chaves fora da retenção")
+    void limparExpiradas_DeveApagarChavesAntigas() {
+        Timestamp antiga = Timestamp.valueOf(LocalDateTime.now().minusDays(8));
+        for (int i = 0; i < 5; i++) {
+            jdbc.update("insert into chaves_idempotencia (chave, movimentacao_id, criada_em) values (?, ?, ?)",
+                    "antiga-" + i, i, antiga);
+        }
+        jdbc.update("insert into chaves_idempotencia (chave, movimentacao_id, criada_em) values ('recente', 9, ?)",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(1)));
+
+        assertThat(idempotenciaService.limparExpiradas()).isEqualTo(5);
+        assertThat(jdbc.queryForList("select chave from chaves_idempotencia", String.class)).containsExactly("recente");
+    }
+
+    private static Movimentacao movimentacao(String valor) {
+        Conta conta = new Conta();
+        conta.setId(1L);
+        return new Movimentacao(null, TipoMovimentacao.DEPOSITO, new BigDecimal(valor), LocalDate.of(2024, 1, 15), conta);
+    }
+}
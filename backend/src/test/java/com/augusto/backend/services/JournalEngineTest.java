@@ -0,0 +1,194 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Movimentacao;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do JournalEngine")
+class JournalEngineTest {
+
+    private static final LocalDate DIA = LocalDate.of(2024, 3, 1);
+
+    @Mock
+    private ContaService contaService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @TempDir
+    Path diretorio;
+
+    private JdbcTemplate jdbc;
+    private DataSourceTransactionManager transactionManager;
+    private IdempotenciaService idempotenciaService;
+    private final List<JournalEngine> abertos = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:journal-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table contas (id bigint primary key, saldo decimal(38,2) not null)");
+        jdbc.execute("create table movimentacoes (id bigint auto_increment primary key, tipo varchar(20), "
+                + "valor decimal(38,2), data date, conta_id bigint)");
+        jdbc.execute("create table chaves_idempotencia (chave varchar(100) primary key, movimentacao_id bigint not null, "
+                + "criada_em timestamp not null, usuario varchar(255), hash_requisicao varchar(64))");
+        jdbc.execute("create table journal_checkpoint (id int primary key, ultimo_seq bigint not null)");
+        jdbc.update("insert into contas (id, saldo) values (1, 100.00), (2, 0.00)");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        idempotenciaService = new IdempotenciaService(jdbc, 100, Duration.ofHours(1), Duration.ofDays(7), 1000);
+
+        // Três lançamentos drenados; depois o banco volta ao estado anterior à drenagem,
+        // como se o processo tivesse parado antes do commit do lote
+        JournalEngine journal = abrir();
+        journal.postar(movimentacao(1L, TipoMovimentacao.DEPOSITO, "10.00"),
+                ChaveIdempotente.de("chave-1", "ana@email.com", movimentacao(1L, TipoMovimentacao.DEPOSITO, "10.00")));
+        journal.postar(movimentacao(1L, TipoMovimentacao.SAQUE, "30.00"), null);
+        journal.postar(movimentacao(2L, TipoMovimentacao.DEPOSITO, "5.00"), null);
+        fechar(journal);
+        assertThat(saldo(1)).isEqualByComparingTo("80.00");
+
+        jdbc.update("delete from movimentacoes");
+        jdbc.update("delete from chaves_idempotencia");
+        jdbc.update("update contas set saldo = case id when 1 then 100.00 else 0.00 end");
+        jdbc.update("update journal_checkpoint set ultimo_seq = 0");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (JournalEngine journal : abertos) {
+            journal.encerrar();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve regravar na subida os registros posteriores ao checkpoint, com chave, usuário e hash")
+    void subida_DeveRegravarRegistrosDepoisDoCheckpoint() {
+        abrir();
+
+        assertThat(saldo(1)).isEqualByComparingTo("80.00");
+        assertThat(saldo(2)).isEqualByComparingTo("5.00");
+        assertThat(jdbc.queryForObject("select count(*) from movimentacoes", Long.class)).isEqualTo(3);
+        assertThat(jdbc.queryForObject("select ultimo_seq from journal_checkpoint", Long.class)).isEqualTo(3);
+        Map<String, Object> chave = jdbc.queryForMap("select usuario, hash_requisicao from chaves_idempotencia");
+        assertThat(chave.get("USUARIO")).isEqualTo("ana@email.com");
+        assertThat((String) chave.get("HASH_REQUISICAO")).hasSize(64);
+    }
+
+    @Test
+    @DisplayName("Deve encerrar a leitura no registro com CRC inválido")
+    void subida_DevePararNoRegistroCorrompido() throws IOException {
+        List<Long> posicoes = posicoesDosRegistros();
+        // Um byte do conteúdo do segundo registro (depois do campo de tamanho)
+        alterar(posicoes.get(1) + 4 + 9);
+
+        abrir();
+
+        assertThat(jdbc.queryForObject("select count(*) from movimentacoes", Long.class)).isEqualTo(1);
+        assertThat(saldo(1)).isEqualByComparingTo("110.00");
+        assertThat(saldo(2)).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    @DisplayName("Deve ignorar um último registro gravado pela metade")
+    void subida_DeveIgnorarRegistroIncompletoNoFim() throws IOException {
+        List<Long> posicoes = posicoesDosRegistros();
+        try (FileChannel canal = FileChannel.open(segmento(), StandardOpenOption.WRITE)) {
+            canal.truncate(posicoes.get(2) + 10);
+        }
+
+        abrir();
+
+        assertThat(jdbc.queryForObject("select count(*) from movimentacoes", Long.class)).isEqualTo(2);
+        assertThat(saldo(1)).isEqualByComparingTo("80.00");
+        assertThat(saldo(2)).isEqualByComparingTo("0.00");
+    }
+
+    private JournalEngine abrir() {
+        JournalEngine journal = new JournalEngine(jdbc, transactionManager, eventPublisher, idempotenciaService,
+                contaService, diretorio, DataSize.ofKilobytes(64), Duration.ofMillis(1), DataSize.ofKilobytes(1), 100);
+        journal.afterSingletonsInstantiated();
+        abertos.add(journal);
+        return journal;
+    }
+
+    private void fechar(JournalEngine journal) {
+        try {
+            journal.encerrar();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        abertos.remove(journal);
+    }
+
+    private Path segmento() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.getFileName().toString().startsWith("journal-"))
+                    .findFirst()
+                    .orElseThrow();
+        }
+    }
+
+    /** Posição de cada registro no segmento: tamanho (int), conteúdo e CRC (int). */
+    private List<Long> posicoesDosRegistros() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segmento()));
+        List<Long> posicoes = new ArrayList<>();
+        int tamanho;
+        while ((tamanho = buffer.getInt(buffer.position())) > 0) {
+            posicoes.add((long) buffer.position());
+            buffer.position(buffer.position() + 4 + tamanho + 4);
+        }
+        assertThat(posicoes).hasSize(3);
+        return posicoes;
+    }
+
+    private void alterar(long posicao) throws IOException {
+        try (FileChannel canal = FileChannel.open(segmento(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer umByte = ByteBuffer.allocate(1);
+            canal.read(umByte, posicao);
+            umByte.put(0, (byte) (umByte.get(0) ^ 0xFF)).rewind();
+            canal.write(umByte, posicao);
+        }
+    }
+
+    private BigDecimal saldo(long contaId) {
+        return jdbc.queryForObject("select saldo from contas where id = ?", BigDecimal.class, contaId);
+    }
+
+    private static Movimentacao movimentacao(Long contaId, TipoMovimentacao tipo, String valor) {
+        Conta conta = new Conta();
+        conta.setId(contaId);
+        return new Movimentacao(null, tipo, new BigDecimal(valor), DIA, conta);
+    }
+}
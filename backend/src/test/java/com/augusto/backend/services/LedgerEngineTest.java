@@ -0,0 +1,158 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Movimentacao;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.repository.ContaRepository;
+import com.augusto.backend.repository.MovimentacaoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do LedgerEngine")
+class LedgerEngineTest {
+
+    @Mock
+    private ContaRepository contaRepository;
+
+    @Mock
+    private MovimentacaoRepository movimentacaoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private IdempotenciaService idempotenciaService;
+
+    private LedgerEngine ledger;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (ledger != null) {
+            ledger.encerrar();
+        }
+    }
+
+    @Test
+    @DisplayName("Lote que esbarra em lock deve ser regravado do zero")
+    void postar_DeveRegravarLoteDepoisDeFalhaDeLock() {
+        Conta[] lidas = new Conta[2];
+        when(contaRepository.findAllByIdParaAtualizacao(anyCollection()))
+                .thenAnswer(invocacao -> List.of(lidas[0] = conta("100.00")))
+                .thenAnswer(invocacao -> List.of(lidas[1] = conta("100.00")));
+        when(movimentacaoRepository.saveAll(anyList()))
+                .thenAnswer(invocacao -> {
+                    // O INSERT atribui o id antes de o commit falhar
+                    List<Movimentacao> aceitas = invocacao.getArgument(0);
+                    aceitas.forEach(movimentacao -> movimentacao.setId(99L));
+                    throw new PessimisticLockingFailureException("Deadlock found when trying to get lock");
+                })
+                .thenAnswer(invocacao -> invocacao.getArgument(0));
+        ledger = novoLedger(Duration.ofSeconds(5));
+
+        Movimentacao gravada = ledger.postar(movimentacao("30.00"), null);
+
+        assertThat(gravada).isNotNull();
+        assertThat(gravada.getId()).isNull();
+        assertThat(lidas[1].getSaldo()).isEqualByComparingTo("70.00");
+        verify(movimentacaoRepository, times(2)).saveAll(anyList());
+        verify(eventPublisher, times(1)).publishEvent(any(MovimentacoesRegistradasEvent.class));
+    }
+
+    @Test
+    @DisplayName("Falha de lock em todas as tentativas deve chegar a quem postou")
+    void postar_DeveDesistirDepoisDasTentativas() {
+        when(contaRepository.findAllByIdParaAtualizacao(anyCollection()))
+                .thenThrow(new PessimisticLockingFailureException("Lock wait timeout exceeded"));
+        ledger = novoLedger(Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> ledger.postar(movimentacao("30.00"), null))
+                .isInstanceOf(PessimisticLockingFailureException.class);
+        verify(contaRepository, times(3)).findAllByIdParaAtualizacao(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Espera esgotada deve virar 503 e tirar da fila o pedido ainda não processado")
+    void postar_DeveLimitarAEsperaPeloLote() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch travado = new CountDownLatch(1);
+        when(contaRepository.findAllByIdParaAtualizacao(anyCollection())).thenAnswer(invocacao -> {
+            travado.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return List.of(conta("100.00"));
+        });
+        ledger = novoLedger(Duration.ofMillis(200));
+
+        CompletableFuture<Movimentacao> primeiro = CompletableFuture.supplyAsync(() -> ledger.postar(movimentacao("10.00"), null));
+        assertThat(travado.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> ledger.postar(movimentacao("20.00"), null))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining("não processada");
+        assertThatThrownBy(primeiro::join)
+                .hasCauseInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining("sem confirmação");
+
+        liberar.countDown();
+        // Só o primeiro pedido chegou a ser gravado
+        verify(movimentacaoRepository, timeout(5000)).saveAll(anyList());
+        verify(contaRepository, times(1)).findAllByIdParaAtualizacao(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Worker que morre por um Error deve falhar o lote e ser substituído")
+    void postar_DeveSubstituirWorkerMorto() {
+        when(contaRepository.findAllByIdParaAtualizacao(anyCollection()))
+                .thenThrow(new StackOverflowError())
+                .thenAnswer(invocacao -> List.of(conta("100.00")));
+        when(movimentacaoRepository.saveAll(anyList())).thenAnswer(invocacao -> invocacao.getArgument(0));
+        ledger = novoLedger(Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> ledger.postar(movimentacao("10.00"), null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasCauseInstanceOf(StackOverflowError.class);
+
+        assertThat(ledger.postar(movimentacao("10.00"), null)).isNotNull();
+    }
+
+    private LedgerEngine novoLedger(Duration esperaMaxima) {
+        return new LedgerEngine(contaRepository, movimentacaoRepository, transactionManager, eventPublisher,
+                idempotenciaService, 1, 16, 16, esperaMaxima);
+    }
+
+    private static Conta conta(String saldo) {
+        Conta conta = new Conta();
+        conta.setId(1L);
+        conta.setSaldo(new BigDecimal(saldo));
+        return conta;
+    }
+
+    private static Movimentacao movimentacao(String valor) {
+        Conta referencia = new Conta();
+        referencia.setId(1L);
+        return new Movimentacao(null, TipoMovimentacao.SAQUE, new BigDecimal(valor), LocalDate.of(2024, 1, 15), referencia);
+    }
+}
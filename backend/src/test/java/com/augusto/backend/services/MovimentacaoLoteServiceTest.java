@@ -0,0 +1,152 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.dto.MovimentacaoLoteResultadoDTO;
+import com.augusto.backend.dto.MovimentacaoRequestDTO;
+import com.augusto.backend.repository.ContaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do MovimentacaoLoteService")
+class MovimentacaoLoteServiceTest {
+
+    private static final LocalDate DIA = LocalDate.of(2024, 1, 15);
+
+    @Mock
+    private ContaRepository contaRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Deve devolver um resultado por item, na ordem do lote")
+    void salvarLote_DeveDevolverResultadoPorItem() {
+        when(contaRepository.findAllByIdParaAtualizacao(anyCollection())).thenReturn(List.of(conta(1L, "0.00")));
+
+        List<MovimentacaoLoteResultadoDTO> resultados = servico(5000).salvarLote(Arrays.asList(
+                item(1L, TipoMovimentacao.DEPOSITO, "10.00"),
+                item(null, TipoMovimentacao.DEPOSITO, "10.00"),
+                item(1L, TipoMovimentacao.DEPOSITO, "-1.00"),
+                new MovimentacaoRequestDTO(1L, TipoMovimentacao.DEPOSITO, BigDecimal.TEN, null),
+                item(2L, TipoMovimentacao.DEPOSITO, "10.00"),
+                null));
+
+        assertThat(resultados).extracting(MovimentacaoLoteResultadoDTO::getIndice).containsExactly(0, 1, 2, 3, 4, 5);
+        assertThat(resultados).extracting(MovimentacaoLoteResultadoDTO::isSucesso)
+                .containsExactly(true, false, false, false, false, false);
+        assertThat(resultados).extracting(MovimentacaoLoteResultadoDTO::getMensagem).containsExactly(
+                null, "ID da conta é obrigatório", "Valor deve ser positivo", "Data é obrigatória",
+                "Conta não encontrada", "ID da conta é obrigatório");
+    }
+
+    @Test
+    @DisplayName("Bloco de 5000 itens deve travar as contas uma vez e somar os saldos em memória")
+    void salvarLote_DeveCompensarSaldosNoBloco() {
+        Conta conta = conta(1L, "0.00");
+        when(contaRepository.findAllByIdParaAtualizacao(anyCollection())).thenReturn(List.of(conta));
+        List<MovimentacaoRequestDTO> itens = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            itens.add(item(1L, TipoMovimentacao.DEPOSITO, "10.00"));
+            itens.add(item(1L, TipoMovimentacao.SAQUE, "5.00"));
+        }
+
+        List<MovimentacaoLoteResultadoDTO> resultados = servico(5000).salvarLote(itens);
+
+        assertThat(resultados).hasSize(5000).allMatch(MovimentacaoLoteResultadoDTO::isSucesso);
+        assertThat(conta.getSaldo()).isEqualByComparingTo("12500.00");
+        verify(contaRepository, times(1)).findAllByIdParaAtualizacao(anyCollection());
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.captor();
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), inserts.capture());
+        assertThat(inserts.getValue()).hasSize(5000);
+        // Uma única variação líquida por conta e dia
+        verify(eventPublisher).publishEvent(MovimentacoesRegistradasEvent.de(1L, DIA, new BigDecimal("12500.00")));
+    }
+
+    @Test
+    @DisplayName("Saque sem saldo no meio do bloco deve ser recusado sem afetar os demais itens")
+    void salvarLote_DeveRecusarSaqueSemSaldoNoBloco() {
+        Conta conta = conta(1L, "100.00");
+        when(contaRepository.findAllByIdParaAtualizacao(anyCollection())).thenReturn(List.of(conta));
+
+        List<MovimentacaoLoteResultadoDTO> resultados = servico(5000).salvarLote(List.of(
+                item(1L, TipoMovimentacao.SAQUE, "80.00"),
+                item(1L, TipoMovimentacao.SAQUE, "50.00"),
+                item(1L, TipoMovimentacao.DEPOSITO, "40.00"),
+                item(1L, TipoMovimentacao.SAQUE, "50.00")));
+
+        assertThat(resultados).extracting(MovimentacaoLoteResultadoDTO::isSucesso).containsExactly(true, false, true, true);
+        assertThat(resultados.get(1).getMensagem()).isEqualTo("Saldo insuficiente");
+        assertThat(conta.getSaldo()).isEqualByComparingTo("10.00");
+        assertThat(meterRegistry.get("banco.movimentacao.saldo.insuficiente").tag("origem", "lote").counter().count())
+                .isEqualTo(1.0);
+        verify(eventPublisher).publishEvent(MovimentacoesRegistradasEvent.de(1L, DIA, new BigDecimal("-90.00")));
+    }
+
+    @Test
+    @DisplayName("Falha ao gravar um bloco deve marcar só os itens dele e seguir para o próximo")
+    void salvarLote_FalhaDeUmBlocoNaoDeveAfetarOsOutros() {
+        when(contaRepository.findAllByIdParaAtualizacao(anyCollection()))
+                .thenAnswer(invocacao -> List.of(conta(1L, "0.00")));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"))
+                .thenReturn(new int[] {1, 1});
+
+        List<MovimentacaoLoteResultadoDTO> resultados = servico(2).salvarLote(List.of(
+                item(1L, TipoMovimentacao.DEPOSITO, "10.00"),
+                item(1L, TipoMovimentacao.DEPOSITO, "20.00"),
+                item(1L, TipoMovimentacao.DEPOSITO, "30.00"),
+                item(1L, TipoMovimentacao.DEPOSITO, "40.00")));
+
+        assertThat(resultados).extracting(MovimentacaoLoteResultadoDTO::isSucesso).containsExactly(false, false, true, true);
+        assertThat(resultados.get(0).getMensagem()).startsWith("Falha ao gravar o bloco").contains("Duplicate entry");
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+        // Só o bloco gravado publica variações
+        verify(eventPublisher, times(1)).publishEvent(MovimentacoesRegistradasEvent.de(1L, DIA, new BigDecimal("70.00")));
+    }
+
+    private MovimentacaoLoteService servico(int tamanhoBloco) {
+        return new MovimentacaoLoteService(contaRepository, jdbcTemplate, transactionManager, eventPublisher, null,
+                meterRegistry, tamanhoBloco);
+    }
+
+    private static Conta conta(Long id, String saldo) {
+        Conta conta = new Conta();
+        conta.setId(id);
+        conta.setSaldo(new BigDecimal(saldo));
+        return conta;
+    }
+
+    private static MovimentacaoRequestDTO item(Long contaId, TipoMovimentacao tipo, String valor) {
+        return new MovimentacaoRequestDTO(contaId, tipo, new BigDecimal(valor), DIA);
+    }
+}
@@ -0,0 +1,359 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.domain.Conta;
+import com.augusto.backend.domain.Movimentacao;
+import com.augusto.backend.domain.Movimentacao.TipoMovimentacao;
+import com.augusto.backend.domain.MovimentacaoArquivada;
+import com.augusto.backend.dto.ExtratoPaginaDTO;
+import com.augusto.backend.dto.MovimentacaoDTO;
+import com.augusto.backend.dto.TransferenciaDTO;
+import com.augusto.backend.exception.IdempotenciaConflitanteException;
+import com.augusto.backend.exception.SaldoInsuficienteException;
+import com.augusto.backend.repository.ContaRepository;
+import com.augusto.backend.repository.MovimentacaoArquivadaRepository;
+import com.augusto.backend.repository.MovimentacaoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do MovimentacaoService")
+class MovimentacaoServiceTest {
+
+    @Mock
+    private MovimentacaoRepository movimentacaoRepository;
+
+    @Mock
+    private MovimentacaoArquivadaRepository movimentacaoArquivadaRepository;
+
+    @Mock
+    private ArquivamentoService arquivamentoService;
+
+    @Mock
+    private ContaRepository contaRepository;
+
+    @Mock
+    private ContaService contaService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private IdempotenciaService idempotenciaService;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private MovimentacaoService movimentacaoService;
+
+    private Conta contaTeste;
+
+    @BeforeEach
+    void setUp() {
+        contaTeste = new Conta();
+        contaTeste.setId(1L);
+        contaTeste.setNumeroConta("123456");
+        contaTeste.setSaldo(BigDecimal.valueOf(1000.00));
+    }
+
+    private Movimentacao novaMovimentacao(TipoMovimentacao tipo, String valor) {
+        Conta referencia = new Conta();
+        referencia.setId(1L);
+        return new Movimentacao(null, tipo, new BigDecimal(valor), LocalDate.of(2024, 1, 15), referencia);
+    }
+
+    private MovimentacaoDTO itemDoExtrato(Long id, String valor) {
+        return new MovimentacaoDTO(id, TipoMovimentacao.DEPOSITO, new BigDecimal(valor), LocalDate.of(2024, 1, 15), null, null);
+    }
+
+    @Test
+    @DisplayName("Depósito deve somar o valor ao saldo com um único UPDATE")
+    void save_DepositoDeveAjustarSaldoAtomicamente() {
+        Movimentacao deposito = novaMovimentacao(TipoMovimentacao.DEPOSITO, "100.00");
+        when(contaRepository.ajustarSaldo(1L, new BigDecimal("100.00"))).thenReturn(1);
+        when(contaRepository.findByIdSemCache(1L)).thenReturn(Optional.of(contaTeste));
+        when(movimentacaoRepository.save(deposito)).thenReturn(deposito);
+
+        Movimentacao resultado = movimentacaoService.save(deposito);
+
+        assertThat(resultado.getConta()).isEqualTo(contaTeste);
+        verify(contaRepository, never()).save(any(Conta.class));
+        verify(contaService).descartarDoCache(1L);
+        verify(eventPublisher).publishEvent(MovimentacoesRegistradasEvent.de(1L, LocalDate.of(2024, 1, 15),
+                new BigDecimal("100.00")));
+    }
+
+    @Test
+    @DisplayName("Saque deve usar o débito condicional")
+    void save_SaqueDeveDebitarSomenteComSaldo() {
+        Movimentacao saque = novaMovimentacao(TipoMovimentacao.SAQUE, "200.00");
+        when(contaRepository.debitarSeHouverSaldo(1L, new BigDecimal("200.00"))).thenReturn(1);
+        when(contaRepository.findByIdSemCache(1L)).thenReturn(Optional.of(contaTeste));
+        when(movimentacaoRepository.save(saque)).thenReturn(saque);
+
+        assertThat(movimentacaoService.save(saque)).isNotNull();
+        verify(contaRepository, never()).ajustarSaldo(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Saque sem saldo deve lançar exceção sem gravar a movimentação")
+    void save_SaqueSemSaldoDeveLancarExcecao() {
+        Movimentacao saque = novaMovimentacao(TipoMovimentacao.SAQUE, "5000.00");
+        when(contaRepository.debitarSeHouverSaldo(1L, new BigDecimal("5000.00"))).thenReturn(0);
+        when(contaRepository.existsById(1L)).thenReturn(true);
+
+        assertThatThrownBy(() -> movimentacaoService.save(saque))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Saldo insuficiente");
+        verify(movimentacaoRepository, never()).save(any(Movimentacao.class));
+        assertThat(meterRegistry.get("banco.movimentacao.saldo.insuficiente").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Movimentação em conta inexistente deve retornar null")
+    void save_ContaInexistenteDeveRetornarNull() {
+        Movimentacao deposito = novaMovimentacao(TipoMovimentacao.DEPOSITO, "10.00");
+        when(contaRepository.ajustarSaldo(1L, new BigDecimal("10.00"))).thenReturn(0);
+
+        assertThat(movimentacaoService.save(deposito)).isNull();
+        verify(movimentacaoRepository, never()).save(any(Movimentacao.class));
+    }
+
+    @Test
+    @DisplayName("Excluir movimentação deve estornar o valor no saldo")
+    void deleteById_DeveEstornarSaldo() {
+        Movimentacao saque = novaMovimentacao(TipoMovimentacao.SAQUE, "200.00");
+        saque.setId(7L);
+        when(movimentacaoRepository.findById(7L)).thenReturn(Optional.of(saque));
+
+        movimentacaoService.deleteById(7L);
+
+        verify(movimentacaoRepository).delete(saque);
+        verify(contaRepository).ajustarSaldo(1L, new BigDecimal("200.00"));
+        verify(contaService).descartarDoCache(1L);
+        verify(eventPublisher).publishEvent(MovimentacoesRegistradasEvent.de(1L, LocalDate.of(2024, 1, 15),
+                new BigDecimal("200.00")));
+    }
+
+    @Test
+    @DisplayName("Excluir movimentação arquivada deve ser rejeitado")
+    void deleteById_DeveRejeitarMovimentacaoArquivada() {
+        when(movimentacaoRepository.findById(7L)).thenReturn(Optional.empty());
+        when(arquivamentoService.precisaDoArquivo(null)).thenReturn(true);
+        when(movimentacaoArquivadaRepository.existsById(7L)).thenReturn(true);
+
+        assertThatThrownBy(() -> movimentacaoService.deleteById(7L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("arquivada");
+        verify(contaRepository, never()).ajustarSaldo(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Alterar movimentação arquivada deve ser rejeitado em vez de responder como inexistente")
+    void update_DeveRejeitarMovimentacaoArquivada() {
+        Movimentacao alteracao = novaMovimentacao(TipoMovimentacao.DEPOSITO, "10.00");
+        when(movimentacaoRepository.findById(7L)).thenReturn(Optional.empty());
+        when(arquivamentoService.precisaDoArquivo(null)).thenReturn(true);
+        when(movimentacaoArquivadaRepository.existsById(7L)).thenReturn(true);
+
+        assertThatThrownBy(() -> movimentacaoService.update(7L, alteracao))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("arquivada");
+        verify(movimentacaoRepository, never()).save(any(Movimentacao.class));
+    }
+
+    @Test
+    @DisplayName("Alterar movimentação inexistente deve retornar null")
+    void update_MovimentacaoInexistenteDeveRetornarNull() {
+        when(movimentacaoRepository.findById(7L)).thenReturn(Optional.empty());
+
+        assertThat(movimentacaoService.update(7L, novaMovimentacao(TipoMovimentacao.DEPOSITO, "10.00"))).isNull();
+    }
+
+    @Test
+    @DisplayName("Chave de idempotência já usada deve devolver a movimentação original sem lançar de novo")
+    void save_ChaveRepetidaDeveDevolverOriginal() {
+        Movimentacao original = novaMovimentacao(TipoMovimentacao.DEPOSITO, "100.00");
+        original.setId(7L);
+        Movimentacao repeticao = novaMovimentacao(TipoMovimentacao.DEPOSITO, "100.00");
+        when(idempotenciaService.buscar(ChaveIdempotente.de("chave-1", "ana@email.com", repeticao)))
+                .thenReturn(Optional.of(7L));
+        when(movimentacaoRepository.findById(7L)).thenReturn(Optional.of(original));
+
+        Movimentacao resultado = movimentacaoService.save(repeticao, "chave-1", "ana@email.com");
+
+        assertThat(resultado).isSameAs(original);
+        verify(contaRepository, never()).ajustarSaldo(anyLong(), any());
+        verify(movimentacaoRepository, never()).save(any(Movimentacao.class));
+    }
+
+    @Test
+    @DisplayName("Chave gravada por uma tentativa concorrente deve devolver a movimentação dela")
+    void save_ChaveGravadaEmParaleloDeveDevolverOriginal() {
+        Movimentacao deposito = novaMovimentacao(TipoMovimentacao.DEPOSITO, "100.00");
+        Movimentacao original = novaMovimentacao(TipoMovimentacao.DEPOSITO, "100.00");
+        original.setId(7L);
+        ChaveIdempotente chave = ChaveIdempotente.de("chave-1", null, deposito);
+        when(idempotenciaService.buscar(chave)).thenReturn(Optional.empty(), Optional.of(7L));
+        when(contaRepository.ajustarSaldo(1L, new BigDecimal("100.00"))).thenReturn(1);
+        when(contaRepository.findByIdSemCache(1L)).thenReturn(Optional.of(contaTeste));
+        when(movimentacaoRepository.save(deposito)).thenAnswer(invocacao -> {
+            deposito.setId(8L);
+            return deposito;
+        });
+        doThrow(new DuplicateKeyException("chave-1")).when(idempotenciaService).registrar(Map.of(chave, 8L));
+        when(movimentacaoRepository.findById(7L)).thenReturn(Optional.of(original));
+
+        assertThat(movimentacaoService.save(deposito, "chave-1")).isSameAs(original);
+    }
+
+    @Test
+    @DisplayName("Chave cuja movimentação foi excluída deve ser recusada sem lançar de novo")
+    void save_ChaveDeMovimentacaoExcluidaDeveSerRecusada() {
+        Movimentacao repeticao = novaMovimentacao(TipoMovimentacao.DEPOSITO, "100.00");
+        when(idempotenciaService.buscar(ChaveIdempotente.de("chave-1", "ana@email.com", repeticao)))
+                .thenReturn(Optional.of(7L));
+        when(movimentacaoRepository.findById(7L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> movimentacaoService.save(repeticao, "chave-1", "ana@email.com"))
+                .isInstanceOf(IdempotenciaConflitanteException.class)
+                .hasMessageContaining("excluída");
+        verify(contaRepository, never()).ajustarSaldo(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Chave repetida de movimentação arquivada deve devolver a arquivada")
+    void save_ChaveDeMovimentacaoArquivadaDeveDevolverArquivada() {
+        Movimentacao repeticao = novaMovimentacao(TipoMovimentacao.DEPOSITO, "100.00");
+        MovimentacaoArquivada arquivada = new MovimentacaoArquivada(7L, TipoMovimentacao.DEPOSITO,
+                new BigDecimal("100.00"), LocalDate.of(2024, 1, 15), contaTeste, null);
+        when(idempotenciaService.buscar(ChaveIdempotente.de("chave-1", "ana@email.com", repeticao)))
+                .thenReturn(Optional.of(7L));
+        when(movimentacaoRepository.findById(7L)).thenReturn(Optional.empty());
+        when(arquivamentoService.precisaDoArquivo(null)).thenReturn(true);
+        when(movimentacaoArquivadaRepository.findById(7L)).thenReturn(Optional.of(arquivada));
+
+        assertThat(movimentacaoService.save(repeticao, "chave-1", "ana@email.com").getId()).isEqualTo(7L);
+        verify(contaRepository, never()).ajustarSaldo(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Transferência deve travar as duas contas juntas e gravar o par de movimentações ligado")
+    void transferir_DeveGravarParLigado() {
+        Conta destino = new Conta();
+        destino.setId(2L);
+        destino.setSaldo(new BigDecimal("50.00"));
+        when(contaRepository.findAllByIdParaAtualizacao(List.of(1L, 2L))).thenReturn(List.of(contaTeste, destino));
+
+        TransferenciaDTO resultado = movimentacaoService.transferir(1L, 2L, new BigDecimal("300.00"),
+                LocalDate.of(2024, 1, 15));
+
+        assertThat(contaTeste.getSaldo()).isEqualByComparingTo("700.00");
+        assertThat(destino.getSaldo()).isEqualByComparingTo("350.00");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Movimentacao>> gravadas = ArgumentCaptor.forClass(List.class);
+        verify(movimentacaoRepository).saveAll(gravadas.capture());
+        assertThat(gravadas.getValue())
+                .extracting(Movimentacao::getTipo, Movimentacao::getConta, Movimentacao::getTransferenciaId)
+                .containsExactly(tuple(TipoMovimentacao.SAQUE, contaTeste, resultado.getTransferenciaId()),
+                        tuple(TipoMovimentacao.DEPOSITO, destino, resultado.getTransferenciaId()));
+        verify(eventPublisher).publishEvent(any(MovimentacoesRegistradasEvent.class));
+    }
+
+    @Test
+    @DisplayName("Transferência sem saldo na origem não deve gravar nada")
+    void transferir_SemSaldoDeveLancarExcecao() {
+        Conta destino = new Conta();
+        destino.setId(2L);
+        when(contaRepository.findAllByIdParaAtualizacao(List.of(2L, 1L))).thenReturn(List.of(contaTeste, destino));
+
+        assertThatThrownBy(() -> movimentacaoService.transferir(2L, 1L, new BigDecimal("0.01"), LocalDate.of(2024, 1, 15)))
+                .isInstanceOf(SaldoInsuficienteException.class);
+        verify(movimentacaoRepository, never()).saveAll(any());
+        assertThat(meterRegistry.get("banco.movimentacao.saldo.insuficiente").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Transferência para a própria conta deve ser rejeitada")
+    void transferir_MesmaContaDeveSerRejeitada() {
+        assertThatThrownBy(() -> movimentacaoService.transferir(1L, 1L, BigDecimal.TEN, LocalDate.of(2024, 1, 15)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Conta de origem e de destino devem ser diferentes");
+    }
+
+    @Test
+    @DisplayName("Extrato deve devolver cursor da última linha quando há próxima página")
+    void findExtrato_DeveDevolverCursorParaProximaPagina() {
+        MovimentacaoDTO m3 = itemDoExtrato(3L, "30.00");
+        MovimentacaoDTO m2 = itemDoExtrato(2L, "20.00");
+        MovimentacaoDTO m1 = itemDoExtrato(1L, "10.00");
+        when(movimentacaoRepository.findExtrato(eq(1L), any(), any(), eq(Limit.of(3))))
+                .thenReturn(List.of(m3, m2, m1));
+        when(movimentacaoRepository.findExtratoAposCursor(eq(1L), any(), any(),
+                eq(LocalDate.of(2024, 1, 15)), eq(2L), eq(Limit.of(3))))
+                .thenReturn(List.of(m1));
+
+        ExtratoPaginaDTO primeira = movimentacaoService.findExtrato(1L, null, null, 2, null);
+        ExtratoPaginaDTO segunda = movimentacaoService.findExtrato(1L, null, null, 2, primeira.getProximoCursor());
+
+        assertThat(primeira.getMovimentacoes()).containsExactly(m3, m2);
+        assertThat(primeira.getProximoCursor()).isNotNull();
+        assertThat(segunda.getMovimentacoes()).containsExactly(m1);
+        assertThat(segunda.getProximoCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Extrato anterior ao limite do arquivo deve mesclar movimentações arquivadas")
+    void findExtrato_DeveMesclarMovimentacoesArquivadas() {
+        MovimentacaoDTO atual = itemDoExtrato(5L, "50.00");
+        MovimentacaoDTO retroativa = new MovimentacaoDTO(4L, TipoMovimentacao.DEPOSITO, new BigDecimal("40.00"),
+                LocalDate.of(2023, 6, 10), null, null);
+        MovimentacaoDTO arquivada = new MovimentacaoDTO(3L, TipoMovimentacao.DEPOSITO, new BigDecimal("30.00"),
+                LocalDate.of(2023, 6, 20), null, null);
+        MovimentacaoDTO maisAntiga = new MovimentacaoDTO(2L, TipoMovimentacao.DEPOSITO, new BigDecimal("20.00"),
+                LocalDate.of(2023, 5, 1), null, null);
+        when(arquivamentoService.precisaDoArquivo(LocalDate.of(2023, 1, 1))).thenReturn(true);
+        when(movimentacaoRepository.findExtrato(eq(1L), any(), any(), eq(Limit.of(3))))
+                .thenReturn(List.of(atual, retroativa));
+        when(movimentacaoArquivadaRepository.findExtrato(eq(1L), any(), any(), eq(Limit.of(3))))
+                .thenReturn(List.of(arquivada, maisAntiga));
+
+        ExtratoPaginaDTO pagina = movimentacaoService.findExtrato(1L, LocalDate.of(2023, 1, 1), null, 2, null);
+
+        assertThat(pagina.getMovimentacoes()).containsExactly(atual, arquivada);
+        assertThat(pagina.getProximoCursor()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Extrato deve rejeitar cursor inválido")
+    void findExtrato_DeveRejeitarCursorInvalido() {
+        assertThatThrownBy(() -> movimentacaoService.findExtrato(1L, null, null, 10, "nao-e-cursor"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor inválido");
+    }
+}
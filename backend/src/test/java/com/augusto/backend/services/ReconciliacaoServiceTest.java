@@ -0,0 +1,121 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.dto.DivergenciaSaldoDTO;
+import com.augusto.backend.dto.ReconciliacaoResultadoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do ReconciliacaoService")
+class ReconciliacaoServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ContaService contaService;
+
+    @Mock
+    private ArquivamentoService arquivamentoService;
+
+    @Test
+    @DisplayName("Divergência que some com a conta travada não deve ser corrigida nem listada")
+    void reconciliar_DivergenciaJaResolvidaNaoDeveSerCorrigida() throws Exception {
+        when(arquivamentoService.semArquivamento(any())).thenAnswer(invocacao -> {
+            Supplier<?> acao = invocacao.getArgument(0);
+            return Optional.of(acao.get());
+        });
+        faixaDeContas(1, 1);
+        linhasDaFaixa(new Object[] {1L, "100.00", "90.00"});
+        // Um lançamento de -10 fez commit entre a leitura da faixa e o lock
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE"), eq(BigDecimal.class), eq(1L)))
+                .thenReturn(List.of(new BigDecimal("90.00")));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COALESCE"), eq(BigDecimal.class), eq(1L)))
+                .thenReturn(new BigDecimal("90.00"));
+
+        ReconciliacaoResultadoDTO resultado = servico(1000).reconciliar(true).orElseThrow();
+
+        assertThat(resultado.getContasVerificadas()).isEqualTo(1);
+        assertThat(resultado.getDivergenciasEncontradas()).isZero();
+        assertThat(resultado.getDivergenciasCorrigidas()).isZero();
+        assertThat(resultado.getDivergencias()).isEmpty();
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE contas"), any(Object[].class));
+        verify(contaService, never()).descartarDoCache(anyLong());
+    }
+
+    @Test
+    @DisplayName("Deve contar todas as divergências, mas listar só até o limite")
+    void reconciliar_DeveLimitarDivergenciasListadas() throws Exception {
+        faixaDeContas(1, 5);
+        linhasDaFaixa(
+                new Object[] {1L, "10.00", "0.00"},
+                new Object[] {2L, "20.00", "0.00"},
+                new Object[] {3L, "30.00", "30.00"},
+                new Object[] {4L, "40.00", "0.00"},
+                new Object[] {5L, "50.00", "0.00"});
+
+        ReconciliacaoResultadoDTO resultado = servico(2).reconciliar(false).orElseThrow();
+
+        assertThat(resultado.getContasVerificadas()).isEqualTo(5);
+        assertThat(resultado.getDivergenciasEncontradas()).isEqualTo(4);
+        assertThat(resultado.getDivergencias()).hasSize(2).noneMatch(DivergenciaSaldoDTO::isCorrigida);
+        verify(arquivamentoService, never()).semArquivamento(any());
+    }
+
+    @Test
+    @DisplayName("Correção durante um arquivamento deve devolver vazio sem ler as contas")
+    void reconciliar_ComArquivamentoEmAndamentoDeveDevolverVazio() {
+        when(arquivamentoService.semArquivamento(any())).thenReturn(Optional.empty());
+        ReconciliacaoService reconciliacaoService = servico(1000);
+
+        assertThat(reconciliacaoService.reconciliar(true)).isEmpty();
+        assertThat(reconciliacaoService.reconciliar(true)).isEmpty();
+        verify(arquivamentoService, times(2)).semArquivamento(any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private ReconciliacaoService servico(int maxDivergenciasListadas) {
+        return new ReconciliacaoService(jdbcTemplate, transactionManager, contaService, null, arquivamentoService,
+                new SimpleMeterRegistry(), 1, 10_000, maxDivergenciasListadas);
+    }
+
+    private void faixaDeContas(long menor, long maior) {
+        when(jdbcTemplate.queryForMap(startsWith("SELECT MIN(id)"))).thenReturn(Map.of("menor", menor, "maior", maior));
+    }
+
+    /** Cada linha é {id, saldo, calculado}, entregue ao RowCallbackHandler da faixa. */
+    private void linhasDaFaixa(Object[]... linhas) throws Exception {
+        doAnswer(invocacao -> {
+            RowCallbackHandler handler = invocacao.getArgument(1);
+            for (Object[] linha : linhas) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("id")).thenReturn((Long) linha[0]);
+                when(rs.getBigDecimal("saldo")).thenReturn(new BigDecimal((String) linha[1]));
+                when(rs.getBigDecimal("calculado")).thenReturn(new BigDecimal((String) linha[2]));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(), any());
+    }
+}
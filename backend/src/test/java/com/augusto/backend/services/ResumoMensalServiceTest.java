@@ -0,0 +1,71 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do ResumoMensalService")
+class ResumoMensalServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ContaService contaService;
+
+    @Mock
+    private ArquivamentoService arquivamentoService;
+
+    private ResumoMensalService resumoMensalService;
+
+    @BeforeEach
+    void setUp() {
+        resumoMensalService = new ResumoMensalService(jdbcTemplate, contaService, arquivamentoService, 1000);
+    }
+
+    @Test
+    @DisplayName("Descarte de um mês deve recalcular só aquele mês daquela conta")
+    void descartar_DeveDescartarSoOMesDaConta() {
+        resumoMensalService.resumoDoAno(1L, 2024);
+        resumoMensalService.resumoDoAno(2L, 2024);
+        verify(jdbcTemplate, times(24)).query(anyString(), any(RowCallbackHandler.class), any(), any(), any());
+
+        resumoMensalService.descartar(new MovimentacoesRegistradasEvent(List.of(
+                new MovimentacoesRegistradasEvent.Variacao(1L, LocalDate.of(2024, 3, 10), new BigDecimal("50.00")))));
+        resumoMensalService.resumoDoAno(1L, 2024);
+        resumoMensalService.resumoDoAno(2L, 2024);
+
+        verify(jdbcTemplate, times(25)).query(anyString(), any(RowCallbackHandler.class), any(), any(), any());
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowCallbackHandler.class),
+                eq(1L), eq(Date.valueOf("2024-03-01")), eq(Date.valueOf("2024-04-01")));
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class),
+                eq(2L), eq(Date.valueOf("2024-03-01")), eq(Date.valueOf("2024-04-01")));
+    }
+
+    @Test
+    @DisplayName("Conta excluída deve responder 404 mesmo com o ano todo em cache")
+    void resumoDoAno_ContaExcluidaComAnoEmCacheDeveLancarExcecao() {
+        resumoMensalService.resumoDoAno(1L, 2024);
+        when(contaService.findByIdOrThrow(1L)).thenThrow(new ResourceNotFoundException("Conta não encontrada com ID: 1"));
+
+        assertThatThrownBy(() -> resumoMensalService.resumoDoAno(1L, 2024))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(jdbcTemplate, times(12)).query(anyString(), any(RowCallbackHandler.class), any(), any(), any());
+    }
+}
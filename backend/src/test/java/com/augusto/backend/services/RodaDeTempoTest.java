@@ -0,0 +1,73 @@
+package com.augusto.backend.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Testes da RodaDeTempo")
+class RodaDeTempoTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    @DisplayName("Deve devolver os itens só quando vencem, na ordem de vencimento")
+    void avancar_DeveDevolverNaOrdemDeVencimento() {
+        RodaDeTempo roda = new RodaDeTempo(TICK, 2, 0);
+        roda.agendar(3, 30 * TICK);
+        roda.agendar(1, 10 * TICK);
+        roda.agendar(2, 20 * TICK);
+
+        assertThat(roda.avancar(9 * TICK)).isEmpty();
+        assertThat(roda.avancar(25 * TICK)).containsExactly(1L, 2L);
+        assertThat(roda.tamanho()).isEqualTo(1);
+        assertThat(roda.avancar(30 * TICK)).containsExactly(3L);
+        assertThat(roda.tamanho()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve redistribuir entre os níveis sem adiantar nem atrasar o vencimento")
+    void avancar_DeveRedistribuirEntreNiveis() {
+        RodaDeTempo roda = new RodaDeTempo(TICK, 3, 0);
+        // Nível 1 (>= 64 ticks) e nível 2 (>= 4096 ticks)
+        roda.agendar(1, 100 * TICK);
+        roda.agendar(2, 5000 * TICK);
+
+        List<Long> vencidos = new ArrayList<>();
+        for (long t = 1; t <= 99; t++) {
+            vencidos.addAll(roda.avancar(t * TICK));
+        }
+        assertThat(vencidos).isEmpty();
+        assertThat(roda.avancar(100 * TICK)).containsExactly(1L);
+        assertThat(roda.avancar(4999 * TICK)).isEmpty();
+        assertThat(roda.avancar(5000 * TICK)).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Deve vencer no próximo avanço um item agendado para o passado")
+    void agendar_VencimentoPassadoDeveSairNoProximoAvanco() {
+        RodaDeTempo roda = new RodaDeTempo(TICK, 1, 50 * TICK);
+        roda.agendar(7, 10 * TICK);
+
+        assertThat(roda.avancar(50 * TICK)).containsExactly(7L);
+        assertThat(roda.tamanho()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve guardar além do alcance e vencer no tempo certo")
+    void agendar_AlemDoAlcanceDeveVencerNoTempoCerto() {
+        RodaDeTempo roda = new RodaDeTempo(TICK, 1, 0);
+        assertThat(roda.alcanceMs()).isEqualTo(64 * TICK);
+        roda.agendar(9, 200 * TICK);
+
+        List<Long> vencidos = new ArrayList<>();
+        for (long t = 1; t < 200; t++) {
+            vencidos.addAll(roda.avancar(t * TICK));
+        }
+        assertThat(vencidos).isEmpty();
+        assertThat(roda.avancar(200 * TICK)).containsExactly(9L);
+    }
+}
@@ -0,0 +1,78 @@
+package com.augusto.backend.services;
+
+import com.augusto.backend.domain.Usuario;
+import com.augusto.backend.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do UsuarioService")
+class UsuarioServiceTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    private UsuarioService usuarioService;
+
+    @BeforeEach
+    void setUp() {
+        usuarioService = new UsuarioService(usuarioRepository, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    @DisplayName("Login repetido deve sair do cache, sem ir ao banco")
+    void loadUserByUsername_DeveUsarOCache() {
+        when(usuarioRepository.findByEmail("ana@email.com")).thenReturn(Optional.of(usuario(1L, "ana@email.com")));
+
+        usuarioService.loadUserByUsername("ana@email.com");
+        usuarioService.loadUserByUsername("ana@email.com");
+
+        verify(usuarioRepository, times(1)).findByEmail("ana@email.com");
+    }
+
+    @Test
+    @DisplayName("Salvar usuário com outro email deve invalidar o email antigo no cache")
+    void save_DeveInvalidarEmailAntigo() {
+        when(usuarioRepository.findByEmail("ana@email.com"))
+                .thenReturn(Optional.of(usuario(1L, "ana@email.com")), Optional.empty());
+        usuarioService.loadUserByUsername("ana@email.com");
+
+        Usuario alterado = usuario(1L, "ana.souza@email.com");
+        when(usuarioRepository.save(alterado)).thenReturn(alterado);
+        usuarioService.save(alterado);
+
+        assertThatThrownBy(() -> usuarioService.loadUserByUsername("ana@email.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Excluir usuário deve invalidar o email dele no cache")
+    void deleteById_DeveInvalidarEmail() {
+        when(usuarioRepository.findByEmail("ana@email.com"))
+                .thenReturn(Optional.of(usuario(1L, "ana@email.com")), Optional.empty());
+        usuarioService.loadUserByUsername("ana@email.com");
+
+        usuarioService.deleteById(1L);
+
+        assertThatThrownBy(() -> usuarioService.loadUserByUsername("ana@email.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    private static Usuario usuario(Long id, String email) {
+        Usuario usuario = new Usuario();
+        usuario.setId(id);
+        usuario.setEmail(email);
+        return usuario;
+    }
+}